@@ -0,0 +1,31 @@
+package scrum;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import scrum.token.SourceMap;
+
+import java.util.Map;
+
+/**
+ * Program compiled by the {@link ScrumEngine}. It is not changed by its executions, each one having its own memory,
+ * so a program can be shared by the threads executing it.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PACKAGE)
+@Getter(AccessLevel.PACKAGE)
+public class CompiledProgram {
+    private final String fileName;
+    private final SourceMap sourceMap;
+    private final ParseCache.Program program;
+
+    public Execution newExecution() {
+        return newExecution(Map.of());
+    }
+
+    /**
+     * @param bindings variables defined before the script is executed, see {@link Execution#toValue(Object)}
+     */
+    public Execution newExecution(Map<String, ?> bindings) {
+        return new Execution(this, bindings);
+    }
+}
@@ -0,0 +1,109 @@
+package scrum;
+
+import scrum.context.ExecutionContext;
+import scrum.context.Interpreter;
+import scrum.context.MemoryContext;
+import scrum.context.MemoryScope;
+import scrum.context.definition.DefinitionContext;
+import scrum.expression.value.IntegerValue;
+import scrum.expression.value.LogicalValue;
+import scrum.expression.value.NullValue;
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.TextValue;
+import scrum.expression.value.Value;
+import scrum.statement.CompositeStatement;
+
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+/**
+ * Execution of a {@link CompiledProgram} with its own memory, run by the calling thread. The SAY and ASK statements
+ * use the standard console unless another one is set.
+ */
+public class Execution {
+    private final CompiledProgram program;
+    private final Map<String, Value<?>> bindings = new LinkedHashMap<>();
+    private PrintStream output;
+    private Supplier<String> input;
+    // root frame of the last run, holding the variables of the script
+    private MemoryScope scope;
+
+    Execution(CompiledProgram program, Map<String, ?> bindings) {
+        this.program = program;
+        bindings.forEach((name, value) -> this.bindings.put(name, toValue(value)));
+    }
+
+    /**
+     * Print the SAY statements and the prompts of the ASK statements to the stream
+     */
+    public Execution output(PrintStream output) {
+        this.output = output;
+        return this;
+    }
+
+    /**
+     * Read the lines typed for the ASK statements from the supplier
+     */
+    public Execution input(Supplier<String> input) {
+        this.input = input;
+        return this;
+    }
+
+    public Execution input(Reader reader) {
+        return input(new Scanner(reader)::nextLine);
+    }
+
+    /**
+     * Execute the program, the variables it defines are then available with {@link #get(String)}
+     */
+    public Execution run() {
+        Interpreter interpreter = new Interpreter();
+        interpreter.setOutput(output);
+        interpreter.setInput(input);
+        ScopedValue.where(Interpreter.CURRENT, interpreter).run(() -> {
+            ExecutionContext.initialize(program.getFileName(), program.getSourceMap());
+            ParseCache.Program parsed = program.getProgram();
+            CompositeStatement statement = parsed.statement();
+            MemoryScope scope = new MemoryScope(null, statement.getFrameLayout());
+            bindings.forEach(scope::setLocal);
+            DefinitionContext.pushScope(parsed.definitionScope());
+            MemoryContext.pushScope(scope);
+            this.scope = scope;
+            statement.execute();
+        });
+        return this;
+    }
+
+    /**
+     * @return value of a variable defined by the program, or bound before its execution
+     */
+    public Value<?> get(String name) {
+        if (scope == null)
+            throw new IllegalStateException("The program has not been executed");
+        return scope.get(name);
+    }
+
+    /**
+     * Convert a value of the application to a value of the language: numbers, booleans and texts are converted,
+     * values of the language are kept as is
+     */
+    static Value<?> toValue(Object value) {
+        if (value == null)
+            return NullValue.NULL_INSTANCE;
+        if (value instanceof Value<?> scrumValue)
+            return scrumValue;
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte)
+            return IntegerValue.of(((Number) value).longValue());
+        if (value instanceof Number number)
+            return NumericValue.of(number.doubleValue());
+        if (value instanceof Boolean logical)
+            return new LogicalValue(logical);
+        if (value instanceof CharSequence text)
+            return new TextValue(text.toString());
+        throw new IllegalArgumentException("Unsupported value of type " + value.getClass().getName());
+    }
+}
@@ -1,39 +1,74 @@
 package scrum;
 
 import scrum.exception.TokenException;
+import scrum.token.SourceMap;
 import scrum.token.Token;
+import scrum.token.TokenBuffer;
+import scrum.token.TokenScanner;
 import scrum.token.TokenType;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class LexicalParser {
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+    private static final Pattern[] TOKEN_PATTERNS = IntStream.range(0, TOKEN_TYPES.length)
+            .mapToObj(i -> Pattern.compile("^(?:" + TOKEN_TYPES[i].getRegex() + ")"))
+            .toArray(Pattern[]::new);
+
+    // sources of at least this many characters are lexed in parallel chunks
+    private static final int PARALLEL_THRESHOLD = 1 << 20;
+    private static final int PARALLEL_CHUNK_SIZE = 1 << 17;
+
     private final List<Token> tokens;
     private final String source;
-    private final List<Integer> linesIndices;
+    private final SourceMap sourceMap;
 
     public LexicalParser(String source) {
-        this.source = source;
+        this(new SourceMap(source));
+    }
+
+    public LexicalParser(SourceMap sourceMap) {
+        this.source = sourceMap.getSource();
+        this.sourceMap = sourceMap;
         this.tokens = new ArrayList<>();
-        this.linesIndices = IntStream
-                .iterate(source.indexOf("\n"), index -> index >= 0, index -> source.indexOf("\n", index + 1))
-                .boxed()
-                .collect(Collectors.toList());
     }
 
     public List<Token> parse() {
+        return tokenize().asList();
+    }
+
+    /**
+     * Tokenize the source into the compact {@link TokenBuffer} representation consumed by the {@link StatementParser}
+     */
+    public TokenBuffer tokenize() {
+        if (source.length() >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1)
+            return TokenScanner.scanInParallel(sourceMap, PARALLEL_CHUNK_SIZE);
+        return new TokenScanner(sourceMap).scan();
+    }
+
+    /**
+     * Tokenize the source by matching the {@link TokenType} patterns one by one.
+     * Kept as the reference implementation the {@link TokenScanner} output is verified against.
+     */
+    List<Token> parseWithPatterns() {
+        List<Integer> linesIndices = IntStream
+                .iterate(source.indexOf("\n"), index -> index >= 0, index -> source.indexOf("\n", index + 1))
+                .boxed()
+                .collect(Collectors.toList());
         int position = 0;
         while (position < source.length()) {
-            position += nextToken(position);
+            position += nextToken(position, linesIndices);
         }
         return tokens;
     }
 
-    private int nextToken(int position) {
+    private int nextToken(int position, List<Integer> linesIndices) {
         String nextToken = source.substring(position);
 
         int row = IntStream.range(0, linesIndices.size())
@@ -54,18 +89,18 @@ public class LexicalParser {
                         .row(row)
                         .build();
                 tokens.add(intentToken);
-                
+
                 int intentLength = intentMatcher.group().length();
-                
+
                 // Find #END INTENT
                 int endIntentPos = source.indexOf("#END INTENT", position + intentLength);
                 if (endIntentPos == -1) {
                     throw new TokenException(String.format("Missing #END INTENT at line %d", row));
                 }
-                
+
                 // Extract the raw text between #INTENT and #END INTENT
                 String intentText = source.substring(position + intentLength, endIntentPos);
-                
+
                 // Add the intent text as a single Text token (preserve whitespace and newlines)
                 if (!intentText.trim().isEmpty()) {
                     Token textToken = Token.builder()
@@ -75,7 +110,7 @@ public class LexicalParser {
                             .build();
                     tokens.add(textToken);
                 }
-                
+
                 // Add #END INTENT keyword token
                 int endRow = row + countNewlines(intentText);
                 Token endIntentToken = Token.builder()
@@ -84,15 +119,15 @@ public class LexicalParser {
                         .row(endRow)
                         .build();
                 tokens.add(endIntentToken);
-                
+
                 // Return total length consumed
                 return (endIntentPos - position) + "#END INTENT".length();
             }
         }
 
-        for (TokenType tokenType : TokenType.values()) {
-            Pattern pattern = Pattern.compile("^" + tokenType.getRegex());
-            Matcher matcher = pattern.matcher(nextToken);
+        for (int i = 0; i < TOKEN_TYPES.length; i++) {
+            TokenType tokenType = TOKEN_TYPES[i];
+            Matcher matcher = TOKEN_PATTERNS[i].matcher(nextToken);
             if (matcher.find()) {
                 if (tokenType != TokenType.Whitespace) {
                     // group(1) is used to get text literal without double quotes
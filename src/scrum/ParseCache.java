@@ -0,0 +1,164 @@
+package scrum;
+
+import scrum.context.definition.DefinitionScope;
+import scrum.statement.CompositeStatement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * On-disk cache of parsed programs, so an unchanged source is neither lexed nor parsed again.
+ * <p>
+ * An entry holds the serialized statement tree of a program with its root {@link DefinitionScope} and is keyed by
+ * the hash of the source and of the interpreter version. Entries which can't be read, e.g. written by another build
+ * of the interpreter, are treated as missing and replaced.
+ * <p>
+ * The cache is stored in `~/.scrum/cache` unless the `scrum.cache.dir` property is set, and is disabled by setting
+ * the `scrum.cache` property to `false`.
+ */
+public class ParseCache {
+    private static final String MAGIC = "SCRUM-AST";
+    private static final String EXTENSION = ".ast";
+    // classes a cache entry may be made of
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+            "scrum.**;java.lang.*;java.util.*;!*");
+
+    private final Path directory;
+    private final boolean enabled;
+
+    public ParseCache(Path directory, boolean enabled) {
+        this.directory = directory;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Cache configured by the `scrum.cache` and `scrum.cache.dir` properties
+     */
+    public static ParseCache fromSystemProperties() {
+        String directory = System.getProperty("scrum.cache.dir");
+        return new ParseCache(directory != null ? Path.of(directory) : defaultDirectory(),
+                !"false".equalsIgnoreCase(System.getProperty("scrum.cache")));
+    }
+
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".scrum", "cache");
+    }
+
+    /**
+     * Parsed program with the definitions declared at its top level
+     */
+    public record Program(CompositeStatement statement, DefinitionScope definitionScope) implements Serializable {
+    }
+
+    /**
+     * Get the program parsed from the source, parsing it and storing it on a cache miss
+     */
+    public Program get(String source, Supplier<Program> parser) {
+        if (!enabled)
+            return parser.get();
+
+        Path entry = directory.resolve(key(source) + EXTENSION);
+        Program program = read(entry);
+        if (program == null) {
+            program = parser.get();
+            write(entry, program);
+        }
+        return program;
+    }
+
+    /**
+     * Delete all the entries of the cache
+     *
+     * @return number of deleted entries
+     */
+    public int purge() throws IOException {
+        if (!Files.isDirectory(directory))
+            return 0;
+        int count = 0;
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path entry : entries) {
+                if (Files.deleteIfExists(entry))
+                    count++;
+            }
+        }
+        return count;
+    }
+
+    static String key(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(Scrum.VERSION.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Program read(Path entry) {
+        if (!Files.isRegularFile(entry))
+            return null;
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(entry))) {
+            DataInputStream header = new DataInputStream(input);
+            if (!MAGIC.equals(header.readUTF()) || !Scrum.VERSION.equals(header.readUTF()))
+                return null;
+            ObjectInputStream objects = new ObjectInputStream(input);
+            objects.setObjectInputFilter(FILTER);
+            return (Program) objects.readObject();
+        } catch (Exception e) {
+            // stale or corrupted entry, it is replaced by the parsed program
+            return null;
+        }
+    }
+
+    private void write(Path entry, Program program) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+            try {
+                try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temporary))) {
+                    DataOutputStream header = new DataOutputStream(output);
+                    header.writeUTF(MAGIC);
+                    header.writeUTF(Scrum.VERSION);
+                    header.flush();
+                    ObjectOutputStream objects = new ObjectOutputStream(output);
+                    objects.writeObject(program);
+                    objects.flush();
+                }
+                move(temporary, entry);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException | RuntimeException e) {
+            // the cache is only an optimization, the program is executed anyway
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -11,7 +11,7 @@ import java.util.List;
 public class Scrum {
 
     // Version information
-    private static final String VERSION = "2.0.0";
+    static final String VERSION = "2.0.0";
     private static final String BUILD_DATE = "2025-12-28";
 
     public static void main(String[] args) {
@@ -43,6 +43,78 @@ public class Scrum {
                 return;
             }
             
+            // Stream large sources instead of reading them at once
+            if (firstArg.equals("--stream")) {
+                if (args.length < 2) {
+                    System.err.println("Error: --stream requires a filename argument");
+                    printUsage();
+                    System.exit(1);
+                }
+                System.setProperty("scrum.stream", "true");
+                executeFile(args[1]);
+                return;
+            }
+            
+            // Parse the story bodies on their first invocation
+            if (firstArg.equals("--lazy")) {
+                if (args.length < 2) {
+                    System.err.println("Error: --lazy requires a filename argument");
+                    printUsage();
+                    System.exit(1);
+                }
+                System.setProperty("scrum.lazy", "true");
+                executeFile(args[1]);
+                return;
+            }
+            
+            // Compile the program to JVM bytecode before executing it
+            if (firstArg.equals("--compile")) {
+                if (args.length < 2) {
+                    System.err.println("Error: --compile requires a filename argument");
+                    printUsage();
+                    System.exit(1);
+                }
+                System.setProperty("scrum.compile", "true");
+                executeFile(args[1]);
+                return;
+            }
+            
+            // Execute the program on the tree-walking interpreter or on the virtual machine
+            if (firstArg.startsWith("--engine=")) {
+                String engine = firstArg.substring("--engine=".length());
+                if (!engine.equals("tree") && !engine.equals("vm")) {
+                    System.err.println("Error: unknown engine " + engine + ", expected tree or vm");
+                    printUsage();
+                    System.exit(1);
+                }
+                if (args.length < 2) {
+                    System.err.println("Error: --engine requires a filename argument");
+                    printUsage();
+                    System.exit(1);
+                }
+                System.setProperty("scrum.engine", engine);
+                executeFile(args[1]);
+                return;
+            }
+            
+            // Parse the source again instead of reading it from the parse cache
+            if (firstArg.equals("--no-cache")) {
+                if (args.length < 2) {
+                    System.err.println("Error: --no-cache requires a filename argument");
+                    printUsage();
+                    System.exit(1);
+                }
+                System.setProperty("scrum.cache", "false");
+                executeFile(args[1]);
+                return;
+            }
+            
+            // Delete the cached parsed programs
+            if (firstArg.equals("--purge-cache")) {
+                purgeCache();
+                System.exit(0);
+            }
+            
             // Validate syntax only (no execution)
             if (firstArg.equals("--validate") || firstArg.equals("--syntax-check") || firstArg.equals("-c")) {
                 if (args.length < 2) {
@@ -81,6 +153,12 @@ public class Scrum {
         System.out.println("  -h, --help          Display this help message");
         System.out.println("  -d, --debug         Enable debug mode with detailed error traces");
         System.out.println("  -c, --validate      Validate syntax only (no execution)");
+        System.out.println("      --stream        Read the source in chunks instead of loading it at once");
+        System.out.println("      --lazy          Parse the user stories when they are first invoked");
+        System.out.println("      --compile       Compile the program to JVM bytecode before executing it");
+        System.out.println("      --engine=vm     Execute the program on the register-based virtual machine");
+        System.out.println("      --no-cache      Parse the source again instead of using the parse cache");
+        System.out.println("      --purge-cache   Delete the cached parsed programs");
         System.out.println("      --syntax-check  Alias for --validate");
         System.out.println("      --examples      Show available examples and sample code");
         System.out.println("");
@@ -215,6 +293,19 @@ public class Scrum {
         }
     }
     
+    /**
+     * Delete the entries of the parse cache
+     */
+    private static void purgeCache() {
+        try {
+            int count = ParseCache.fromSystemProperties().purge();
+            System.out.println("Deleted " + count + " cached program(s)");
+        } catch (java.io.IOException ex) {
+            System.err.println("Error: failed to purge the parse cache: " + ex.getMessage());
+            System.exit(1);
+        }
+    }
+    
     /**
      * Validate syntax only without execution
      */
@@ -222,17 +313,22 @@ public class Scrum {
         try {
             String source = java.nio.file.Files.readString(Path.of(filename));
             String fileName = Path.of(filename).getFileName().toString();
-            
-            // Initialize execution context for syntax checking
-            scrum.context.ExecutionContext.initialize(fileName, source);
-            
-            // Parse tokens and statements for syntax validation
-            scrum.LexicalParser lexicalParser = new scrum.LexicalParser(source);
-            List<scrum.token.Token> tokens = lexicalParser.parse();
-            
-            scrum.context.definition.DefinitionContext.pushScope(scrum.context.definition.DefinitionContext.newScope());
-            scrum.statement.CompositeStatement statement = new scrum.statement.CompositeStatement();
-            scrum.StatementParser.parse(tokens, statement);
+            scrum.token.SourceMap sourceMap = new scrum.token.SourceMap(source);
+
+            // the parsing has its own interpreter state, as the execution of a script
+            ScopedValue.where(scrum.context.Interpreter.CURRENT, new scrum.context.Interpreter()).run(() -> {
+                // Initialize execution context for syntax checking
+                scrum.context.ExecutionContext.initialize(fileName, sourceMap);
+
+                // Parse tokens and statements for syntax validation
+                scrum.LexicalParser lexicalParser = new scrum.LexicalParser(sourceMap);
+                scrum.token.TokenBuffer tokens = lexicalParser.tokenize();
+
+                scrum.context.definition.DefinitionContext.pushScope(
+                        scrum.context.definition.DefinitionContext.newScope());
+                scrum.statement.CompositeStatement statement = new scrum.statement.CompositeStatement();
+                scrum.StatementParser.parse(tokens, statement);
+            });
             
             System.out.println("✅ Syntax validation successful for: " + filename);
             System.out.println("   No syntax errors found. The file is ready for execution.");
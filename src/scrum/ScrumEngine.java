@@ -0,0 +1,80 @@
+package scrum;
+
+import lombok.SneakyThrows;
+import scrum.compiler.ScrumCompiler;
+import scrum.context.ExecutionContext;
+import scrum.context.Interpreter;
+import scrum.context.definition.DefinitionContext;
+import scrum.context.definition.DefinitionScope;
+import scrum.statement.CompositeStatement;
+import scrum.token.SourceMap;
+import scrum.vm.ScrumVm;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Entry point to embed scripts in an application: a script is compiled once and its {@link CompiledProgram} executed
+ * any number of times, concurrently by different threads.
+ * <pre>{@code
+ * CompiledProgram program = new ScrumEngine().compile("SAY greeting");
+ * program.newExecution(Map.of("greeting", "Hello")).output(out).run();
+ * }</pre>
+ */
+public class ScrumEngine {
+    private static final String DEFAULT_FILE_NAME = "script.scrum";
+
+    private boolean bytecode = Boolean.getBoolean("scrum.compile");
+    private boolean vm = "vm".equals(System.getProperty("scrum.engine"));
+
+    /**
+     * Compile the programs to JVM bytecode too, see {@link ScrumCompiler}. Enabled by the `scrum.compile` property.
+     */
+    public ScrumEngine bytecode(boolean bytecode) {
+        this.bytecode = bytecode;
+        return this;
+    }
+
+    public CompiledProgram compile(String source) {
+        return compile(DEFAULT_FILE_NAME, source);
+    }
+
+    @SneakyThrows
+    public CompiledProgram compile(Path path) {
+        return compile(path.getFileName().toString(), Files.readString(path));
+    }
+
+    /**
+     * Execute the programs on the virtual machine, see {@link ScrumVm}. Enabled by the `scrum.engine=vm` property.
+     */
+    public ScrumEngine vm(boolean vm) {
+        this.vm = vm;
+        return this;
+    }
+
+    /**
+     * Parse the source and transform its intent blocks, so the program is not changed anymore once compiled
+     *
+     * @param fileName name of the script reported by the impediments
+     */
+    @SneakyThrows
+    public CompiledProgram compile(String fileName, String source) {
+        SourceMap sourceMap = new SourceMap(source);
+        // the parsing is isolated from the state of the calling thread
+        return ScopedValue.where(Interpreter.CURRENT, new Interpreter()).call(() -> {
+            ExecutionContext.initialize(fileName, sourceMap);
+            DefinitionScope definitionScope = DefinitionContext.newScope();
+            DefinitionContext.pushScope(definitionScope);
+            CompositeStatement statement = new CompositeStatement();
+            StatementParser.parse(new LexicalParser(sourceMap).tokenize(), statement);
+            VariableResolver.resolve(statement, List.of());
+            ScrumLanguage.preprocessIntents(statement);
+            if (vm)
+                ScrumVm.lower(statement, definitionScope);
+            else if (bytecode)
+                ScrumCompiler.compile(statement, definitionScope);
+            return new CompiledProgram(fileName, sourceMap, new ParseCache.Program(statement, definitionScope));
+        });
+    }
+}
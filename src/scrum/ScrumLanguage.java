@@ -1,56 +1,144 @@
 package scrum;
 
 import lombok.SneakyThrows;
+import scrum.compiler.ScrumCompiler;
 import scrum.context.ExecutionContext;
+import scrum.context.Interpreter;
 import scrum.context.MemoryContext;
 import scrum.context.definition.DefinitionContext;
+import scrum.context.definition.DefinitionScope;
 import scrum.preprocessor.IntentPreprocessor;
 import scrum.preprocessor.IntentPreprocessorException;
 import scrum.statement.CompositeStatement;
-import scrum.token.Token;
+import scrum.token.SourceMap;
+import scrum.token.TokenBuffer;
+import scrum.token.TokenStream;
+import scrum.vm.ScrumVm;
 
+import java.io.Reader;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.function.Consumer;
 
 public class ScrumLanguage {
+    // sources larger than this are streamed instead of being read at once
+    private static final long STREAMING_THRESHOLD = 64L << 20;
 
-    @SneakyThrows
+    private final ParseCache cache;
+
+    public ScrumLanguage() {
+        this(ParseCache.fromSystemProperties());
+    }
+
+    public ScrumLanguage(ParseCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Execute a script with its own interpreter state bound for the execution, so scripts may be executed in parallel
+     * by different threads
+     */
     public void execute(Path path) {
+        ScopedValue.where(Interpreter.CURRENT, new Interpreter()).run(() -> executeBound(path));
+    }
+
+    @SneakyThrows
+    private void executeBound(Path path) {
+        if (isStreamed(path)) {
+            executeStreamed(path);
+            return;
+        }
+
         String source = Files.readString(path);
         String fileName = path.getFileName().toString();
+        SourceMap sourceMap = new SourceMap(source);
         
         // Initialize execution context
-        ExecutionContext.initialize(fileName, source);
+        ExecutionContext.initialize(fileName, sourceMap);
         
         try {
-            LexicalParser lexicalParser = new LexicalParser(source);
-            List<Token> tokens = lexicalParser.parse();
+            ParseCache.Program program = cache.get(source, () -> parse(statement -> {
+                TokenBuffer tokens = new LexicalParser(sourceMap).tokenize();
+                StatementParser.parse(tokens, statement, Boolean.getBoolean("scrum.lazy"));
+                VariableResolver.resolve(statement, List.of());
+            }));
+            execute(program);
+        } finally {
+            ExecutionContext.clear();
+        }
+    }
 
-            DefinitionContext.pushScope(DefinitionContext.newScope());
-            MemoryContext.pushScope(MemoryContext.newScope());
-            try {
-                CompositeStatement statement = new CompositeStatement();
+    /**
+     * Execute a source without loading it in memory, the tokens are read chunk by chunk while parsing.
+     * Only the line starts of the source are kept to locate runtime impediments. Streamed sources are not cached.
+     */
+    @SneakyThrows
+    private void executeStreamed(Path path) {
+        String fileName = path.getFileName().toString();
+        ExecutionContext.initialize(fileName, (SourceMap) null);
+
+        try (Reader reader = Files.newBufferedReader(path)) {
+            TokenStream tokens = new TokenStream(reader);
+
+            execute(parse(statement -> {
                 StatementParser.parse(tokens, statement);
-                
-                // Preprocess intent blocks before execution
-                preprocessIntents(statement);
-                
-                statement.execute();
-            } finally {
-                DefinitionContext.endScope();
-                MemoryContext.endScope();
-            }
+                VariableResolver.resolve(statement, List.of());
+                ExecutionContext.get().setSourceMap(tokens.getSourceMap());
+            }));
         } finally {
             ExecutionContext.clear();
         }
     }
+
+    /**
+     * Stream the source when asked with the `scrum.stream` property or when the file is too large to be read at once
+     */
+    @SneakyThrows
+    private boolean isStreamed(Path path) {
+        return Boolean.getBoolean("scrum.stream") || Files.size(path) > STREAMING_THRESHOLD;
+    }
+
+    private ParseCache.Program parse(Consumer<CompositeStatement> parser) {
+        DefinitionScope definitionScope = DefinitionContext.newScope();
+        DefinitionContext.pushScope(definitionScope);
+        try {
+            CompositeStatement statement = new CompositeStatement();
+            parser.accept(statement);
+            return new ParseCache.Program(statement, definitionScope);
+        } finally {
+            DefinitionContext.endScope();
+        }
+    }
+
+    @SneakyThrows
+    private void execute(ParseCache.Program program) {
+        DefinitionContext.pushScope(program.definitionScope());
+        CompositeStatement statement = program.statement();
+        MemoryContext.pushScope(MemoryContext.newScope(statement.getFrameLayout()));
+        try {
+
+            // Preprocess intent blocks before execution
+            preprocessIntents(statement);
+
+            // Compile or lower the program once the intent blocks are replaced
+            if ("vm".equals(System.getProperty("scrum.engine")))
+                ScrumVm.lower(statement, program.definitionScope());
+            else if (Boolean.getBoolean("scrum.compile"))
+                ScrumCompiler.compile(statement, program.definitionScope());
+            
+            statement.execute();
+        } finally {
+            DefinitionContext.endScope();
+            MemoryContext.endScope();
+        }
+    }
     
     /**
      * Preprocess intent blocks in the parsed AST.
      * Transforms natural language intents into executable SCRUM code using LLM.
      */
-    private void preprocessIntents(CompositeStatement statement) throws IntentPreprocessorException {
+    static void preprocessIntents(CompositeStatement statement) throws IntentPreprocessorException {
         // Check if there are any intent blocks in statements OR in function definitions
         boolean hasIntents = containsIntentBlocks(statement) || containsIntentBlocksInDefinitions();
         
@@ -83,10 +171,10 @@ public class ScrumLanguage {
     /**
      * Check if any function definitions contain intent blocks.
      */
-    private boolean containsIntentBlocksInDefinitions() {
+    private static boolean containsIntentBlocksInDefinitions() {
         var allFunctions = scrum.context.definition.DefinitionContext.getScope().getAllFunctionsRecursive();
         for (var func : allFunctions) {
-            if (containsIntentBlocks(func.getStatement())) {
+            if (!func.getStatement().isDeferred() && containsIntentBlocks(func.getStatement())) {
                 return true;
             }
         }
@@ -96,16 +184,17 @@ public class ScrumLanguage {
     /**
      * Preprocess intent blocks in all function definitions.
      */
-    private void preprocessFunctionDefinitions(IntentPreprocessor preprocessor) throws IntentPreprocessorException {
+    private static void preprocessFunctionDefinitions(IntentPreprocessor preprocessor) throws IntentPreprocessorException {
         for (scrum.context.definition.FunctionDefinition func : scrum.context.definition.DefinitionContext.getScope().getAllFunctionsRecursive()) {
-            preprocessor.processIntents(func.getStatement());
+            if (!func.getStatement().isDeferred())
+                preprocessor.processIntents(func.getStatement());
         }
     }
     
     /**
      * Check if the statement tree contains any IntentBlockStatement nodes.
      */
-    private boolean containsIntentBlocks(CompositeStatement statement) {
+    private static boolean containsIntentBlocks(CompositeStatement statement) {
         return statement.getStatements2Execute().stream()
             .anyMatch(stmt -> {
                 if (stmt instanceof scrum.statement.IntentBlockStatement) {
@@ -16,25 +16,39 @@ import scrum.expression.operator.OperatorExpression;
 import scrum.expression.value.LogicalValue;
 import scrum.statement.*;
 import scrum.statement.loop.*;
+import scrum.token.Keyword;
 import scrum.token.Token;
+import scrum.token.TokenBuffer;
+import scrum.token.TokenStream;
 import scrum.token.TokenType;
 import scrum.token.TokensStack;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Set;
 
 @RequiredArgsConstructor
 @Getter
 public class StatementParser {
     private final TokensStack tokens;
-    private final Scanner scanner;
     private final CompositeStatement compositeStatement;
+    private static final int STATEMENT_START = TokenType.mask(TokenType.Keyword, TokenType.Variable, TokenType.This, TokenType.Operator);
+    private static final int EXPRESSION_START = TokenType.mask(TokenType.Operator, TokenType.Variable, TokenType.This);
+    private static final Set<Keyword> BLOCK_END = EnumSet.of(Keyword.ELSE, Keyword.ELSEIF, Keyword.END, Keyword.END_OF_STORY,
+            Keyword.END_OF_EPIC, Keyword.END_IF, Keyword.END_OF_ITERATION, Keyword.END_OF_API, Keyword.END_OF_ENDPOINT,
+            Keyword.END_WHEN, Keyword.END_INTENT);
+    private static final Set<Keyword> CONDITION_CASES = EnumSet.of(Keyword.IF, Keyword.ELSEIF, Keyword.ELSE);
+    // source offset of the statement being parsed
+    private int statementOffset = -1;
+    // whether story bodies are parsed on their first invocation, see #skipFunctionBody()
+    private boolean lazy;
 
     public static void parse(StatementParser parent, CompositeStatement compositeStatement, DefinitionScope definitionScope) {
         DefinitionContext.pushScope(definitionScope);
         try {
-            StatementParser parser = new StatementParser(parent.getTokens(), parent.getScanner(), compositeStatement);
+            StatementParser parser = new StatementParser(parent.getTokens(), compositeStatement);
+            parser.lazy = parent.lazy;
             while (parser.hasNextStatement()) {
                 parser.parseExpression();
             }
@@ -44,7 +58,31 @@ public class StatementParser {
     }
 
     public static void parse(List<Token> tokens, CompositeStatement compositeStatement) {
-        StatementParser parser = new StatementParser(new TokensStack(tokens), new Scanner(System.in), compositeStatement);
+        parse(TokenBuffer.of(tokens), compositeStatement);
+    }
+
+    public static void parse(TokenBuffer tokens, CompositeStatement compositeStatement) {
+        parse(tokens, compositeStatement, false);
+    }
+
+    /**
+     * Parse the tokens, deferring the parsing of the USER STORY bodies until their first invocation when lazy.
+     * Syntax errors of a deferred body are then only reported when the story is invoked.
+     */
+    public static void parse(TokenBuffer tokens, CompositeStatement compositeStatement, boolean lazy) {
+        parse(new TokensStack(tokens), compositeStatement, lazy);
+    }
+
+    /**
+     * Parse the tokens of a streamed source, reading its chunks on demand
+     */
+    public static void parse(TokenStream tokens, CompositeStatement compositeStatement) {
+        parse(new TokensStack(tokens), compositeStatement, false);
+    }
+
+    private static void parse(TokensStack tokens, CompositeStatement compositeStatement, boolean lazy) {
+        StatementParser parser = new StatementParser(tokens, compositeStatement);
+        parser.lazy = lazy;
         while (parser.hasNextStatement()) {
             parser.parseExpression();
         }
@@ -53,16 +91,17 @@ public class StatementParser {
     private boolean hasNextStatement() {
         if (!tokens.hasNext())
             return false;
-        if (tokens.peek(TokenType.Operator, TokenType.Variable, TokenType.This))
+        if (tokens.peek(EXPRESSION_START))
             return true;
         if (tokens.peek(TokenType.Keyword)) {
-            return !tokens.peek(TokenType.Keyword, "ELSE", "ELSEIF","end", "END OF STORY", "END OF EPIC", "END IF", "END OF ITERATION", "END OF API", "END OF ENDPOINT", "END WHEN", "#END INTENT");
+            return !tokens.peek(BLOCK_END);
         }
         return false;
     }
 
     private void parseExpression() {
-        Token token = tokens.next(TokenType.Keyword, TokenType.Variable, TokenType.This, TokenType.Operator);
+        Token token = tokens.next(STATEMENT_START);
+        statementOffset = token.getOffset() != null ? token.getOffset() : -1;
         switch (token.getType()) {
             case Variable:
             case Operator:
@@ -77,46 +116,52 @@ public class StatementParser {
         }
     }
 
+    private void addStatement(Statement statement) {
+        compositeStatement.addStatement(statement, statementOffset);
+    }
+
     private void parseExpressionStatement() {
         tokens.back(); // go back to read an expression from the beginning
         Expression value = ExpressionReader.readExpression(tokens);
         ExpressionStatement statement = new ExpressionStatement(value);
-        compositeStatement.addStatement(statement);
+        addStatement(statement);
     }
 
     private void parseKeywordStatement(Token token) {
-        switch (token.getValue()) {
-            case "SAY":
+        if (token.getKeyword() == null)
+            throw new SyntaxException(String.format("Failed to parse a keyword: %s", token.getValue()));
+        switch (token.getKeyword()) {
+            case SAY:
                 parsePrintStatement();
                 break;
-            case "ASK":
+            case ASK:
                 parseInputStatement();
                 break;
-            case "IF":
+            case IF:
                 parseConditionStatement();
                 break;
-            case "EPIC":
+            case EPIC:
                 parseClassDefinition();
                 break;
-            case "USER STORY":
+            case USER_STORY:
                 parseFunctionDefinition();
                 break;
-            case "I WANT TO DEFINE":
+            case DEFINE:
                 parseDefinition();
                 break;
-            case "RETURN ANSWER":
+            case RETURN_ANSWER:
                 parseReturnStatement();
                 break;
-            case "I WANT TO ITERATE":
+            case ITERATE:
                 parseLoopStatement();
                 break;
-            case "break":
+            case BREAK:
                 parseBreakStatement();
                 break;
-            case "next":
+            case NEXT:
                 parseNextStatement();
                 break;
-            case "#INTENT":
+            case INTENT:
                 parseIntentBlock();
                 break;
             default:
@@ -131,24 +176,24 @@ public class StatementParser {
     private void parsePrintStatement() {
         Expression expression = ExpressionReader.readExpression(tokens);
         SayStatement statement = new SayStatement(expression);
-        compositeStatement.addStatement(statement);
+        addStatement(statement);
     }
 
     private void parseInputStatement() {
         Token variable = tokens.next(TokenType.Variable);
-        InputStatement statement = new InputStatement(variable.getValue(), scanner::nextLine);
-        compositeStatement.addStatement(statement);
+        InputStatement statement = new InputStatement(variable.getValue());
+        addStatement(statement);
     }
 
     private void parseConditionStatement() {
         tokens.back();
         ConditionStatement conditionStatement = new ConditionStatement();
 
-        while (!tokens.peek(TokenType.Keyword, "END IF")) {
+        while (!tokens.peek(Keyword.END_IF)) {
             //read condition case
-            Token type = tokens.next(TokenType.Keyword, "IF", "ELSEIF",  "ELSE");
+            Token type = tokens.next(CONDITION_CASES);
             Expression caseCondition;
-            if (type.getValue().equals("ELSE")) {
+            if (type.getKeyword() == Keyword.ELSE) {
                 caseCondition = new LogicalValue(true); //else case does not have the condition
             } else {
                 caseCondition = ExpressionReader.readExpression(tokens);
@@ -162,28 +207,28 @@ public class StatementParser {
             //add case
             conditionStatement.addCase(caseCondition, caseStatement);
         }
-        tokens.next(TokenType.Keyword, "END IF");
+        tokens.next(Keyword.END_IF);
 
-        compositeStatement.addStatement(conditionStatement);
+        addStatement(conditionStatement);
     }
 
     private void parseClassDefinition() {
         List<String> arguments = new ArrayList<>();
         String epicName = tokens.next(TokenType.Text).getValue().replace(" ", "_");
 
-        if (tokens.peek(TokenType.GroupDivider, "USING [")) {
+        if (tokens.peek(Keyword.USING)) {
 
-            tokens.next(TokenType.GroupDivider, "USING ["); //skip open square bracket
+            tokens.next(Keyword.USING); //skip open square bracket
 
-            while (!tokens.peek(TokenType.GroupDivider, "]")) {
+            while (!tokens.peek(Keyword.CLOSE_BRACKET)) {
                 Token argumentToken = tokens.next(TokenType.Variable);
                 arguments.add(argumentToken.getValue());
 
-                if (tokens.peek(TokenType.GroupDivider, ","))
+                if (tokens.peek(Keyword.COMMA))
                     tokens.next();
             }
 
-            tokens.next(TokenType.GroupDivider, "]"); //skip close square bracket
+            tokens.next(Keyword.CLOSE_BRACKET); //skip close square bracket
         }
 
         // add class definition
@@ -194,7 +239,8 @@ public class StatementParser {
 
         //parse class statements
         StatementParser.parse(this, classStatement, classScope);
-        tokens.next(TokenType.Keyword, "END OF EPIC");
+        tokens.next(Keyword.END_OF_EPIC);
+        VariableResolver.resolve(classStatement, arguments);
     }
 
     private void parseFunctionDefinition() {
@@ -204,19 +250,19 @@ public class StatementParser {
         String userStoryName = type.getValue().replace(" ", "_");
         List<String> arguments = new ArrayList<>();
 
-        if (tokens.peek(TokenType.GroupDivider, "USING [")) {
+        if (tokens.peek(Keyword.USING)) {
 
-            tokens.next(TokenType.GroupDivider, "USING ["); //skip open square bracket
+            tokens.next(Keyword.USING); //skip open square bracket
 
-            while (!tokens.peek(TokenType.GroupDivider, "]")) {
+            while (!tokens.peek(Keyword.CLOSE_BRACKET)) {
                 Token argumentToken = tokens.next(TokenType.Variable);
                 arguments.add(argumentToken.getValue());
 
-                if (tokens.peek(TokenType.GroupDivider, ","))
+                if (tokens.peek(Keyword.COMMA))
                     tokens.next();
             }
 
-            tokens.next(TokenType.GroupDivider, "]"); //skip close square bracket
+            tokens.next(Keyword.CLOSE_BRACKET); //skip close square bracket
         }
 
         //add function definition
@@ -227,14 +273,53 @@ public class StatementParser {
         DefinitionContext.getScope().addFunction(functionDefinition);
 
         //parse function statements
-        StatementParser.parse(this, functionStatement, functionScope);
-        tokens.next(TokenType.Keyword, "END OF STORY");
+        TokensStack body = lazy ? skipFunctionBody() : null;
+        if (body != null) {
+            StatementParser parent = new StatementParser(body, functionStatement);
+            parent.lazy = true;
+            functionStatement.setBodyParser(() -> {
+                StatementParser.parse(parent, functionStatement, functionScope);
+                body.next(Keyword.END_OF_STORY);
+                VariableResolver.resolve(functionStatement, arguments);
+            });
+        } else {
+            StatementParser.parse(this, functionStatement, functionScope);
+            VariableResolver.resolve(functionStatement, arguments);
+        }
+        tokens.next(Keyword.END_OF_STORY);
+    }
+
+    /**
+     * Skip the body of a story up to its END OF STORY, nested stories included
+     *
+     * @return cursor at the beginning of the body to parse it later, or null if it has to be parsed now: its
+     * #INTENT blocks are preprocessed before the execution and an unterminated body is reported right away
+     */
+    private TokensStack skipFunctionBody() {
+        int mark = tokens.mark();
+        TokensStack body = tokens.copy();
+        int depth = 0;
+        while (tokens.hasNext()) {
+            Keyword keyword = tokens.skip();
+            if (keyword == Keyword.USER_STORY) {
+                depth++;
+            } else if (keyword == Keyword.END_OF_STORY) {
+                if (depth-- == 0) {
+                    tokens.back();
+                    return body;
+                }
+            } else if (keyword == Keyword.INTENT) {
+                break;
+            }
+        }
+        tokens.reset(mark);
+        return null;
     }
 
     private void parseReturnStatement() {
         Expression expression = ExpressionReader.readExpression(tokens);
         ReturnStatement statement = new ReturnStatement(expression);
-        compositeStatement.addStatement(statement);
+        addStatement(statement);
     }
 
     private void parseLoopStatement() {
@@ -242,20 +327,20 @@ public class StatementParser {
         if (loopExpression instanceof OperatorExpression || loopExpression instanceof VariableExpression) {
             AbstractLoopStatement loopStatement;
 
-            if (loopExpression instanceof VariableExpression && tokens.peek(TokenType.Keyword, "FOR RANGE")) {
+            if (loopExpression instanceof VariableExpression && tokens.peek(Keyword.FOR_RANGE)) {
                 // loop <variable> in <bounds>
                 VariableExpression variable = (VariableExpression) loopExpression;
-                tokens.next(TokenType.Keyword, "FOR RANGE");
+                tokens.next(Keyword.FOR_RANGE);
                 Expression bounds = ExpressionReader.readExpression(tokens);
 
-                if (tokens.peek(TokenType.GroupDivider, "TILL")) {
+                if (tokens.peek(Keyword.TILL)) {
                     // loop <variable> in <lower_bound>..<upper_bound>
-                    tokens.next(TokenType.GroupDivider, "TILL");
+                    tokens.next(Keyword.TILL);
                     Expression upperBound = ExpressionReader.readExpression(tokens);
 
-                    if (tokens.peek(TokenType.Keyword, "by")) {
+                    if (tokens.peek(Keyword.BY)) {
                         // loop <variable> in <lower_bound>..<upper_bound> by <step>
-                        tokens.next(TokenType.Keyword, "by");
+                        tokens.next(Keyword.BY);
                         Expression step = ExpressionReader.readExpression(tokens);
                         loopStatement = new ForLoopStatement(variable, bounds, upperBound, step);
                     } else {
@@ -276,28 +361,28 @@ public class StatementParser {
 
             DefinitionScope loopScope = DefinitionContext.newScope();
             StatementParser.parse(this, loopStatement, loopScope);
-            tokens.next(TokenType.Keyword, "END OF ITERATION");
+            tokens.next(Keyword.END_OF_ITERATION);
 
-            compositeStatement.addStatement(loopStatement);
+            addStatement(loopStatement);
         }
 
     }
 
     private void parseBreakStatement() {
         BreakStatement statement = new BreakStatement();
-        compositeStatement.addStatement(statement);
+        addStatement(statement);
     }
 
     private void parseNextStatement() {
         NextStatement statement = new NextStatement();
-        compositeStatement.addStatement(statement);
+        addStatement(statement);
     }
 
     private void parseDefinition() {
         Token nextToken = tokens.next(TokenType.Keyword);
-        if (nextToken.getValue().equals("API")) {
+        if (nextToken.getKeyword() == Keyword.API) {
             parseApiDefinition();
-        } else if (nextToken.getValue().equals("ENDPOINT")) {
+        } else if (nextToken.getKeyword() == Keyword.ENDPOINT) {
             parseEndpointDefinition();
         } else {
             throw new SyntaxException(String.format("Expected API or ENDPOINT after 'I WANT TO DEFINE', got: %s", nextToken.getValue()));
@@ -309,8 +394,8 @@ public class StatementParser {
         
         // Parse BASE IS "path"
         String basePath = "";
-        if (tokens.peek(TokenType.Keyword, "BASE")) {
-            tokens.next(TokenType.Keyword, "BASE");
+        if (tokens.peek(Keyword.BASE)) {
+            tokens.next(Keyword.BASE);
             tokens.next(TokenType.Operator, "IS");
             basePath = tokens.next(TokenType.Text).getValue();
         }
@@ -324,7 +409,7 @@ public class StatementParser {
         // Parse API body (including nested endpoints)
         StatementParser.parse(this, apiStatement, apiScope);
         
-        tokens.next(TokenType.Keyword, "END OF API");
+        tokens.next(Keyword.END_OF_API);
     }
 
     private void parseEndpointDefinition() {
@@ -336,38 +421,38 @@ public class StatementParser {
         String returnType = "";
         
         // Parse endpoint properties
-        while (!tokens.peek(TokenType.Keyword, "END OF ENDPOINT") && !tokens.peek(TokenType.Keyword, "WHEN")) {
-            if (tokens.peek(TokenType.Keyword, "METHOD")) {
-                tokens.next(TokenType.Keyword, "METHOD");
+        while (!tokens.peek(Keyword.END_OF_ENDPOINT) && !tokens.peek(Keyword.WHEN)) {
+            if (tokens.peek(Keyword.METHOD)) {
+                tokens.next(Keyword.METHOD);
                 tokens.next(TokenType.Operator, "IS");
                 method = tokens.next(TokenType.Text).getValue();
-            } else if (tokens.peek(TokenType.Keyword, "PATH")) {
-                tokens.next(TokenType.Keyword, "PATH");
+            } else if (tokens.peek(Keyword.PATH)) {
+                tokens.next(Keyword.PATH);
                 tokens.next(TokenType.Operator, "IS");
                 path = tokens.next(TokenType.Text).getValue();
-            } else if (tokens.peek(TokenType.Keyword, "QUERY_PARAMS")) {
-                tokens.next(TokenType.Keyword, "QUERY_PARAMS");
+            } else if (tokens.peek(Keyword.QUERY_PARAMS)) {
+                tokens.next(Keyword.QUERY_PARAMS);
                 // Handle both "IS" and "ARE"
                 Token operator = tokens.next(TokenType.Operator, TokenType.Keyword);
-                if (!operator.getValue().equals("IS") && !operator.getValue().equals("ARE")) {
+                if (!operator.getValue().equals("IS") && operator.getKeyword() != Keyword.ARE) {
                     throw new SyntaxException("Expected IS or ARE after QUERY_PARAMS");
                 }
                 // Parse array syntax { "param1", "param2" }
-                tokens.next(TokenType.GroupDivider, "{");
+                tokens.next(Keyword.OPEN_BRACE);
                 StringBuilder params = new StringBuilder();
-                while (!tokens.peek(TokenType.GroupDivider, "}")) {
+                while (!tokens.peek(Keyword.CLOSE_BRACE)) {
                     if (params.length() > 0) {
                         params.append(", ");
                     }
                     params.append(tokens.next(TokenType.Text).getValue());
-                    if (tokens.peek(TokenType.GroupDivider, ",")) {
+                    if (tokens.peek(Keyword.COMMA)) {
                         tokens.next();
                     }
                 }
-                tokens.next(TokenType.GroupDivider, "}");
+                tokens.next(Keyword.CLOSE_BRACE);
                 queryParams = params.toString();
-            } else if (tokens.peek(TokenType.Keyword, "RETURNS")) {
-                tokens.next(TokenType.Keyword, "RETURNS");
+            } else if (tokens.peek(Keyword.RETURNS)) {
+                tokens.next(Keyword.RETURNS);
                 tokens.next(TokenType.Operator, "IS");
                 returnType = tokens.next(TokenType.Text).getValue();
             } else {
@@ -377,9 +462,9 @@ public class StatementParser {
         }
         
         // Check for WHEN REQUEST block (executable endpoint)
-        if (tokens.peek(TokenType.Keyword, "WHEN")) {
-            tokens.next(TokenType.Keyword, "WHEN");
-            tokens.next(TokenType.Keyword, "REQUEST");
+        if (tokens.peek(Keyword.WHEN)) {
+            tokens.next(Keyword.WHEN);
+            tokens.next(Keyword.REQUEST);
             
             // Create executable endpoint with handler body
             List<String> queryParamsList = new ArrayList<>();
@@ -400,10 +485,10 @@ public class StatementParser {
             // Parse statements within WHEN REQUEST block
             StatementParser.parse(this, executableEndpoint, handlerScope);
             
-            tokens.next(TokenType.Keyword, "END WHEN");
-            tokens.next(TokenType.Keyword, "END OF ENDPOINT");
+            tokens.next(Keyword.END_WHEN);
+            tokens.next(Keyword.END_OF_ENDPOINT);
             
-            compositeStatement.addStatement(executableEndpoint);
+            addStatement(executableEndpoint);
             
             // Create endpoint definition
             @SuppressWarnings("unused")
@@ -412,11 +497,11 @@ public class StatementParser {
             );
         } else {
             // Declarative endpoint (no handler)
-            tokens.next(TokenType.Keyword, "END OF ENDPOINT");
+            tokens.next(Keyword.END_OF_ENDPOINT);
             
             // Create endpoint statement and add to composite
             EndpointStatement endpointStatement = new EndpointStatement(endpointName, method, path, queryParams, returnType);
-            compositeStatement.addStatement(endpointStatement);
+            addStatement(endpointStatement);
             
             // Create endpoint definition and add to current API (if we're inside an API definition)
             List<String> queryParamsList = new ArrayList<>();
@@ -452,10 +537,10 @@ public class StatementParser {
         }
         
         // Expect #END INTENT keyword
-        tokens.next(TokenType.Keyword, "#END INTENT");
+        tokens.next(Keyword.END_INTENT);
         
         // Create the intent block statement
         IntentBlockStatement intentBlock = new IntentBlockStatement(intentText);
-        compositeStatement.addStatement(intentBlock);
+        addStatement(intentBlock);
     }
 }
@@ -0,0 +1,242 @@
+package scrum;
+
+import scrum.context.FrameLayout;
+import scrum.context.LexicalAddress;
+import scrum.expression.ArrayExpression;
+import scrum.expression.ClassExpression;
+import scrum.expression.Expression;
+import scrum.expression.FunctionExpression;
+import scrum.expression.VariableExpression;
+import scrum.expression.operator.AssignmentOperator;
+import scrum.expression.operator.BinaryOperatorExpression;
+import scrum.expression.operator.ClassPropertyOperator;
+import scrum.expression.operator.UnaryOperatorExpression;
+import scrum.expression.value.Value;
+import scrum.statement.*;
+import scrum.statement.loop.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Resolves the variables of a parsed body, the whole program or a USER STORY or EPIC one, to the slots of the memory
+ * frames created while executing it, see {@link LexicalAddress}. Reading or writing a variable then mostly comes down
+ * to an array access instead of looking it up by name in each frame.
+ * <p>
+ * Variables are scoped dynamically, a story reads and updates the variables of its caller. Only the frames created
+ * within the body are addressed, the variables held outside of it are still looked up by name. A body holding
+ * statements whose frames can't be known, e.g. #INTENT blocks replaced before the execution or endpoints executed on
+ * request, is left unresolved and all its variables are looked up by name.
+ */
+public class VariableResolver {
+    // frames of the statements being resolved, from the root of the body
+    private final List<FrameLayout> frames = new ArrayList<>();
+    private final List<Reference> references = new ArrayList<>();
+    // layouts to set once the body is known to be resolvable
+    private final List<Runnable> bindings = new ArrayList<>();
+    private boolean resolvable = true;
+    // counters of the counted loops being resolved
+    private final List<Counter> counters = new ArrayList<>();
+
+    private record Reference(VariableExpression variable, FrameLayout[] frames) {
+    }
+
+    /**
+     * Counter of a {@link ForLoopStatement}, assigned if the loop may assign it besides counting
+     */
+    private static final class Counter {
+        private final String name;
+        private boolean assigned;
+
+        private Counter(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Resolve a body executed in a frame of its own
+     *
+     * @param arguments names set in the frame of the body before it is executed
+     */
+    public static void resolve(CompositeStatement body, List<String> arguments) {
+        VariableResolver resolver = new VariableResolver();
+        resolver.resolveBlock(body, body::setFrameLayout, arguments);
+        if (resolver.resolvable)
+            resolver.bind();
+    }
+
+    private void resolveBlock(CompositeStatement block, Consumer<FrameLayout> binding, List<String> names) {
+        FrameLayout frame = openFrame(binding);
+        names.forEach(frame::add);
+        block.getStatements2Execute().forEach(this::resolveStatement);
+        closeFrame();
+    }
+
+    private void resolveStatement(Statement statement) {
+        if (statement instanceof ExpressionStatement expressionStatement) {
+            resolveExpression(expressionStatement.getExpression());
+        } else if (statement instanceof SayStatement sayStatement) {
+            resolveExpression(sayStatement.expression());
+        } else if (statement instanceof ReturnStatement returnStatement) {
+            resolveExpression(returnStatement.getExpression());
+        } else if (statement instanceof InputStatement inputStatement) {
+            define(inputStatement.name());
+            assign(inputStatement.name());
+        } else if (statement instanceof ConditionStatement conditionStatement) {
+            conditionStatement.getCases().forEach((condition, block) -> {
+                resolveExpression(condition);
+                resolveBlock(block, block::setFrameLayout, List.of());
+            });
+        } else if (statement instanceof AbstractLoopStatement loopStatement) {
+            resolveLoop(loopStatement);
+        } else if (statement instanceof ApiStatement apiStatement) {
+            apiStatement.getStatements2Execute().forEach(this::resolveStatement);
+        } else if (!(statement instanceof EndpointStatement || statement instanceof BreakStatement
+                || statement instanceof NextStatement)) {
+            // intent blocks, executable endpoints
+            resolvable = false;
+        }
+    }
+
+    private void resolveLoop(AbstractLoopStatement loopStatement) {
+        // counter variables, the bounds and the condition are evaluated in the frame of the loop
+        openFrame(loopStatement::setCounterFrameLayout);
+        Counter counter = null;
+        if (loopStatement instanceof ForLoopStatement forLoop) {
+            resolveCounter(forLoop.getVariable());
+            counter = openCounter(forLoop);
+            resolveExpression(forLoop.getLowerBound());
+            resolveExpression(forLoop.getUppedBound());
+            resolveExpression(forLoop.getStep());
+        } else if (loopStatement instanceof IterableLoopStatement iterableLoop) {
+            resolveCounter(iterableLoop.getVariableExpression());
+            resolveExpression(iterableLoop.getIterableExpression());
+        } else if (loopStatement instanceof WhileLoopStatement whileLoop) {
+            resolveExpression(whileLoop.getHasNext());
+        } else {
+            resolvable = false;
+        }
+
+        // each iteration in a frame of its own
+        resolveBlock(loopStatement, loopStatement::setFrameLayout, List.of());
+        closeFrame();
+        if (counter != null)
+            counters.removeLast();
+    }
+
+    /**
+     * Watch the assignments of the counter while resolving the bounds and the statements of the loop
+     */
+    private Counter openCounter(ForLoopStatement forLoop) {
+        Counter counter = new Counter(forLoop.getVariable().getName());
+        counters.add(counter);
+        bindings.add(() -> forLoop.setCounterAssigned(counter.assigned));
+        return counter;
+    }
+
+    private void resolveCounter(VariableExpression variable) {
+        define(variable.getName());
+        // the first counter of a nested loop is assigned to the enclosing counter of the same name
+        assign(variable.getName());
+        reference(variable);
+    }
+
+    private void resolveExpression(Expression expression) {
+        if (expression instanceof VariableExpression variable) {
+            reference(variable);
+        } else if (expression instanceof AssignmentOperator assignment) {
+            if (assignment.getLeft() instanceof VariableExpression variable) {
+                define(variable.getName());
+                assign(variable.getName());
+            }
+            resolveExpression(assignment.getLeft());
+            resolveExpression(assignment.getRight());
+        } else if (expression instanceof ClassPropertyOperator property) {
+            // the right operand is a property or a function of the class, only the arguments are evaluated here
+            resolveExpression(property.getLeft());
+            if (property.getRight() instanceof FunctionExpression function) {
+                function.getArgumentExpressions().forEach(this::resolveExpression);
+                call();
+            }
+        } else if (expression instanceof BinaryOperatorExpression operator) {
+            resolveExpression(operator.getLeft());
+            resolveExpression(operator.getRight());
+        } else if (expression instanceof UnaryOperatorExpression operator) {
+            resolveExpression(operator.getValue());
+        } else if (expression instanceof FunctionExpression function) {
+            function.getArgumentExpressions().forEach(this::resolveExpression);
+            call();
+        } else if (expression instanceof ClassExpression classExpression) {
+            classExpression.getArgumentExpressions().forEach(this::resolveExpression);
+            call();
+        } else if (expression instanceof ArrayExpression array) {
+            array.getValues().forEach(this::resolveExpression);
+        } else if (!(expression instanceof Value)) {
+            resolvable = false;
+        }
+    }
+
+    private FrameLayout openFrame(Consumer<FrameLayout> binding) {
+        FrameLayout frame = new FrameLayout();
+        frames.add(frame);
+        bindings.add(() -> binding.accept(frame.isEmpty() ? null : frame));
+        return frame;
+    }
+
+    private void closeFrame() {
+        frames.removeLast();
+    }
+
+    /**
+     * The variable may be created in the current frame
+     */
+    private void define(String name) {
+        frames.getLast().add(name);
+    }
+
+    /**
+     * The variable is assigned, so is the counter of the same name of an enclosing loop
+     */
+    private void assign(String name) {
+        for (Counter counter : counters) {
+            if (counter.name.equals(name))
+                counter.assigned = true;
+        }
+    }
+
+    /**
+     * A story or an epic is executed, it may assign any variable of its caller
+     */
+    private void call() {
+        counters.forEach(counter -> counter.assigned = true);
+    }
+
+    private void reference(VariableExpression variable) {
+        references.add(new Reference(variable, frames.toArray(FrameLayout[]::new)));
+    }
+
+    /**
+     * Set the layouts of the frames and the addresses of the variables once all the variables of each frame are known
+     */
+    private void bind() {
+        bindings.forEach(Runnable::run);
+        for (Reference reference : references) {
+            String name = reference.variable().getName();
+            FrameLayout[] chain = reference.frames();
+            int[] depths = new int[chain.length];
+            int[] slots = new int[chain.length];
+            int count = 0;
+            for (int depth = 0; depth < chain.length; depth++) {
+                int slot = chain[chain.length - 1 - depth].slotOf(name);
+                if (slot >= 0) {
+                    depths[count] = depth;
+                    slots[count++] = slot;
+                }
+            }
+            reference.variable().setAddress(new LexicalAddress(Arrays.copyOf(depths, count),
+                    Arrays.copyOf(slots, count), chain.length - 1));
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package scrum.compiler;
+
+import scrum.context.ExecutionContext;
+import scrum.context.FrameLayout;
+import scrum.context.MemoryContext;
+import scrum.context.MemoryScope;
+import scrum.expression.Expression;
+import scrum.expression.operator.SpecializingOperatorExpression;
+import scrum.expression.value.Value;
+import scrum.statement.*;
+import scrum.statement.loop.AbstractLoopStatement;
+import scrum.statement.loop.BreakStatement;
+import scrum.statement.loop.NextStatement;
+
+import java.lang.classfile.ClassFile;
+import java.lang.classfile.CodeBuilder;
+import java.lang.classfile.Label;
+import java.lang.constant.ClassDesc;
+import java.lang.constant.ConstantDescs;
+import java.lang.constant.MethodTypeDesc;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.constant.ConstantDescs.CD_Object;
+import static java.lang.constant.ConstantDescs.CD_boolean;
+import static java.lang.constant.ConstantDescs.CD_int;
+import static java.lang.constant.ConstantDescs.CD_void;
+
+/**
+ * Generates the class executing the statements of a block. The statements of the block are unrolled in a single
+ * method, with the conditions and the bodies of their cases inlined. The expressions are evaluated in place down to
+ * the specializing operators, the other nodes of the tree are called from the generated code: they are held in final
+ * fields of the class and executed as they are by the interpreter, so a loop or a story call from a compiled block
+ * behaves exactly the same way.
+ * <p>
+ * The bodies of the loops found in the block are left to their own classes, see {@link #getLoops()}.
+ */
+class BlockCompiler {
+    // weight of the statements and expressions unrolled in a class, larger blocks are left to the interpreter to keep
+    // the generated method far below the limits of the class file format
+    static final int MAX_WEIGHT = 1000;
+
+    private static final ClassDesc CD_BLOCK = ClassDesc.of("scrum.compiler.CompiledBlock");
+    private static final ClassDesc CD_SUPPORT = desc(CompiledSupport.class);
+    private static final ClassDesc CD_STATEMENT = desc(Statement.class);
+    private static final ClassDesc CD_COMPLETION = desc(Completion.class);
+    private static final ClassDesc CD_CONTEXT = desc(ExecutionContext.Context.class);
+    private static final ClassDesc CD_EXPRESSION = desc(Expression.class);
+    private static final ClassDesc CD_VALUE = desc(Value.class);
+    private static final ClassDesc CD_OPERATOR = desc(SpecializingOperatorExpression.class);
+    private static final ClassDesc CD_CONDITION = desc(ConditionStatement.class);
+    private static final ClassDesc CD_MEMORY = desc(MemoryContext.class);
+    private static final ClassDesc CD_FRAME_LAYOUT = desc(FrameLayout.class);
+    private static final ClassDesc CD_OFFSETS = CD_int.arrayType();
+
+    private static final MethodTypeDesc MTD_EXECUTE = MethodTypeDesc.of(CD_COMPLETION);
+    private static final MethodTypeDesc MTD_EVALUATE = MethodTypeDesc.of(CD_VALUE);
+    private static final MethodTypeDesc MTD_EVALUATE_OPERANDS = MethodTypeDesc.of(CD_VALUE, CD_VALUE, CD_VALUE);
+    private static final MethodTypeDesc MTD_CONTEXT = MethodTypeDesc.of(CD_CONTEXT);
+    private static final MethodTypeDesc MTD_OFFSET = MethodTypeDesc.of(CD_int, CD_CONTEXT);
+    private static final MethodTypeDesc MTD_TRACK = MethodTypeDesc.of(CD_void, CD_CONTEXT, CD_int);
+    private static final MethodTypeDesc MTD_SAY = MethodTypeDesc.of(CD_void, CD_VALUE);
+    private static final MethodTypeDesc MTD_RETURNING = MethodTypeDesc.of(CD_COMPLETION, CD_VALUE);
+    private static final MethodTypeDesc MTD_IS_TRUE = MethodTypeDesc.of(CD_boolean, CD_VALUE);
+    private static final MethodTypeDesc MTD_PUSH_FRAME = MethodTypeDesc.of(desc(MemoryScope.class), CD_FRAME_LAYOUT);
+    private static final MethodTypeDesc MTD_POP_FRAME = MethodTypeDesc.of(CD_void);
+    private static final MethodTypeDesc MTD_CONSTRUCTOR = MethodTypeDesc.of(CD_void, CD_Object.arrayType(), CD_OFFSETS);
+
+    // local variables of the execute method
+    private static final int THIS = 0;
+    private static final int CONTEXT = 1;
+
+    private final CompositeStatement block;
+    private final List<AbstractLoopStatement> loops = new ArrayList<>();
+    private final int weight;
+
+    // nodes and source offsets held by the fields of the generated class
+    private final List<Object> constants = new ArrayList<>();
+    private final List<ClassDesc> constantTypes = new ArrayList<>();
+    private final List<Integer> offsets = new ArrayList<>();
+    private int nextLocal;
+
+    BlockCompiler(CompositeStatement block) {
+        this.block = block;
+        this.weight = weigh(block);
+    }
+
+    /**
+     * @return loops of the block, their bodies are compiled on their own
+     */
+    List<AbstractLoopStatement> getLoops() {
+        return loops;
+    }
+
+    boolean isCompilable() {
+        return weight <= MAX_WEIGHT;
+    }
+
+    /**
+     * @return nodes held by the fields of the class, passed to its constructor
+     */
+    Object[] getConstants() {
+        return constants.toArray();
+    }
+
+    /**
+     * @return source offsets of the statements of the class, passed to its constructor
+     */
+    int[] getOffsets() {
+        return offsets.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    byte[] generate() {
+        return ClassFile.of().build(CD_BLOCK, cb -> {
+            cb.withFlags(ClassFile.ACC_PUBLIC | ClassFile.ACC_FINAL | ClassFile.ACC_SUPER);
+            cb.withSuperclass(CD_Object);
+            cb.withInterfaceSymbols(CD_STATEMENT);
+            cb.withMethodBody("execute", MTD_EXECUTE, ClassFile.ACC_PUBLIC, this::generateExecute);
+
+            // the fields are known once the body is generated
+            for (int i = 0; i < constantTypes.size(); i++)
+                cb.withField(field(i), constantTypes.get(i), ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL);
+            cb.withField("offsets", CD_OFFSETS, ClassFile.ACC_PRIVATE | ClassFile.ACC_FINAL);
+            cb.withMethodBody(ConstantDescs.INIT_NAME, MTD_CONSTRUCTOR, ClassFile.ACC_PUBLIC, this::generateConstructor);
+        });
+    }
+
+    private void generateExecute(CodeBuilder code) {
+        constants.clear();
+        constantTypes.clear();
+        offsets.clear();
+        nextLocal = CONTEXT + 1;
+
+        code.invokestatic(CD_SUPPORT, "context", MTD_CONTEXT);
+        code.astore(CONTEXT);
+        int completion = block(code, block);
+        code.aload(completion);
+        code.areturn();
+    }
+
+    private void generateConstructor(CodeBuilder code) {
+        code.aload(THIS);
+        code.invokespecial(CD_Object, ConstantDescs.INIT_NAME, MethodTypeDesc.of(CD_void));
+        for (int i = 0; i < constantTypes.size(); i++) {
+            code.aload(THIS);
+            code.aload(1);
+            push(code, i);
+            code.aaload();
+            code.checkcast(constantTypes.get(i));
+            code.putfield(CD_BLOCK, field(i), constantTypes.get(i));
+        }
+        code.aload(THIS);
+        code.aload(2);
+        code.putfield(CD_BLOCK, "offsets", CD_OFFSETS);
+        code.return_();
+    }
+
+    /**
+     * Execute the statements of a block as {@link CompositeStatement#execute()} does
+     *
+     * @return local variable holding the completion of the block
+     */
+    private int block(CodeBuilder code, CompositeStatement block) {
+        int previousOffset = nextLocal++;
+        int completion = nextLocal++;
+        code.aload(CONTEXT);
+        code.invokestatic(CD_SUPPORT, "offset", MTD_OFFSET);
+        code.istore(previousOffset);
+        code.getstatic(CD_COMPLETION, "NORMAL", CD_COMPLETION);
+        code.astore(completion);
+
+        Label end = code.newLabel();
+        List<Statement> statements = block.getStatements2Execute();
+        for (int i = 0; i < statements.size(); i++) {
+            int offset = block.getStatementOffset(i);
+            if (offset >= 0) {
+                code.aload(CONTEXT);
+                offset(code, offset);
+                code.invokestatic(CD_SUPPORT, "track", MTD_TRACK);
+            }
+            statement(code, statements.get(i), completion, end);
+        }
+
+        code.labelBinding(end);
+        code.aload(CONTEXT);
+        code.iload(previousOffset);
+        code.invokestatic(CD_SUPPORT, "track", MTD_TRACK);
+        return completion;
+    }
+
+    /**
+     * Execute a statement, the block jumps to its end when the statement doesn't complete normally
+     */
+    private void statement(CodeBuilder code, Statement statement, int completion, Label end) {
+        if (statement instanceof ExpressionStatement expressionStatement) {
+            expression(code, expressionStatement.getExpression());
+            code.pop();
+        } else if (statement instanceof SayStatement sayStatement) {
+            expression(code, sayStatement.expression());
+            code.invokestatic(CD_SUPPORT, "say", MTD_SAY);
+        } else if (statement instanceof ReturnStatement returnStatement) {
+            expression(code, returnStatement.getExpression());
+            code.invokestatic(CD_COMPLETION, "returning", MTD_RETURNING);
+            code.astore(completion);
+            code.goto_(end);
+        } else if (statement instanceof BreakStatement) {
+            code.getstatic(CD_COMPLETION, "BREAK", CD_COMPLETION);
+            code.astore(completion);
+            code.goto_(end);
+        } else if (statement instanceof NextStatement) {
+            code.getstatic(CD_COMPLETION, "NEXT", CD_COMPLETION);
+            code.astore(completion);
+            code.goto_(end);
+        } else if (statement instanceof ConditionStatement conditionStatement) {
+            condition(code, conditionStatement, completion, end);
+        } else {
+            constant(code, statement, CD_STATEMENT);
+            code.invokeinterface(CD_STATEMENT, "execute", MTD_EXECUTE);
+            code.astore(completion);
+            exitUnlessNormal(code, completion, end);
+        }
+    }
+
+    /**
+     * Execute the first case whose condition is true, as {@link ConditionStatement#execute()} does
+     */
+    private void condition(CodeBuilder code, ConditionStatement statement, int completion, Label end) {
+        Label after = code.newLabel();
+        for (Map.Entry<Expression, CompositeStatement> entry : statement.getCases().entrySet()) {
+            Label nextCase = code.newLabel();
+            expression(code, entry.getKey());
+            code.invokestatic(CD_CONDITION, "isTrue", MTD_IS_TRUE);
+            code.ifeq(nextCase);
+
+            CompositeStatement caseStatement = entry.getValue();
+            FrameLayout frameLayout = caseStatement.getFrameLayout();
+            if (frameLayout != null)
+                constant(code, frameLayout, CD_FRAME_LAYOUT);
+            else
+                code.aconst_null();
+            code.invokestatic(CD_MEMORY, "pushFrame", MTD_PUSH_FRAME);
+            code.pop();
+
+            // the frame is popped whatever the way the case is left
+            Label start = code.newLabel();
+            Label tryEnd = code.newLabel();
+            Label handler = code.newLabel();
+            Label popped = code.newLabel();
+            code.labelBinding(start);
+            int caseCompletion = block(code, caseStatement);
+            code.labelBinding(tryEnd);
+            code.invokestatic(CD_MEMORY, "popFrame", MTD_POP_FRAME);
+            code.goto_(popped);
+            code.labelBinding(handler);
+            code.invokestatic(CD_MEMORY, "popFrame", MTD_POP_FRAME);
+            code.athrow();
+            code.exceptionCatchAll(start, tryEnd, handler);
+
+            code.labelBinding(popped);
+            code.aload(caseCompletion);
+            code.astore(completion);
+            exitUnlessNormal(code, completion, end);
+            code.goto_(after);
+            code.labelBinding(nextCase);
+        }
+        code.labelBinding(after);
+    }
+
+    private void exitUnlessNormal(CodeBuilder code, int completion, Label end) {
+        code.aload(completion);
+        code.getstatic(CD_COMPLETION, "NORMAL", CD_COMPLETION);
+        code.if_acmpne(end);
+    }
+
+    /**
+     * Evaluate an expression, its value is left on the stack
+     */
+    private void expression(CodeBuilder code, Expression expression) {
+        if (expression instanceof Value<?> value) {
+            constant(code, value, CD_VALUE);
+        } else if (expression instanceof SpecializingOperatorExpression operator) {
+            constant(code, operator, CD_OPERATOR);
+            expression(code, operator.getLeft());
+            expression(code, operator.getRight());
+            code.invokevirtual(CD_OPERATOR, "evaluate", MTD_EVALUATE_OPERANDS);
+        } else {
+            constant(code, expression, CD_EXPRESSION);
+            code.invokeinterface(CD_EXPRESSION, "evaluate", MTD_EVALUATE);
+        }
+    }
+
+    private void constant(CodeBuilder code, Object constant, ClassDesc type) {
+        constants.add(constant);
+        constantTypes.add(type);
+        code.aload(THIS);
+        code.getfield(CD_BLOCK, field(constants.size() - 1), type);
+    }
+
+    /**
+     * Push a source offset, the offsets are held by a field as they may not fit in an instruction
+     */
+    private void offset(CodeBuilder code, int offset) {
+        offsets.add(offset);
+        code.aload(THIS);
+        code.getfield(CD_BLOCK, "offsets", CD_OFFSETS);
+        push(code, offsets.size() - 1);
+        code.iaload();
+    }
+
+    private static void push(CodeBuilder code, int value) {
+        if (value <= Byte.MAX_VALUE)
+            code.bipush(value);
+        else
+            code.sipush(value);
+    }
+
+    private static String field(int index) {
+        return "c" + index;
+    }
+
+    private static ClassDesc desc(Class<?> type) {
+        return ClassDesc.of(type.getName());
+    }
+
+    /**
+     * @return weight of the statements and expressions unrolled in the class of the block
+     */
+    private int weigh(CompositeStatement block) {
+        int weight = 0;
+        for (Statement statement : block.getStatements2Execute()) {
+            weight++;
+            if (statement instanceof ExpressionStatement expressionStatement) {
+                weight += weigh(expressionStatement.getExpression());
+            } else if (statement instanceof SayStatement sayStatement) {
+                weight += weigh(sayStatement.expression());
+            } else if (statement instanceof ReturnStatement returnStatement) {
+                weight += weigh(returnStatement.getExpression());
+            } else if (statement instanceof ConditionStatement conditionStatement) {
+                for (Map.Entry<Expression, CompositeStatement> entry : conditionStatement.getCases().entrySet())
+                    weight += 4 + weigh(entry.getKey()) + weigh(entry.getValue());
+            } else if (statement instanceof AbstractLoopStatement loop) {
+                loops.add(loop);
+            }
+        }
+        return weight;
+    }
+
+    private int weigh(Expression expression) {
+        if (expression instanceof SpecializingOperatorExpression operator)
+            return 1 + weigh(operator.getLeft()) + weigh(operator.getRight());
+        return 1;
+    }
+}
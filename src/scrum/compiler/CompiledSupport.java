@@ -0,0 +1,30 @@
+package scrum.compiler;
+
+import scrum.context.ExecutionContext;
+import scrum.context.Interpreter;
+import scrum.expression.value.Value;
+
+/**
+ * Helpers called by the compiled blocks, they keep the generated code short and the same as the tree it replaces
+ */
+final class CompiledSupport {
+    private CompiledSupport() {
+    }
+
+    static ExecutionContext.Context context() {
+        return ExecutionContext.get();
+    }
+
+    static int offset(ExecutionContext.Context ctx) {
+        return ctx != null ? ctx.getOffset() : -1;
+    }
+
+    static void track(ExecutionContext.Context ctx, int offset) {
+        if (ctx != null)
+            ctx.setOffset(offset);
+    }
+
+    static void say(Value<?> value) {
+        Interpreter.current().getOutput().println(value);
+    }
+}
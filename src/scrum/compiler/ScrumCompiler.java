@@ -0,0 +1,69 @@
+package scrum.compiler;
+
+import lombok.SneakyThrows;
+import scrum.context.definition.ClassDefinition;
+import scrum.context.definition.DefinitionScope;
+import scrum.context.definition.FunctionDefinition;
+import scrum.statement.CompositeStatement;
+import scrum.statement.Statement;
+import scrum.statement.loop.AbstractLoopStatement;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Compiles the blocks of a parsed program to JVM bytecode. Each block, the program itself, the bodies of the USER
+ * STORIES and EPICS and the bodies of the loops, is compiled to a hidden class executed in place of its statements,
+ * see {@link CompositeStatement#setCompiled(Statement)}. The JIT compiler of the JVM then optimizes each block on its
+ * own instead of the shared code of the tree-walking interpreter.
+ * <p>
+ * The compiled blocks keep the semantics of the interpreter: they execute the same nodes, report the same impediments
+ * at the same source positions and push the same memory frames.
+ */
+public class ScrumCompiler {
+    private ScrumCompiler() {
+    }
+
+    /**
+     * Compile a program and the stories and epics it defines, the bodies still deferred by the lazy parsing are left
+     * to the interpreter
+     */
+    public static void compile(CompositeStatement program, DefinitionScope definitionScope) {
+        compile(program);
+        compile(definitionScope);
+    }
+
+    private static void compile(DefinitionScope definitionScope) {
+        for (FunctionDefinition function : definitionScope.getFunctions()) {
+            if (!function.getStatement().isDeferred())
+                compile(function.getStatement());
+            compile(function.getDefinitionScope());
+        }
+        for (ClassDefinition classDefinition : definitionScope.getClasses()) {
+            compile(classDefinition.getStatement());
+            compile(classDefinition.getDefinitionScope());
+        }
+    }
+
+    /**
+     * Compile a block and the bodies of its loops, a block already compiled is kept
+     */
+    public static void compile(CompositeStatement block) {
+        if (block.getCompiled() != null)
+            return;
+        BlockCompiler compiler = new BlockCompiler(block);
+        if (compiler.isCompilable())
+            block.setCompiled(define(compiler));
+        for (AbstractLoopStatement loop : compiler.getLoops())
+            compile(loop);
+    }
+
+    @SneakyThrows
+    private static Statement define(BlockCompiler compiler) {
+        byte[] bytes = compiler.generate();
+        MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(bytes, true);
+        MethodType constructor = MethodType.methodType(void.class, Object[].class, int[].class);
+        return (Statement) lookup.findConstructor(lookup.lookupClass(), constructor)
+                .invoke(compiler.getConstants(), compiler.getOffsets());
+    }
+}
@@ -0,0 +1,63 @@
+package scrum.compiler;
+
+import scrum.statement.CompositeStatement;
+import scrum.statement.FunctionStatement;
+import scrum.statement.loop.AbstractLoopStatement;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compiles the hot blocks of a program while it is interpreted. The USER STORIES count their invocations and the loops
+ * their iterations, a block crossing its threshold is compiled by {@link ScrumCompiler} on a background thread. The
+ * compiled block is swapped in at the next invocation of the story or the next iteration of the loop, so the cold
+ * parts of a program never pay for the compilation.
+ * <p>
+ * Enabled by default, disabled with `-Dscrum.tiered=false`. The thresholds are set with the
+ * `scrum.tiered.invocations` and `scrum.tiered.iterations` properties.
+ */
+public class TieredCompiler {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("scrum.tiered", "true"));
+    private static final int INVOCATION_THRESHOLD = Integer.getInteger("scrum.tiered.invocations", 1000);
+    private static final int ITERATION_THRESHOLD = Integer.getInteger("scrum.tiered.iterations", 10000);
+
+    private static final ExecutorService COMPILER = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "scrum-compiler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TieredCompiler() {
+    }
+
+    /**
+     * Count an invocation of a story
+     */
+    public static void invoked(FunctionStatement story) {
+        if (story.countExecution() == INVOCATION_THRESHOLD)
+            submit(story);
+    }
+
+    /**
+     * Count an iteration of a loop
+     */
+    public static void iterated(AbstractLoopStatement loop) {
+        if (loop.countExecution() == ITERATION_THRESHOLD)
+            submit(loop);
+    }
+
+    private static void submit(CompositeStatement block) {
+        if (ENABLED && block.getCompiled() == null)
+            COMPILER.execute(() -> compile(block));
+    }
+
+    private static void compile(CompositeStatement block) {
+        try {
+            ScrumCompiler.compile(block);
+        } catch (RuntimeException | LinkageError e) {
+            // the block is still interpreted
+            if (System.getProperty("scrum.debug") != null)
+                e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1 @@
+package scrum.compiler;
\ No newline at end of file
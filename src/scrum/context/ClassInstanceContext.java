@@ -3,26 +3,22 @@ package scrum.context;
 import scrum.expression.value.ClassValue;
 import scrum.expression.value.ThisValue;
 
-import java.util.Stack;
-
 /**
  * Holds class instances at the current point of execution
  *
  * @see ThisValue#getValue()
- * @see ThisValue#getValue()
+ * @see Interpreter
  */
 public class ClassInstanceContext {
-    private static final Stack<ClassValue> values = new Stack<>();
-
     public static ClassValue getValue() {
-        return values.peek();
+        return Interpreter.current().getClassInstances().peek();
     }
 
     public static void pushValue(ClassValue instance) {
-        values.push(instance);
+        Interpreter.current().getClassInstances().push(instance);
     }
 
     public static void popValue() {
-        values.pop();
+        Interpreter.current().getClassInstances().pop();
     }
 }
@@ -2,9 +2,10 @@ package scrum.context;
 
 import lombok.Builder;
 import lombok.Getter;
+import scrum.token.SourceMap;
 
 /**
- * Thread-local execution context for tracking the current execution state.
+ * Execution context of the script executed by the current thread, held by its {@link Interpreter} state.
  * This enables Scrum-inspired error messages with EPIC, USER STORY, and file context.
  */
 public class ExecutionContext {
@@ -14,8 +15,11 @@ public class ExecutionContext {
     public static class Context {
         private final String fileName;
         private final String sourceCode;
+        private SourceMap sourceMap;
         private String epicName;
         private String storyName;
+        @Builder.Default
+        private int offset = -1;
         
         public void setEpicName(String epicName) {
             this.epicName = epicName;
@@ -24,17 +28,51 @@ public class ExecutionContext {
         public void setStoryName(String storyName) {
             this.storyName = storyName;
         }
+
+        /**
+         * Set the source map once it is complete, e.g. after a streamed source has been parsed.
+         */
+        public void setSourceMap(SourceMap sourceMap) {
+            this.sourceMap = sourceMap;
+        }
+
+        /**
+         * Set the source offset of the statement being executed.
+         */
+        public void setOffset(int offset) {
+            this.offset = offset;
+        }
+
+        /**
+         * Line of the statement being executed or -1 if unknown.
+         */
+        public int getLine() {
+            return offset >= 0 && sourceMap != null ? sourceMap.getLine(offset) : -1;
+        }
+
+        /**
+         * Column of the statement being executed or -1 if unknown.
+         */
+        public int getColumn() {
+            return offset >= 0 && sourceMap != null ? sourceMap.getColumn(offset) : -1;
+        }
     }
     
-    private static final ThreadLocal<Context> context = new ThreadLocal<>();
-    
     /**
      * Initialize the execution context with file and source information.
      */
     public static void initialize(String fileName, String sourceCode) {
-        context.set(Context.builder()
+        initialize(fileName, new SourceMap(sourceCode));
+    }
+
+    /**
+     * Initialize the execution context with file information and the already built source map, if any.
+     */
+    public static void initialize(String fileName, SourceMap sourceMap) {
+        Interpreter.current().setExecutionContext(Context.builder()
                 .fileName(fileName)
-                .sourceCode(sourceCode)
+                .sourceCode(sourceMap != null ? sourceMap.getSource() : null)
+                .sourceMap(sourceMap)
                 .build());
     }
     
@@ -42,14 +80,14 @@ public class ExecutionContext {
      * Get the current execution context.
      */
     public static Context get() {
-        return context.get();
+        return Interpreter.current().getExecutionContext();
     }
     
     /**
      * Set the current EPIC (class) being executed.
      */
     public static void setEpicName(String epicName) {
-        Context ctx = context.get();
+        Context ctx = get();
         if (ctx != null) {
             ctx.setEpicName(epicName);
         }
@@ -59,7 +97,7 @@ public class ExecutionContext {
      * Set the current USER STORY (function) being executed.
      */
     public static void setStoryName(String storyName) {
-        Context ctx = context.get();
+        Context ctx = get();
         if (ctx != null) {
             ctx.setStoryName(storyName);
         }
@@ -69,23 +107,34 @@ public class ExecutionContext {
      * Clear the execution context.
      */
     public static void clear() {
-        context.remove();
+        Interpreter.current().setExecutionContext(null);
     }
     
     /**
      * Extract a source code snippet for the given line number.
      */
     public static String getSourceSnippet(int line) {
-        Context ctx = context.get();
-        if (ctx == null || ctx.getSourceCode() == null) {
+        Context ctx = get();
+        if (ctx == null || ctx.getSourceMap() == null || ctx.getSourceMap().getSource() == null) {
             return "<source not available>";
         }
         
-        String[] lines = ctx.getSourceCode().split("\n");
-        if (line < 1 || line > lines.length) {
+        String text = ctx.getSourceMap().getLineText(line);
+        if (text == null) {
             return "<line out of range>";
         }
         
-        return lines[line - 1].trim();
+        return text.trim();
+    }
+
+    /**
+     * Extract the source code line containing the given offset.
+     */
+    public static String getSourceSnippetAt(int offset) {
+        Context ctx = get();
+        if (ctx == null || ctx.getSourceMap() == null || offset < 0) {
+            return "<source not available>";
+        }
+        return getSourceSnippet(ctx.getSourceMap().getLine(offset));
     }
 }
@@ -0,0 +1,44 @@
+package scrum.context;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Variables which may be stored in a memory frame, each one in its own slot. Built at parse time for the block of
+ * statements creating the frame.
+ *
+ * @see MemoryScope
+ * @see LexicalAddress
+ */
+public class FrameLayout implements Serializable {
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    /**
+     * @return slot of the variable, added to the layout if it is missing
+     */
+    public int add(String name) {
+        Integer slot = slots.get(name);
+        if (slot == null) {
+            slot = slots.size();
+            slots.put(name, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @return slot of the variable or -1 if it is not stored in a slot of the frame
+     */
+    public int slotOf(String name) {
+        Integer slot = slots.get(name);
+        return slot != null ? slot : -1;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+}
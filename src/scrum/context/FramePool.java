@@ -0,0 +1,29 @@
+package scrum.context;
+
+/**
+ * Memory frames released by the blocks of statements of a thread, reused by the next blocks instead of allocating
+ * a frame for each of them. Frames are acquired and released in a stack order, the most recently released frame is
+ * reused first while its slots are still in the cache.
+ */
+class FramePool {
+    // frames kept for reuse, the others are left to the garbage collector
+    private static final int CAPACITY = 256;
+
+    private final MemoryScope[] frames = new MemoryScope[CAPACITY];
+    private int size;
+
+    MemoryScope acquire(MemoryScope parent, FrameLayout layout) {
+        if (size == 0)
+            return new MemoryScope(parent, layout);
+        MemoryScope frame = frames[--size];
+        frames[size] = null;
+        frame.init(parent, layout);
+        return frame;
+    }
+
+    void release(MemoryScope frame) {
+        frame.release();
+        if (size < CAPACITY)
+            frames[size++] = frame;
+    }
+}
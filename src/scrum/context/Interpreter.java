@@ -0,0 +1,65 @@
+package scrum.context;
+
+import lombok.Getter;
+import lombok.Setter;
+import scrum.context.definition.DefinitionScope;
+import scrum.expression.value.ClassValue;
+import scrum.vm.ActivationPool;
+
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Scanner;
+import java.util.function.Supplier;
+
+/**
+ * State of the execution of a script: the stacks of the definition scopes, memory frames and class instances, the
+ * registers of the virtual machine, the {@link ExecutionContext} and the console of the SAY and ASK statements. The
+ * static contexts are views of the state bound to {@link #CURRENT} for the execution of a script, so several scripts
+ * can be executed in parallel by different threads. The stacks are not synchronized as a state is only used by the
+ * thread executing the script.
+ */
+@Getter
+public class Interpreter {
+    /**
+     * State of the script executed by the current thread, e.g. bound with
+     * {@code ScopedValue.where(Interpreter.CURRENT, new Interpreter()).run(...)}
+     */
+    public static final ScopedValue<Interpreter> CURRENT = ScopedValue.newInstance();
+
+    private final Deque<DefinitionScope> definitionScopes = new ArrayDeque<>();
+    private final Deque<MemoryScope> memoryScopes = new ArrayDeque<>();
+    private final Deque<ClassValue> classInstances = new ArrayDeque<>();
+    private final FramePool framePool = new FramePool();
+    private final ActivationPool activationPool = new ActivationPool();
+    @Setter
+    private ExecutionContext.Context executionContext;
+    // console of the script, the standard one when not set
+    @Setter
+    private PrintStream output;
+    @Setter
+    private Supplier<String> input;
+
+    /**
+     * @return state of the script executed by the current thread
+     * @throws IllegalStateException if the current thread is not executing a script
+     */
+    public static Interpreter current() {
+        return CURRENT.orElseThrow(() ->
+                new IllegalStateException("No interpreter state is bound to the current thread"));
+    }
+
+    public PrintStream getOutput() {
+        return output != null ? output : System.out;
+    }
+
+    /**
+     * @return reader of the lines typed for the ASK statements, a single reader of the standard input per state when
+     * not set
+     */
+    public Supplier<String> getInput() {
+        if (input == null)
+            input = new Scanner(System.in)::nextLine;
+        return input;
+    }
+}
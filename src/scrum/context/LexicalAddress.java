@@ -0,0 +1,15 @@
+package scrum.context;
+
+import java.io.Serializable;
+
+/**
+ * Location of a variable resolved at parse time: the frames which may hold it, innermost first, as the number of
+ * frames to go up from the current one and the slot of the variable in each of them.
+ * <p>
+ * Variables are scoped dynamically, a story sees the variables of its caller. When none of the frames holds the
+ * variable it is looked up by name from the root frame of the resolved body, {@code rootDepth} frames up.
+ *
+ * @see MemoryScope#get(String, LexicalAddress)
+ */
+public record LexicalAddress(int[] depths, int[] slots, int rootDepth) implements Serializable {
+}
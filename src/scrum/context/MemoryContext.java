@@ -1,28 +1,64 @@
 package scrum.context;
 
-import java.util.Stack;
+import java.util.Deque;
 
 /**
  * Memory management to isolate defined variables
  *
  * @see MemoryScope
+ * @see Interpreter
  */
 public class MemoryContext {
-    private static final Stack<MemoryScope> scopes = new Stack<>();
 
     public static MemoryScope getScope() {
-        return scopes.peek();
+        return Interpreter.current().getMemoryScopes().peek();
     }
 
     public static MemoryScope newScope() {
-        return new MemoryScope(scopes.isEmpty() ? null : scopes.peek());
+        return new MemoryScope(getScope());
+    }
+
+    /**
+     * @param layout slots of the variables resolved in the block creating the scope, null if there is none
+     */
+    public static MemoryScope newScope(FrameLayout layout) {
+        return new MemoryScope(getScope(), layout);
     }
 
     public static void pushScope(MemoryScope scope) {
-        scopes.push(scope);
+        Interpreter.current().getMemoryScopes().push(scope);
     }
 
     public static void endScope() {
-        scopes.pop();
+        Interpreter.current().getMemoryScopes().pop();
+    }
+
+    /**
+     * Push a frame taken from the pool of the thread for a block of statements, to end with {@link #popFrame()}.
+     * The frame must not be referenced once the block is executed, as class instances do with their scope.
+     *
+     * @param layout slots of the variables resolved in the block, null if there is none
+     */
+    public static MemoryScope pushFrame(FrameLayout layout) {
+        Interpreter interpreter = Interpreter.current();
+        Deque<MemoryScope> scopes = interpreter.getMemoryScopes();
+        MemoryScope frame = interpreter.getFramePool().acquire(scopes.peek(), layout);
+        scopes.push(frame);
+        return frame;
+    }
+
+    /**
+     * End the scope of a frame pushed by {@link #pushFrame(FrameLayout)} and release it to the pool
+     */
+    public static void popFrame() {
+        Interpreter interpreter = Interpreter.current();
+        interpreter.getFramePool().release(interpreter.getMemoryScopes().pop());
+    }
+
+    /**
+     * Release a frame of {@link #pushFrame(FrameLayout)} whose scope has already been ended
+     */
+    public static void releaseFrame(MemoryScope frame) {
+        Interpreter.current().getFramePool().release(frame);
     }
 }
@@ -3,20 +3,64 @@ package scrum.context;
 import scrum.expression.value.NullValue;
 import scrum.expression.value.Value;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Memory frame of a block of statements. Variables resolved at parse time are stored in the slots given by the
+ * {@link FrameLayout} of the block, the other ones by name.
+ * <p>
+ * Frames of the blocks executed over and over are taken from a {@link FramePool} and reused, see
+ * {@link MemoryContext#pushFrame(FrameLayout)}.
+ */
 public class MemoryScope {
-    private final Map<String, Value<?>> variables;
-    private final MemoryScope parent;
+    private MemoryScope parent;
+    private FrameLayout layout;
+    // may be longer than the layout when the frame is reused
+    private Value<?>[] slots;
+    // variables without a slot, created on first use
+    private Map<String, Value<?>> variables;
 
     public MemoryScope(MemoryScope parent) {
-        this.variables = new HashMap<>();
+        this(parent, null);
+    }
+
+    public MemoryScope(MemoryScope parent, FrameLayout layout) {
+        init(parent, layout);
+    }
+
+    /**
+     * Set up the frame for a block, reusing the slots of a previous one when they are large enough
+     */
+    void init(MemoryScope parent, FrameLayout layout) {
         this.parent = parent;
+        this.layout = layout;
+        int size = layout != null ? layout.size() : 0;
+        if (size > 0 && (slots == null || slots.length < size))
+            slots = new Value<?>[size];
+    }
+
+    /**
+     * Remove all the variables of the frame, e.g. to execute the next iteration of a loop in the same frame
+     */
+    public void reset() {
+        if (layout != null)
+            Arrays.fill(slots, 0, layout.size(), null);
+        variables = null;
+    }
+
+    /**
+     * Drop the references held by a frame going back to the pool
+     */
+    void release() {
+        reset();
+        parent = null;
+        layout = null;
     }
 
     public Value<?> get(String name) {
-        Value<?> value = variables.get(name);
+        Value<?> value = getLocal(name);
         if (value != null)
             return value;
         else if (parent != null)
@@ -25,8 +69,31 @@ public class MemoryScope {
             return NullValue.NULL_INSTANCE;
     }
 
+    /**
+     * Get a variable at its lexical address, looking it up by name in the frames outside the resolved body
+     */
+    public Value<?> get(String name, LexicalAddress address) {
+        int[] depths = address.depths();
+        int[] slots = address.slots();
+        MemoryScope scope = this;
+        int depth = 0;
+        for (int i = 0; i < depths.length; i++) {
+            for (; depth < depths[i]; depth++)
+                scope = scope.parent;
+            Value<?> value = scope.slots[slots[i]];
+            if (value != null)
+                return value;
+        }
+        for (; depth < address.rootDepth(); depth++)
+            scope = scope.parent;
+        return scope.get(name);
+    }
+
     public Value<?> getLocal(String name) {
-        return variables.get(name);
+        int slot = layout != null ? layout.slotOf(name) : -1;
+        if (slot >= 0 && slots[slot] != null)
+            return slots[slot];
+        return variables != null ? variables.get(name) : null;
     }
 
     public void set(String name, Value<?> value) {
@@ -38,12 +105,58 @@ public class MemoryScope {
         }
     }
 
+    /**
+     * Set a variable at its lexical address, see {@link #set(String, Value)}
+     */
+    public void set(String name, Value<?> value, LexicalAddress address) {
+        int[] depths = address.depths();
+        int[] slots = address.slots();
+        MemoryScope scope = this;
+        int depth = 0;
+        for (int i = 0; i < depths.length; i++) {
+            for (; depth < depths[i]; depth++)
+                scope = scope.parent;
+            if (scope.slots[slots[i]] != null && value != null) {
+                scope.slots[slots[i]] = value;
+                return;
+            }
+            if (scope.containsLocal(name)) {
+                scope.setLocal(name, value);
+                return;
+            }
+        }
+        for (; depth < address.rootDepth(); depth++)
+            scope = scope.parent;
+        MemoryScope variableScope = scope.findScope(name);
+        if (variableScope == null) {
+            setLocal(name, value);
+        } else {
+            variableScope.setLocal(name, value);
+        }
+    }
+
     public void setLocal(String name, Value<?> value) {
+        int slot = layout != null ? layout.slotOf(name) : -1;
+        if (slot >= 0) {
+            slots[slot] = value;
+            if (value != null)
+                return;
+        }
+        // a null value is kept by name as the variable is defined anyway
+        if (variables == null)
+            variables = new HashMap<>();
         variables.put(name, value);
     }
 
+    private boolean containsLocal(String name) {
+        int slot = layout != null ? layout.slotOf(name) : -1;
+        if (slot >= 0 && slots[slot] != null)
+            return true;
+        return variables != null && variables.containsKey(name);
+    }
+
     private MemoryScope findScope(String name) {
-        if (variables.containsKey(name))
+        if (containsLocal(name))
             return this;
         return parent == null ? null : parent.findScope(name);
     }
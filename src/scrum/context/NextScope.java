@@ -1,16 +0,0 @@
-package scrum.context;
-
-import lombok.Getter;
-
-@Getter
-public class NextScope {
-    private boolean invoked;
-
-    public void invoke() {
-        setInvoked(true);
-    }
-
-    private void setInvoked(boolean invoked) {
-        this.invoked = invoked;
-    }
-}
@@ -1,13 +0,0 @@
-package scrum.context;
-
-public class ReturnContext {
-	private static ReturnScope scope = new ReturnScope();
-
-	public static ReturnScope getScope() {
-		return scope;
-	}
-
-	public static void reset() {
-		ReturnContext.scope = new ReturnScope();
-	}
-}
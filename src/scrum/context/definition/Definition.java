@@ -1,5 +1,7 @@
 package scrum.context.definition;
 
-public interface Definition {
+import java.io.Serializable;
+
+public interface Definition extends Serializable {
     DefinitionScope getDefinitionScope();
 }
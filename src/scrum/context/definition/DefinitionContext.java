@@ -1,28 +1,28 @@
 package scrum.context.definition;
 
-import java.util.Stack;
+import scrum.context.Interpreter;
 
 /**
  * Holds constructions definitions declared at specific place of code
  *
  * @see DefinitionScope
+ * @see Interpreter
  */
 public class DefinitionContext {
-    private final static Stack<DefinitionScope> scopes = new Stack<>();
 
     public static DefinitionScope getScope() {
-        return scopes.peek();
+        return Interpreter.current().getDefinitionScopes().peek();
     }
 
     public static DefinitionScope newScope() {
-        return new DefinitionScope(scopes.isEmpty() ? null : scopes.peek());
+        return new DefinitionScope(getScope());
     }
 
     public static void pushScope(DefinitionScope scope) {
-        scopes.push(scope);
+        Interpreter.current().getDefinitionScopes().push(scope);
     }
 
     public static void endScope() {
-        scopes.pop();
+        Interpreter.current().getDefinitionScopes().pop();
     }
 }
@@ -5,77 +5,83 @@ import scrum.context.ExecutionContext;
 import scrum.exception.ImpedimentCode;
 import scrum.exception.ScrumRuntimeException;
 
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 
-public class DefinitionScope {
-    private final Set<ClassDefinition> classes;
-    private final Set<FunctionDefinition> functions;
-    private final Set<ApiDefinition> apis;
+/**
+ * Definitions of a block indexed by their names, a name not defined by the block is looked up in the enclosing blocks.
+ * A name keeps its first definition, as the definitions are equal by name.
+ */
+public class DefinitionScope implements Serializable {
+    private final Map<String, ClassDefinition> classes;
+    private final Map<String, FunctionDefinition> functions;
+    private final Map<String, ApiDefinition> apis;
     @Getter
     private final DefinitionScope parent;
 
     public DefinitionScope(DefinitionScope parent) {
-        this.classes = new HashSet<>();
-        this.functions = new HashSet<>();
-        this.apis = new HashSet<>();
+        this.classes = new HashMap<>();
+        this.functions = new HashMap<>();
+        this.apis = new HashMap<>();
         this.parent = parent;
     }
 
+    public Collection<ClassDefinition> getClasses() {
+        return classes.values();
+    }
+
     public ClassDefinition getClass(String name) {
-        Optional<ClassDefinition> classDefinition = classes.stream()
-                .filter(t -> t.getName().equals(name))
-                .findAny();
-        if (classDefinition.isPresent())
-            return classDefinition.get();
-        else if (parent != null)
-            return parent.getClass(name);
-        else
-            throw buildNameException(String.format("EPIC (class) is not defined: %s", name));
+        for (DefinitionScope scope = this; scope != null; scope = scope.parent) {
+            ClassDefinition classDefinition = scope.classes.get(name);
+            if (classDefinition != null)
+                return classDefinition;
+        }
+        throw buildNameException(String.format("EPIC (class) is not defined: %s", name));
     }
 
     public void addClass(ClassDefinition classDefinition) {
-        classes.add(classDefinition);
+        classes.putIfAbsent(classDefinition.getName(), classDefinition);
+    }
+
+    public Collection<FunctionDefinition> getFunctions() {
+        return functions.values();
     }
 
     public FunctionDefinition getFunction(String name) {
-        Optional<FunctionDefinition> functionDefinition = functions.stream()
-                .filter(t -> t.getName().equals(name))
-                .findAny();
-        if (functionDefinition.isPresent())
-            return functionDefinition.get();
-        else if (parent != null)
-            return parent.getFunction(name);
-        else
-            throw buildNameException(String.format("USER STORY (function) is not defined: %s", name));
+        for (DefinitionScope scope = this; scope != null; scope = scope.parent) {
+            FunctionDefinition functionDefinition = scope.functions.get(name);
+            if (functionDefinition != null)
+                return functionDefinition;
+        }
+        throw buildNameException(String.format("USER STORY (function) is not defined: %s", name));
     }
 
     public void addFunction(FunctionDefinition functionDefinition) {
-        functions.add(functionDefinition);
+        functions.putIfAbsent(functionDefinition.getName(), functionDefinition);
     }
 
     public ApiDefinition getApi(String name) {
-        Optional<ApiDefinition> apiDefinition = apis.stream()
-                .filter(t -> t.getName().equals(name))
-                .findAny();
-        if (apiDefinition.isPresent())
-            return apiDefinition.get();
-        else if (parent != null)
-            return parent.getApi(name);
-        else
-            throw buildNameException(String.format("API is not defined: %s", name));
+        for (DefinitionScope scope = this; scope != null; scope = scope.parent) {
+            ApiDefinition apiDefinition = scope.apis.get(name);
+            if (apiDefinition != null)
+                return apiDefinition;
+        }
+        throw buildNameException(String.format("API is not defined: %s", name));
     }
 
     public void addApi(ApiDefinition apiDefinition) {
-        apis.add(apiDefinition);
+        apis.putIfAbsent(apiDefinition.getName(), apiDefinition);
     }
     
     /**
      * Get all functions defined in this scope and parent scopes.
      */
     public Set<FunctionDefinition> getAllFunctions() {
-        Set<FunctionDefinition> allFunctions = new HashSet<>(functions);
+        Set<FunctionDefinition> allFunctions = new HashSet<>(functions.values());
         if (parent != null) {
             allFunctions.addAll(parent.getAllFunctions());
         }
@@ -86,10 +92,10 @@ public class DefinitionScope {
      * Get all functions recursively including those defined in class scopes.
      */
     public Set<FunctionDefinition> getAllFunctionsRecursive() {
-        Set<FunctionDefinition> allFunctions = new HashSet<>(functions);
+        Set<FunctionDefinition> allFunctions = new HashSet<>(functions.values());
         
         // Add functions from all classes (EPIC scopes)
-        for (ClassDefinition classDef : classes) {
+        for (ClassDefinition classDef : classes.values()) {
             allFunctions.addAll(classDef.getDefinitionScope().getAllFunctions());
         }
         
@@ -106,10 +112,12 @@ public class DefinitionScope {
         return ScrumRuntimeException.builder()
             .message(message)
             .impedimentCode(ImpedimentCode.SCRUM_RUNTIME_NAME_001)
-            .snippet("<definition lookup>")
+            .snippet(ctx != null && ctx.getOffset() >= 0 ? ExecutionContext.getSourceSnippetAt(ctx.getOffset()) : "<definition lookup>")
             .epicName(ctx != null ? ctx.getEpicName() : null)
             .storyName(ctx != null ? ctx.getStoryName() : null)
             .fileName(ctx != null ? ctx.getFileName() : null)
+            .line(ctx != null ? ctx.getLine() : -1)
+            .column(ctx != null ? ctx.getColumn() : -1)
             .build();
     }
 }
@@ -0,0 +1,11 @@
+package scrum.context.definition;
+
+/**
+ * Definition resolved by a call site, reused by the next calls made from the same definition scope. The definitions
+ * of a scope are not replaced once added, so the same scope resolves a name to the same definition.
+ *
+ * @param scope      scope the name was resolved from
+ * @param definition definition the name was resolved to
+ */
+public record ResolvedDefinition<T extends Definition>(DefinitionScope scope, T definition) {
+}
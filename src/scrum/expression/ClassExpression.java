@@ -1,5 +1,6 @@
 package scrum.expression;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import scrum.context.ClassInstanceContext;
@@ -7,6 +8,8 @@ import scrum.context.MemoryContext;
 import scrum.context.MemoryScope;
 import scrum.context.definition.ClassDefinition;
 import scrum.context.definition.DefinitionContext;
+import scrum.context.definition.DefinitionScope;
+import scrum.context.definition.ResolvedDefinition;
 import scrum.expression.value.ClassValue;
 import scrum.expression.value.NullValue;
 import scrum.expression.value.Value;
@@ -21,6 +24,9 @@ import java.util.stream.IntStream;
 public class ClassExpression implements Expression {
     private final String name;
     private final List<Expression> argumentExpressions;
+    // inline cache of the epic instantiated by the last evaluation
+    @Getter(AccessLevel.NONE)
+    private transient ResolvedDefinition<ClassDefinition> resolved;
 
     @Override
     public Value<?> evaluate() {
@@ -28,11 +34,11 @@ public class ClassExpression implements Expression {
         List<Value<?>> values = argumentExpressions.stream().map(Expression::evaluate).collect(Collectors.toList());
 
         //get class's definition and statement
-        ClassDefinition definition = DefinitionContext.getScope().getClass(name);
+        ClassDefinition definition = resolve(DefinitionContext.getScope());
         ClassStatement classStatement = definition.getStatement();
 
         //set separate scope
-        MemoryScope classScope = new MemoryScope(null);
+        MemoryScope classScope = new MemoryScope(null, classStatement.getFrameLayout());
         MemoryContext.pushScope(classScope);
 
         try {
@@ -57,4 +63,13 @@ public class ClassExpression implements Expression {
             ClassInstanceContext.popValue();
         }
     }
+
+    private ClassDefinition resolve(DefinitionScope scope) {
+        ResolvedDefinition<ClassDefinition> resolved = this.resolved;
+        if (resolved == null || resolved.scope() != scope) {
+            resolved = new ResolvedDefinition<>(scope, scope.getClass(name));
+            this.resolved = resolved;
+        }
+        return resolved.definition();
+    }
 }
@@ -2,6 +2,18 @@ package scrum.expression;
 
 import scrum.expression.value.Value;
 
-public interface Expression {
+import java.io.Serializable;
+
+public interface Expression extends Serializable {
     Value<?> evaluate();
+
+    /**
+     * Evaluate an expression expected to be a number without boxing its result, e.g. an operand of an operator
+     * specialized on numbers
+     *
+     * @throws UnexpectedValueException holding the value if it is not a number
+     */
+    default double evaluateDouble() {
+        return UnexpectedValueException.expectDouble(evaluate());
+    }
 }
@@ -1,33 +1,38 @@
 package scrum.expression;
 
 import lombok.Getter;
-import lombok.SneakyThrows;
 import scrum.exception.SyntaxException;
 import scrum.expression.operator.*;
 import scrum.expression.value.LogicalValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.TextValue;
+import scrum.token.Keyword;
 import scrum.token.Token;
 import scrum.token.TokenType;
 import scrum.token.TokensStack;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.Stack;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 import static scrum.expression.value.ThisValue.THIS_INSTANCE;
 
+/**
+ * Precedence climbing (Pratt) parser of the expressions of a line, see {@link Operator} for the precedence and
+ * associativity of the operators.
+ * <p>
+ * An operand directly following a complete expression starts a new one, only the last expression of such a
+ * sequence is kept.
+ */
 public class ExpressionReader {
-    private final Stack<Expression> operands;
-    private final Stack<Operator> operators;
+    private static final int OPERAND_OR_OPERATOR = TokenType.mask(TokenType.Operator, TokenType.Variable, TokenType.Numeric,
+            TokenType.Logical, TokenType.Null, TokenType.This, TokenType.Text);
+    private static final int LOWEST_PRECEDENCE = 0;
+
     @Getter
     private final TokensStack tokens;
 
     private ExpressionReader(TokensStack tokens) {
-        this.operands = new Stack<>();
-        this.operators = new Stack<>();
         this.tokens = tokens;
     }
 
@@ -37,111 +42,94 @@ public class ExpressionReader {
     }
 
     public static Expression readExpression(ExpressionReader expressionReader) {
-        return readExpression(expressionReader.getTokens());
+        return expressionReader.readExpression();
     }
 
     private boolean hasNextToken() {
-        if (tokens.peekSameLine(TokenType.Operator, TokenType.Variable, TokenType.Numeric, TokenType.Logical,
-                TokenType.Null, TokenType.This, TokenType.Text))
+        if (tokens.peekSameLine(OPERAND_OR_OPERATOR))
             return true;
         //beginning of an array
-        if (tokens.peekSameLine(TokenType.GroupDivider, "{"))
+        if (tokens.peekSameLine(Keyword.OPEN_BRACE))
             return true;
         return false;
     }
 
     private Expression readExpression() {
-        while (hasNextToken()) {
-            Token token = tokens.next();
-            switch (token.getType()) {
-                case Operator:
-                    Operator operator = Operator.getType(token.getValue());
-                    switch (operator) {
-                        case LeftParen:
-                            operators.push(operator);
-                            break;
-                        case RightParen:
-                            //until left bracket is not reached
-                            while (!operators.empty() && operators.peek() != Operator.LeftParen)
-                                applyTopOperator();
-                            operators.pop(); //pop left bracket
-                            break;
-                        default:
-                            //until top operator has greater precedence
-                            while (!operators.isEmpty() && operators.peek().greaterThan(operator))
-                                applyTopOperator();
-                            operators.push(operator); // finally, add less prioritized operator
-                    }
-                    break;
-                default:
-                    String value = token.getValue();
-                    Expression operand;
-                    switch (token.getType()) {
-                        case Numeric:
-                            operand = new NumericValue(Double.parseDouble(value));
-                            break;
-                        case Logical:
-                            operand = new LogicalValue(Boolean.valueOf(value));
-                            break;
-                        case Text:
-                            operand = new TextValue(value);
-                            break;
-                        case GroupDivider:
-                            if (Objects.equals(token.getValue(), "{")) {
-                                operand = readArrayInstance();
-                                break;
-                            }
-                        case Null:
-                            operand = NULL_INSTANCE;
-                            break;
-                        case This:
-                            operand = THIS_INSTANCE;
-                            break;
-                        case Variable:
-                        default:
-                            if (!operators.isEmpty() && operators.peek() == Operator.ClassInstance) {
-                                operand = readClassInstance(token);
-                            } else if (tokens.peekSameLine(TokenType.GroupDivider, "USING [")) {
-                                operand = readFunctionInvocation(token);
-                            } else if (tokens.peekSameLine(TokenType.GroupDivider, "{")) {
-                                operand = readArrayValue(token);
-                            } else {
-                                operand = new VariableExpression(value);
-                            }
-                    }
-                    operands.push(operand);
-            }
-        }
+        Expression expression = readSequence();
+        if (peekOperator() == Operator.RightParen)
+            throw new SyntaxException("Operator `)` without matching `(`");
+        return expression;
+    }
 
-        while (!operators.isEmpty()) {
-            applyTopOperator();
-        }
+    // read expressions until the end of the line or a closing parenthesis, keeping the last one
+    private Expression readSequence() {
+        Expression expression = NULL_INSTANCE;
+        while (hasNextToken() && peekOperator() != Operator.RightParen)
+            expression = readExpression(LOWEST_PRECEDENCE);
+        return expression;
+    }
 
-        if (operands.isEmpty()) {
-            return NULL_INSTANCE;
-        } else {
-            return operands.pop();
+    // read an operand followed by the binary operators of at least the given precedence, e.g. a + b * c
+    private Expression readExpression(int precedence) {
+        Expression left = readOperand();
+        Operator operator;
+        while ((operator = peekOperator()) != null && operator.isBinary() && operator.getPrecedence() >= precedence) {
+            tokens.next();
+            // operators of the same precedence are left-associative
+            left = operator.apply(left, readExpression(operator.getPrecedence() + 1));
         }
+        return left;
     }
 
-    @SneakyThrows
-    private void applyTopOperator() {
-        // e.g. a + b
-        Operator operator = operators.pop();
-        Class<? extends OperatorExpression> operatorType = operator.getType();
-        Expression left = operands.pop();
-        if (BinaryOperatorExpression.class.isAssignableFrom(operatorType)) {
-            Expression right = operands.pop();
-            operands.push(operatorType
-                    .getConstructor(Expression.class, Expression.class)
-                    .newInstance(right, left));
-        } else if (UnaryOperatorExpression.class.isAssignableFrom(operatorType)) {
+    private Operator peekOperator() {
+        return Operator.of(tokens.peekLexemeIdSameLine());
+    }
+
+    private Expression readOperand() {
+        if (!hasNextToken())
+            throw new SyntaxException("Missing operand of the expression");
+
+        Operator operator = peekOperator();
+        if (operator == Operator.LeftParen) {
+            tokens.next();
+            Expression expression = readSequence();
+            tokens.next(TokenType.Operator, Operator.RightParen.getCharacter());
+            return expression;
+        }
+        if (operator != null && operator.isUnary()) {
+            tokens.next();
             // e.g. new Instance []
-            operands.push(operatorType
-                    .getConstructor(Expression.class)
-                    .newInstance(left));
-        } else {
-            throw new SyntaxException(String.format("Operator `%s` is not supported", operatorType));
+            if (operator == Operator.ClassInstance && tokens.peekSameLine(TokenType.Variable))
+                return operator.apply(readClassInstance(tokens.next()));
+            return operator.apply(readExpression(operator.getPrecedence() + 1));
+        }
+
+        Token token = tokens.next();
+        String value = token.getValue();
+        switch (token.getType()) {
+            case Operator:
+                throw new SyntaxException(String.format("Operator `%s` is not supported here", value));
+            case Numeric:
+                return NumericValue.parse(value);
+            case Logical:
+                return new LogicalValue(Boolean.valueOf(value));
+            case Text:
+                return new TextValue(value);
+            case GroupDivider:
+                return readArrayInstance();
+            case Null:
+                return NULL_INSTANCE;
+            case This:
+                return THIS_INSTANCE;
+            case Variable:
+            default:
+                if (tokens.peekSameLine(Keyword.USING)) {
+                    return readFunctionInvocation(token);
+                } else if (tokens.peekSameLine(Keyword.OPEN_BRACE)) {
+                    return readArrayValue(token);
+                } else {
+                    return new VariableExpression(value);
+                }
         }
     }
 
@@ -152,15 +140,15 @@ public class ExpressionReader {
 
             tokens.next(TokenType.GroupDivider, "["); //skip open square bracket
 
-            while (!tokens.peekSameLine(TokenType.GroupDivider, "]")) {
+            while (!tokens.peekSameLine(Keyword.CLOSE_BRACKET)) {
                 Expression value = ExpressionReader.readExpression(this);
                 arguments.add(value);
 
-                if (tokens.peekSameLine(TokenType.GroupDivider, ","))
+                if (tokens.peekSameLine(Keyword.COMMA))
                     tokens.next();
             }
 
-            tokens.next(TokenType.GroupDivider, "]"); //skip close square bracket
+            tokens.next(Keyword.CLOSE_BRACKET); //skip close square bracket
         }
         return new ClassExpression(token.getValue(), arguments);
     }
@@ -168,19 +156,19 @@ public class ExpressionReader {
     // read function invocation: function_call[arguments]
     private FunctionExpression readFunctionInvocation(Token token) {
         List<Expression> arguments = new ArrayList<>();
-        if (tokens.peekSameLine(TokenType.GroupDivider, "USING [")) {
+        if (tokens.peekSameLine(Keyword.USING)) {
 
-            tokens.next(TokenType.GroupDivider, "USING ["); //skip open square bracket
+            tokens.next(Keyword.USING); //skip open square bracket
 
-            while (!tokens.peekSameLine(TokenType.GroupDivider, "]")) {
+            while (!tokens.peekSameLine(Keyword.CLOSE_BRACKET)) {
                 Expression value = ExpressionReader.readExpression(this);
                 arguments.add(value);
 
-                if (tokens.peekSameLine(TokenType.GroupDivider, ","))
+                if (tokens.peekSameLine(Keyword.COMMA))
                     tokens.next();
             }
 
-            tokens.next(TokenType.GroupDivider, "]"); //skip close square bracket
+            tokens.next(Keyword.CLOSE_BRACKET); //skip close square bracket
         }
 
         return new FunctionExpression(token.getValue(), arguments);
@@ -190,15 +178,15 @@ public class ExpressionReader {
     private ArrayExpression readArrayInstance() {
         List<Expression> values = new ArrayList<>();
 
-        while (!tokens.peekSameLine(TokenType.GroupDivider, "}")) {
+        while (!tokens.peekSameLine(Keyword.CLOSE_BRACE)) {
             Expression value = ExpressionReader.readExpression(this);
             values.add(value);
 
-            if (tokens.peekSameLine(TokenType.GroupDivider, ","))
+            if (tokens.peekSameLine(Keyword.COMMA))
                 tokens.next();
         }
 
-        tokens.next(TokenType.GroupDivider, "}"); //skip close square bracket
+        tokens.next(Keyword.CLOSE_BRACE); //skip close square bracket
 
         return new ArrayExpression(values);
     }
@@ -206,9 +194,9 @@ public class ExpressionReader {
     // read array value: array{index}
     private ArrayValueOperator readArrayValue(Token token) {
         VariableExpression array = new VariableExpression(token.getValue());
-        tokens.next(TokenType.GroupDivider, "{");
+        tokens.next(Keyword.OPEN_BRACE);
         Expression arrayIndex = ExpressionReader.readExpression(this);
-        tokens.next(TokenType.GroupDivider, "}");
+        tokens.next(Keyword.CLOSE_BRACE);
 
         return new ArrayValueOperator(array, arrayIndex);
     }
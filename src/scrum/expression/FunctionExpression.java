@@ -1,15 +1,17 @@
 package scrum.expression;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import scrum.compiler.TieredCompiler;
 import scrum.context.ClassInstanceContext;
 import scrum.context.MemoryContext;
 import scrum.context.MemoryScope;
-import scrum.context.ReturnContext;
 import scrum.context.definition.ClassDefinition;
 import scrum.context.definition.DefinitionContext;
 import scrum.context.definition.DefinitionScope;
 import scrum.context.definition.FunctionDefinition;
+import scrum.context.definition.ResolvedDefinition;
 import scrum.expression.value.ClassValue;
 import scrum.expression.value.NullValue;
 import scrum.expression.value.Value;
@@ -17,13 +19,15 @@ import scrum.statement.FunctionStatement;
 
 import java.util.List;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 @RequiredArgsConstructor
 @Getter
 public class FunctionExpression implements Expression {
     private final String name;
     private final List<Expression> argumentExpressions;
+    // inline cache of the story called by the last invocation
+    @Getter(AccessLevel.NONE)
+    private transient ResolvedDefinition<FunctionDefinition> resolved;
 
     @Override
     public Value<?> evaluate() {
@@ -63,31 +67,40 @@ public class FunctionExpression implements Expression {
 
     private Value<?> evaluate(List<Value<?>> values) {
         //get function's definition and statement
-        FunctionDefinition definition = DefinitionContext.getScope().getFunction(name);
+        FunctionDefinition definition = resolve(DefinitionContext.getScope());
         FunctionStatement statement = definition.getStatement();
 
         //set new memory scope
-        MemoryContext.pushScope(MemoryContext.newScope());
+        MemoryScope frame = MemoryContext.pushFrame(statement.getFrameLayout());
         
         // Track USER STORY context
         scrum.context.ExecutionContext.setStoryName(definition.getName());
 
         try {
             //initialize function arguments
-            IntStream.range(0, definition.getArguments().size()).boxed()
-                    .forEach(i -> MemoryContext.getScope()
-                            .setLocal(definition.getArguments().get(i), values.size() > i ? values.get(i) : NullValue.NULL_INSTANCE));
+            List<String> arguments = definition.getArguments();
+            for (int i = 0; i < arguments.size(); i++)
+                frame.setLocal(arguments.get(i), values.size() > i ? values.get(i) : NullValue.NULL_INSTANCE);
 
-            //execute function body
-            statement.execute();
+            //execute function body and obtain its result, null if it doesn't return any
+            Value<?> result = statement.execute().getValue();
 
-            //obtain function result
-            return ReturnContext.getScope().getResult();
+            // counted once executed, the body of a lazily parsed story is parsed by then
+            TieredCompiler.invoked(statement);
+            return result;
         } finally {
-            // release function memory and return context
-            MemoryContext.endScope();
-            ReturnContext.reset();
+            // release function memory
+            MemoryContext.popFrame();
             scrum.context.ExecutionContext.setStoryName(null);
         }
     }
+
+    private FunctionDefinition resolve(DefinitionScope scope) {
+        ResolvedDefinition<FunctionDefinition> resolved = this.resolved;
+        if (resolved == null || resolved.scope() != scope) {
+            resolved = new ResolvedDefinition<>(scope, scope.getFunction(name));
+            this.resolved = resolved;
+        }
+        return resolved.definition();
+    }
 }
@@ -0,0 +1,33 @@
+package scrum.expression;
+
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.Value;
+
+/**
+ * Thrown by a primitive evaluation when the expression doesn't evaluate to the expected type. It carries the value
+ * already evaluated, so the caller continues with the generic evaluation without evaluating the expression again.
+ * <p>
+ * The exception is caught by the caller of the primitive evaluation and doesn't fill its stack trace.
+ */
+public class UnexpectedValueException extends RuntimeException {
+    private final transient Value<?> value;
+
+    public UnexpectedValueException(Value<?> value) {
+        super(null, null, false, false);
+        this.value = value;
+    }
+
+    public Value<?> getValue() {
+        return value;
+    }
+
+    /**
+     * @return the number held by the value
+     * @throws UnexpectedValueException if the value is not a double, e.g. an integer
+     */
+    public static double expectDouble(Value<?> value) {
+        if (NumericValue.isDouble(value))
+            return ((NumericValue) value).doubleValue();
+        throw new UnexpectedValueException(value);
+    }
+}
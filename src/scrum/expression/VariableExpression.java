@@ -2,6 +2,8 @@ package scrum.expression;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import scrum.context.LexicalAddress;
 import scrum.context.MemoryContext;
 import scrum.expression.value.Value;
 
@@ -9,14 +11,22 @@ import scrum.expression.value.Value;
 @Getter
 public class VariableExpression implements Expression, AssignExpression {
     private final String name;
+    // frames holding the variable, null if it is only looked up by name, see scrum.VariableResolver
+    @Setter
+    private LexicalAddress address;
 
     @Override
     public Value<?> evaluate() {
+        if (address != null)
+            return MemoryContext.getScope().get(name, address);
         return MemoryContext.getScope().get(name);
     }
 
     @Override
     public void assign(Value<?> value) {
-        MemoryContext.getScope().set(name, value);
+        if (address != null)
+            MemoryContext.getScope().set(name, value, address);
+        else
+            MemoryContext.getScope().set(name, value);
     }
 }
@@ -2,41 +2,66 @@ package scrum.expression.operator;
 
 import scrum.expression.Expression;
 import scrum.expression.value.ArrayValue;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.TextValue;
 import scrum.expression.value.Value;
 
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+public class AdditionOperator extends ArithmeticOperatorExpression {
+    // concatenation of two texts
+    private static final byte TEXT = 5;
+    // concatenation of two arrays
+    private static final byte ARRAY = 6;
 
-public class AdditionOperator extends BinaryOperatorExpression {
     public AdditionOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected byte specialize(Value<?> left, Value<?> right) {
+        if (left instanceof TextValue && right instanceof TextValue)
+            return TEXT;
+        if (left instanceof ArrayValue && right instanceof ArrayValue)
+            return ARRAY;
+        return super.specialize(left, right);
+    }
+
+    @Override
+    protected Value<?> evaluateSpecialized(byte specialization, Value<?> left, Value<?> right) {
+        if (specialization == TEXT && left instanceof TextValue textLeft && right instanceof TextValue textRight)
+            return new TextValue(textLeft.getValue().concat(textRight.getValue()));
+        if (specialization == ARRAY && left instanceof ArrayValue arrayLeft && right instanceof ArrayValue arrayRight)
+            return arrayLeft.concat(arrayRight);
+        return null;
+    }
+
+    @Override
+    protected double compute(double left, double right) {
+        return left + right;
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        try {
+            return IntegerValue.of(Math.addExact(left, right));
+        } catch (ArithmeticException e) {
+            // promoted to doubles on overflow
+            return evaluateNumeric(left, right);
+        }
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         if (left instanceof NumericValue && right instanceof NumericValue) {
-            return new NumericValue(((NumericValue) left).getValue() + ((NumericValue) right).getValue());
-        } else if (left instanceof ArrayValue || right instanceof ArrayValue) {
-            List<Value<?>> newArray;
-            if (left instanceof ArrayValue && right instanceof ArrayValue) {
-                newArray = Stream.concat(((ArrayValue) left).getValue().stream(), ((ArrayValue) right).getValue().stream())
-                        .collect(Collectors.toList());
-            } else if (left instanceof ArrayValue) {
-                newArray = Stream.concat(((ArrayValue) left).getValue().stream(), Stream.of(right))
-                        .collect(Collectors.toList());
-            } else {
-                newArray = Stream.concat(((ArrayValue) right).getValue().stream(), Stream.of(left))
-                        .collect(Collectors.toList());
-            }
-            return new ArrayValue(newArray);
+            return NumericValue.of(((NumericValue) left).doubleValue() + ((NumericValue) right).doubleValue());
+        } else if (left instanceof ArrayValue arrayLeft && right instanceof ArrayValue arrayRight) {
+            return arrayLeft.concat(arrayRight);
+        } else if (left instanceof ArrayValue arrayLeft) {
+            return arrayLeft.concatValue(right);
+        } else if (right instanceof ArrayValue arrayRight) {
+            return arrayRight.concatValue(left);
         } else {
             return new TextValue(left.toString() + right.toString());
         }
     }
 }
-
@@ -0,0 +1,46 @@
+package scrum.expression.operator;
+
+import scrum.expression.Expression;
+import scrum.expression.UnexpectedValueException;
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.Value;
+
+/**
+ * Operator computing a number from two numbers. Once specialized on numbers, a nested arithmetic expression is
+ * computed on primitive doubles and only its outermost result is boxed.
+ */
+public abstract class ArithmeticOperatorExpression extends SpecializingOperatorExpression {
+    public ArithmeticOperatorExpression(Expression left, Expression right) {
+        super(left, right);
+    }
+
+    @Override
+    public double evaluateDouble() {
+        if (getSpecialization() != NUMERIC)
+            return super.evaluateDouble();
+
+        double left;
+        try {
+            left = getLeft().evaluateDouble();
+        } catch (UnexpectedValueException e) {
+            return UnexpectedValueException.expectDouble(evaluate(e.getValue(), getRight().evaluate()));
+        }
+        double right;
+        try {
+            right = getRight().evaluateDouble();
+        } catch (UnexpectedValueException e) {
+            return UnexpectedValueException.expectDouble(evaluate(NumericValue.of(left), e.getValue()));
+        }
+        return compute(left, right);
+    }
+
+    @Override
+    protected final Value<?> evaluateNumeric(double left, double right) {
+        return NumericValue.of(compute(left, right));
+    }
+
+    /**
+     * Compute two numbers, as {@link #evaluateGeneric(Value, Value)} does
+     */
+    protected abstract double compute(double left, double right);
+}
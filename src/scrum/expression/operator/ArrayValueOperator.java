@@ -1,8 +1,12 @@
 package scrum.expression.operator;
 
+import scrum.exception.ExecutionException;
 import scrum.expression.AssignExpression;
 import scrum.expression.Expression;
+import scrum.expression.UnexpectedValueException;
 import scrum.expression.value.ArrayValue;
+import scrum.expression.value.IntegerValue;
+import scrum.expression.value.NumericValue;
 import scrum.expression.value.Value;
 
 public class ArrayValueOperator extends BinaryOperatorExpression implements AssignExpression {
@@ -14,18 +18,35 @@ public class ArrayValueOperator extends BinaryOperatorExpression implements Assi
     public Value<?> evaluate() {
         Value<?> left = getLeft().evaluate();
         if (left instanceof ArrayValue) {
-            Value<?> right = getRight().evaluate();
-            return ((ArrayValue) left).getValue(((Double) right.getValue()).intValue());
+            return ((ArrayValue) left).getValue(index());
         }
         return left;
     }
 
+    @Override
+    public double evaluateDouble() {
+        // an array of doubles is read without creating the value of the element
+        Value<?> left = getLeft().evaluate();
+        if (left instanceof ArrayValue array)
+            return array.getDouble(index());
+        return UnexpectedValueException.expectDouble(left);
+    }
+
     @Override
     public void assign(Value<?> value) {
         Value<?> left = getLeft().evaluate();
         if (left instanceof ArrayValue) {
-            Value<?> right = getRight().evaluate();
-            ((ArrayValue) left).setValue(((Double) right.getValue()).intValue(), value);
+            ((ArrayValue) left).setValue(index(), value);
         }
     }
+
+    private int index() {
+        Value<?> index = getRight().evaluate();
+        // the indexes beyond the range of an int are saturated as the doubles are, so they are out of the array
+        if (index instanceof IntegerValue integer)
+            return Math.clamp(integer.longValue(), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        if (index instanceof NumericValue number)
+            return (int) number.doubleValue();
+        throw new ExecutionException(String.format("Unable to index array with `%s`", index));
+    }
 }
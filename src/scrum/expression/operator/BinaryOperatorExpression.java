@@ -21,10 +21,12 @@ public abstract class BinaryOperatorExpression implements OperatorExpression {
         return ScrumRuntimeException.builder()
             .message(message)
             .impedimentCode(code)
-            .snippet(this.toString())
+            .snippet(ctx != null && ctx.getOffset() >= 0 ? ExecutionContext.getSourceSnippetAt(ctx.getOffset()) : this.toString())
             .epicName(ctx != null ? ctx.getEpicName() : null)
             .storyName(ctx != null ? ctx.getStoryName() : null)
             .fileName(ctx != null ? ctx.getFileName() : null)
+            .line(ctx != null ? ctx.getLine() : -1)
+            .column(ctx != null ? ctx.getColumn() : -1)
             .cause(cause)
             .build();
     }
@@ -5,16 +5,25 @@ import scrum.expression.Expression;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.Value;
 
-public class DivisionOperator extends BinaryOperatorExpression {
+public class DivisionOperator extends ArithmeticOperatorExpression {
     public DivisionOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
-        
+    protected double compute(double left, double right) {
+        if (right == 0) {
+            throw buildRuntimeException(
+                "Division by zero is not allowed",
+                ImpedimentCode.SCRUM_RUNTIME_ARITH_001,
+                null
+            );
+        }
+        return left / right;
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         if (!(left instanceof NumericValue && right instanceof NumericValue)) {
             throw buildRuntimeException(
                 String.format("Unable to divide non-numeric values `%s` and `%s`", left, right),
@@ -24,8 +33,8 @@ public class DivisionOperator extends BinaryOperatorExpression {
         }
         
         try {
-            double leftVal = ((NumericValue) left).getValue();
-            double rightVal = ((NumericValue) right).getValue();
+            double leftVal = ((NumericValue) left).doubleValue();
+            double rightVal = ((NumericValue) right).doubleValue();
             
             if (rightVal == 0) {
                 throw buildRuntimeException(
@@ -35,7 +44,7 @@ public class DivisionOperator extends BinaryOperatorExpression {
                 );
             }
             
-            return new NumericValue(leftVal / rightVal);
+            return NumericValue.of(leftVal / rightVal);
         } catch (ArithmeticException ex) {
             throw buildRuntimeException(
                 "Arithmetic error during division",
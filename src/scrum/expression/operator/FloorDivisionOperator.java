@@ -2,24 +2,36 @@ package scrum.expression.operator;
 
 import scrum.exception.ExecutionException;
 import scrum.expression.Expression;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.Value;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 
-public class FloorDivisionOperator extends BinaryOperatorExpression {
+public class FloorDivisionOperator extends ArithmeticOperatorExpression {
     public FloorDivisionOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected double compute(double left, double right) {
+        return Math.floor(left / right);
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        // a division by zero or the overflowing Long.MIN_VALUE // -1 are computed on doubles
+        if (right == 0 || (left == Long.MIN_VALUE && right == -1))
+            return evaluateNumeric(left, right);
+        return IntegerValue.of(Math.floorDiv(left, right));
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         if (left == NULL_INSTANCE || right == NULL_INSTANCE) {
             throw new ExecutionException(String.format("Unable to perform floor division for NULL values `%s`, '%s'", left, right));
         } else if (left instanceof NumericValue && right instanceof NumericValue) {
-            return new NumericValue(Math.floor(((NumericValue) left).getValue() / ((NumericValue) right).getValue()));
+            return NumericValue.of(Math.floor(((NumericValue) left).doubleValue() / ((NumericValue) right).doubleValue()));
         } else {
             throw new ExecutionException(String.format("Unable to divide non numeric values `%s` and `%s`", left, right));
         }
@@ -10,15 +10,23 @@ import java.util.Objects;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 
-public class LessThanOrEqualToOperator extends BinaryOperatorExpression {
+public class LessThanOrEqualToOperator extends SpecializingOperatorExpression {
     public LessThanOrEqualToOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected Value<?> evaluateNumeric(double left, double right) {
+        return LogicalValue.of(Double.compare(left, right) <= 0);
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        return LogicalValue.of(left <= right);
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         boolean result;
         if (left == NULL_INSTANCE || right == NULL_INSTANCE) {
             throw new ExecutionException(String.format("Unable to perform less than or equal to for NULL values `%s`, '%s'", left, right));
@@ -28,6 +36,6 @@ public class LessThanOrEqualToOperator extends BinaryOperatorExpression {
         } else {
             result = left.toString().compareTo(right.toString()) <= 0;
         }
-        return new LogicalValue(result);
+        return LogicalValue.of(result);
     }
 }
@@ -2,20 +2,32 @@ package scrum.expression.operator;
 
 import scrum.exception.ExecutionException;
 import scrum.expression.Expression;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.Value;
 
-public class ModuloOperator extends BinaryOperatorExpression {
+public class ModuloOperator extends ArithmeticOperatorExpression {
     public ModuloOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected double compute(double left, double right) {
+        return left % right;
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        // the remainder of a division by zero is not a number
+        if (right == 0)
+            return evaluateNumeric(left, right);
+        return IntegerValue.of(left % right);
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         if (left instanceof NumericValue && right instanceof NumericValue) {
-            return new NumericValue(((NumericValue) left).getValue() % ((NumericValue) right).getValue());
+            return NumericValue.of(((NumericValue) left).doubleValue() % ((NumericValue) right).doubleValue());
         } else {
             throw new ExecutionException(String.format("Unable to perform modulo for non numeric values `%s` and `%s`", left, right));
         }
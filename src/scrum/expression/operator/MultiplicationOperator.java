@@ -2,29 +2,43 @@ package scrum.expression.operator;
 
 import scrum.exception.ExecutionException;
 import scrum.expression.Expression;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.TextValue;
 import scrum.expression.value.Value;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 
-public class MultiplicationOperator extends BinaryOperatorExpression {
+public class MultiplicationOperator extends ArithmeticOperatorExpression {
     public MultiplicationOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected double compute(double left, double right) {
+        return left * right;
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        try {
+            return IntegerValue.of(Math.multiplyExact(left, right));
+        } catch (ArithmeticException e) {
+            // promoted to doubles on overflow
+            return evaluateNumeric(left, right);
+        }
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         if (left == NULL_INSTANCE || right == NULL_INSTANCE) {
             throw new ExecutionException(String.format("Unable to perform multiplication for NULL values `%s`, '%s'", left, right));
         } else if (left instanceof NumericValue && right instanceof NumericValue) {
-            return new NumericValue(((NumericValue) left).getValue() * ((NumericValue) right).getValue());
+            return NumericValue.of(((NumericValue) left).doubleValue() * ((NumericValue) right).doubleValue());
         } else if (left instanceof NumericValue) {
-            return new TextValue(right.toString().repeat(((NumericValue) left).getValue().intValue()));
+            return new TextValue(right.toString().repeat((int) ((NumericValue) left).doubleValue()));
         } else if (right instanceof NumericValue) {
-            return new TextValue(left.toString().repeat(((NumericValue) right).getValue().intValue()));
+            return new TextValue(left.toString().repeat((int) ((NumericValue) right).doubleValue()));
         } else {
             throw new ExecutionException(String.format("Unable to multiply non numeric values `%s` and `%s`", left, right));
         }
@@ -8,15 +8,23 @@ import java.util.Objects;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 
-public class NotEqualsOperator extends BinaryOperatorExpression {
+public class NotEqualsOperator extends SpecializingOperatorExpression {
     public NotEqualsOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected Value<?> evaluateNumeric(double left, double right) {
+        return LogicalValue.of(Double.compare(left, right) != 0);
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        return LogicalValue.of(left != right);
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         boolean result;
         if (left == NULL_INSTANCE || right == NULL_INSTANCE) {
             result = left != right;
@@ -25,6 +33,6 @@ public class NotEqualsOperator extends BinaryOperatorExpression {
         } else {
             result = !left.toString().equals(right.toString());
         }
-        return new LogicalValue(result);
+        return LogicalValue.of(result);
     }
 }
@@ -1,56 +1,109 @@
 package scrum.expression.operator;
 
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
+import scrum.expression.Expression;
+import scrum.token.TokenScanner;
+import scrum.token.TokenType;
 
 import java.util.Arrays;
-import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
-@RequiredArgsConstructor
-@Getter
+/**
+ * Operator table of the expressions. Binary operators are left-associative, operators of higher precedence bind
+ * tighter. Unary operators are prefix ones binding tighter than any binary operator.
+ */
 public enum Operator {
-    Not("NOT", NotOperator.class, 7),
-    ClassInstance("NEW", ClassInstanceOperator.class, 7),
-    ClassProperty("::", ClassPropertyOperator.class, 7),
-
-    Multiplication("*", MultiplicationOperator.class, 6),
-    Division("/", DivisionOperator.class, 6),
-    FloorDivision("//", FloorDivisionOperator.class, 6),
-    Modulo("%", ModuloOperator.class, 6),
-
-    Addition("+", AdditionOperator.class, 5),
-    Subtraction("-", SubtractionOperator.class, 5),
-    Equals("=", EqualsOperator.class, 4),
-    NotEquals("<>", NotEqualsOperator.class, 4),
-    LessThan("<", LessThanOperator.class, 4),
-    LessThanOrEqualTo("<=", LessThanOrEqualToOperator.class, 4),
-    GreaterThan(">", GreaterThanOperator.class, 4),
-    GreaterThanOrEqualTo(">=", GreaterThanOrEqualToOperator.class, 4),
+    Not("NOT", NotOperator::new, 7),
+    ClassInstance("NEW", ClassInstanceOperator::new, 7),
+    ClassProperty("::", ClassPropertyOperator::new, 7),
+
+    Multiplication("*", MultiplicationOperator::new, 6),
+    Division("/", DivisionOperator::new, 6),
+    FloorDivision("//", FloorDivisionOperator::new, 6),
+    Modulo("%", ModuloOperator::new, 6),
+
+    Addition("+", AdditionOperator::new, 5),
+    Subtraction("-", SubtractionOperator::new, 5),
+    Equals("=", EqualsOperator::new, 4),
+    NotEquals("<>", NotEqualsOperator::new, 4),
+    LessThan("<", LessThanOperator::new, 4),
+    LessThanOrEqualTo("<=", LessThanOrEqualToOperator::new, 4),
+    GreaterThan(">", GreaterThanOperator::new, 4),
+    GreaterThanOrEqualTo(">=", GreaterThanOrEqualToOperator::new, 4),
 
     LeftParen("(", 3),
     RightParen(")", 3),
 
-    LogicalAnd("AND", LogicalAndOperator.class, 2),
-    LogicalOr("OR", LogicalOrOperator.class, 1),
+    LogicalAnd("AND", LogicalAndOperator::new, 2),
+    LogicalOr("OR", LogicalOrOperator::new, 1),
+
+    ArrayAppend("ADDING", ArrayAppendOperator::new, 0),
+    Assignment("IS", AssignmentOperator::new, 0);
 
-    ArrayAppend("ADDING", ArrayAppendOperator.class, 0),
-    Assignment("IS", AssignmentOperator.class, 0);
+    // operators indexed by the interned id of their lexeme
+    private static final Operator[] BY_LEXEME_ID;
+
+    static {
+        Operator[] byLexemeId = new Operator[0];
+        for (Operator operator : values()) {
+            int lexemeId = TokenScanner.lexemeId(TokenType.Operator, operator.getCharacter());
+            if (lexemeId < 0)
+                continue;
+            if (lexemeId >= byLexemeId.length)
+                byLexemeId = Arrays.copyOf(byLexemeId, lexemeId + 1);
+            byLexemeId[lexemeId] = operator;
+        }
+        BY_LEXEME_ID = byLexemeId;
+    }
 
+    @Getter
     private final String character;
-    private final Class<? extends OperatorExpression> type;
-    private final Integer precedence;
+    private final BiFunction<Expression, Expression, OperatorExpression> binary;
+    private final Function<Expression, OperatorExpression> unary;
+    @Getter
+    private final int precedence;
+
+    Operator(String character, BiFunction<Expression, Expression, OperatorExpression> binary, int precedence) {
+        this(character, binary, null, precedence);
+    }
+
+    Operator(String character, Function<Expression, OperatorExpression> unary, int precedence) {
+        this(character, null, unary, precedence);
+    }
+
+    Operator(String character, int precedence) {
+        this(character, null, null, precedence);
+    }
+
+    Operator(String character, BiFunction<Expression, Expression, OperatorExpression> binary,
+             Function<Expression, OperatorExpression> unary, int precedence) {
+        this.character = character;
+        this.binary = binary;
+        this.unary = unary;
+        this.precedence = precedence;
+    }
+
+    /**
+     * @return the operator of the interned lexeme id of an operator token or null if it is not supported
+     */
+    public static Operator of(int lexemeId) {
+        return lexemeId >= 0 && lexemeId < BY_LEXEME_ID.length ? BY_LEXEME_ID[lexemeId] : null;
+    }
+
+    public boolean isBinary() {
+        return binary != null;
+    }
 
-    Operator(String character, Integer precedence) {
-        this(character, null, precedence);
+    public boolean isUnary() {
+        return unary != null;
     }
 
-    public static Operator getType(String character) {
-        return Arrays.stream(values())
-                .filter(t -> Objects.equals(t.getCharacter(), character))
-                .findAny().orElse(null);
+    public OperatorExpression apply(Expression left, Expression right) {
+        return binary.apply(left, right);
     }
 
-    public boolean greaterThan(Operator o) {
-        return getPrecedence().compareTo(o.getPrecedence()) >= 0;
+    public OperatorExpression apply(Expression value) {
+        return unary.apply(value);
     }
 }
@@ -0,0 +1,146 @@
+package scrum.expression.operator;
+
+import scrum.expression.Expression;
+import scrum.expression.UnexpectedValueException;
+import scrum.expression.value.IntegerValue;
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.Value;
+
+/**
+ * Binary operator specializing itself on the types of the operands it sees. The first evaluation picks a
+ * specialization for the operand types, e.g. {@link #INTEGER} for two integers or {@link #NUMERIC} for two doubles,
+ * which skips the type tests of the generic evaluation. When the operands of a later evaluation don't match it, the
+ * operator widens to {@link #MIXED} numbers of both kinds, or deoptimizes to the {@link #GENERIC} evaluation for good.
+ * While specialized on doubles, the operands are evaluated to primitive doubles, see
+ * {@link Expression#evaluateDouble()}.
+ * <p>
+ * Two integers are evaluated as integers whatever the specialization, so the kind of a result only depends on the
+ * kinds of the operands.
+ * <p>
+ * The specialization is a profile of the node and is not serialized. A race between threads evaluating a shared
+ * program only costs a deoptimization, as every specialization checks its operands.
+ */
+public abstract class SpecializingOperatorExpression extends BinaryOperatorExpression {
+    public static final byte UNINITIALIZED = 0;
+    public static final byte GENERIC = 1;
+    public static final byte NUMERIC = 2;
+    public static final byte INTEGER = 3;
+    public static final byte MIXED = 4;
+
+    private transient byte specialization;
+
+    public SpecializingOperatorExpression(Expression left, Expression right) {
+        super(left, right);
+    }
+
+    @Override
+    public final Value<?> evaluate() {
+        if (specialization != NUMERIC)
+            return evaluate(getLeft().evaluate(), getRight().evaluate());
+
+        // the operands are evaluated without boxing them while they are doubles
+        double left;
+        try {
+            left = getLeft().evaluateDouble();
+        } catch (UnexpectedValueException e) {
+            return evaluate(e.getValue(), getRight().evaluate());
+        }
+        double right;
+        try {
+            right = getRight().evaluateDouble();
+        } catch (UnexpectedValueException e) {
+            return evaluate(NumericValue.of(left), e.getValue());
+        }
+        return evaluateNumeric(left, right);
+    }
+
+    /**
+     * Evaluate the operator on operands already evaluated, e.g. by a compiled block
+     */
+    public final Value<?> evaluate(Value<?> left, Value<?> right) {
+        switch (specialization) {
+            case GENERIC:
+                if (left instanceof NumericValue numericLeft && right instanceof NumericValue numericRight)
+                    return evaluateNumbers(numericLeft, numericRight);
+                return evaluateGeneric(left, right);
+            case NUMERIC:
+                if (NumericValue.isDouble(left) && NumericValue.isDouble(right))
+                    return evaluateNumeric(((NumericValue) left).doubleValue(), ((NumericValue) right).doubleValue());
+                return widen(left, right);
+            case INTEGER:
+                if (left instanceof IntegerValue integerLeft && right instanceof IntegerValue integerRight)
+                    return evaluateInteger(integerLeft.longValue(), integerRight.longValue());
+                return widen(left, right);
+            case MIXED:
+                if (left instanceof NumericValue numericLeft && right instanceof NumericValue numericRight)
+                    return evaluateNumbers(numericLeft, numericRight);
+                break;
+            case UNINITIALIZED:
+                specialization = specialize(left, right);
+                return evaluate(left, right);
+            default:
+                Value<?> result = evaluateSpecialized(specialization, left, right);
+                if (result != null)
+                    return result;
+        }
+
+        // the operands don't match the specialization anymore
+        specialization = GENERIC;
+        return evaluate(left, right);
+    }
+
+    /**
+     * Widen a specialization on numbers of one kind to the numbers of both kinds
+     */
+    private Value<?> widen(Value<?> left, Value<?> right) {
+        specialization = left instanceof NumericValue && right instanceof NumericValue ? MIXED : GENERIC;
+        return evaluate(left, right);
+    }
+
+    private Value<?> evaluateNumbers(NumericValue left, NumericValue right) {
+        if (left instanceof IntegerValue integerLeft && right instanceof IntegerValue integerRight)
+            return evaluateInteger(integerLeft.longValue(), integerRight.longValue());
+        return evaluateNumeric(left.doubleValue(), right.doubleValue());
+    }
+
+    public byte getSpecialization() {
+        return specialization;
+    }
+
+    /**
+     * @return specialization for the types of the operands of the first evaluation
+     */
+    protected byte specialize(Value<?> left, Value<?> right) {
+        if (left instanceof IntegerValue && right instanceof IntegerValue)
+            return INTEGER;
+        if (NumericValue.isDouble(left) && NumericValue.isDouble(right))
+            return NUMERIC;
+        return left instanceof NumericValue && right instanceof NumericValue ? MIXED : GENERIC;
+    }
+
+    /**
+     * Evaluate a specialization of the subclass
+     *
+     * @return null if the operands don't match the specialization
+     */
+    protected Value<?> evaluateSpecialized(byte specialization, Value<?> left, Value<?> right) {
+        return null;
+    }
+
+    /**
+     * Evaluate two numbers, as {@link #evaluateGeneric(Value, Value)} does
+     */
+    protected abstract Value<?> evaluateNumeric(double left, double right);
+
+    /**
+     * Evaluate two integers, the operators with an exact result for the integers override it
+     */
+    protected Value<?> evaluateInteger(long left, long right) {
+        return evaluateNumeric(left, right);
+    }
+
+    /**
+     * Evaluate operands of any type
+     */
+    protected abstract Value<?> evaluateGeneric(Value<?> left, Value<?> right);
+}
@@ -2,25 +2,39 @@ package scrum.expression.operator;
 
 import scrum.exception.ExecutionException;
 import scrum.expression.Expression;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.TextValue;
 import scrum.expression.value.Value;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 
-public class SubtractionOperator extends BinaryOperatorExpression {
+public class SubtractionOperator extends ArithmeticOperatorExpression {
     public SubtractionOperator(Expression left, Expression right) {
         super(left, right);
     }
 
     @Override
-    public Value<?> evaluate() {
-        Value<?> left = getLeft().evaluate();
-        Value<?> right = getRight().evaluate();
+    protected double compute(double left, double right) {
+        return left - right;
+    }
+
+    @Override
+    protected Value<?> evaluateInteger(long left, long right) {
+        try {
+            return IntegerValue.of(Math.subtractExact(left, right));
+        } catch (ArithmeticException e) {
+            // promoted to doubles on overflow
+            return evaluateNumeric(left, right);
+        }
+    }
+
+    @Override
+    protected Value<?> evaluateGeneric(Value<?> left, Value<?> right) {
         if (left == NULL_INSTANCE || right == NULL_INSTANCE) {
             throw new ExecutionException(String.format("Unable to perform subtraction for NULL values `%s`, '%s'", left, right));
         } else if (left instanceof NumericValue && right instanceof NumericValue) {
-            return new NumericValue(((NumericValue) left).getValue() - ((NumericValue) right).getValue());
+            return NumericValue.of(((NumericValue) left).doubleValue() - ((NumericValue) right).doubleValue());
         } else {
             return new TextValue(left.toString().replaceAll(right.toString(), ""));
         }
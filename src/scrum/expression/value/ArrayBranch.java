@@ -0,0 +1,71 @@
+package scrum.expression.value;
+
+/**
+ * Inner node of the tree of an {@link ArrayElements}, the children are the subtrees of the same height. The children
+ * may hold fewer elements than a full subtree, so the node keeps the cumulated sizes of its children.
+ */
+final class ArrayBranch extends ArrayNode {
+    final ArrayNode[] children;
+    // number of elements held by the children up to each child included
+    final int[] sizes;
+    int count;
+
+    ArrayBranch(Owner owner) {
+        super(owner);
+        this.children = new ArrayNode[WIDTH];
+        this.sizes = new int[WIDTH];
+    }
+
+    private ArrayBranch(Owner owner, ArrayBranch branch) {
+        super(owner);
+        this.children = branch.children.clone();
+        this.sizes = branch.sizes.clone();
+        this.count = branch.count;
+    }
+
+    /**
+     * @return branch of the nodes, at most {@link #WIDTH} of them
+     */
+    static ArrayBranch of(Owner owner, ArrayNode[] nodes, int from, int to) {
+        ArrayBranch branch = new ArrayBranch(owner);
+        for (int i = from; i < to; i++)
+            branch.add(nodes[i]);
+        return branch;
+    }
+
+    @Override
+    int size() {
+        return count == 0 ? 0 : sizes[count - 1];
+    }
+
+    @Override
+    ArrayBranch copy(Owner owner) {
+        return new ArrayBranch(owner, this);
+    }
+
+    void add(ArrayNode child) {
+        children[count] = child;
+        sizes[count] = size() + child.size();
+        count++;
+    }
+
+    /**
+     * @param index  index of an element within the branch
+     * @param height height of the branch, its children are at most {@code WIDTH^height} elements
+     * @return child holding the element
+     */
+    int slot(int index, int height) {
+        // the children are at most full, so the element is not before the slot of a tree of full children
+        int slot = index >>> (BITS * height);
+        while (sizes[slot] <= index)
+            slot++;
+        return slot;
+    }
+
+    /**
+     * @return number of elements held by the children before the slot
+     */
+    int offset(int slot) {
+        return slot == 0 ? 0 : sizes[slot - 1];
+    }
+}
@@ -0,0 +1,300 @@
+package scrum.expression.value;
+
+import scrum.expression.UnexpectedValueException;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static scrum.expression.value.ArrayNode.WIDTH;
+
+/**
+ * Elements of an {@link ArrayValue}, held by a persistent tree of {@link ArrayLeaf leaves} of up to {@link
+ * ArrayNode#WIDTH} elements. A copy of the elements, see {@link #snapshot()}, shares the tree in O(1), the
+ * concatenation of two arrays shares both trees and only rebuilds the nodes along the boundary in O(log n).
+ * <p>
+ * The list updates its elements in place like a transient builder: the nodes it created are updated in place, the
+ * nodes shared with another list are copied first, along the path to the updated element. Sharing the tree hands the
+ * list a new {@link ArrayNode.Owner}, so neither list updates the shared nodes anymore.
+ */
+final class ArrayElements extends AbstractList<Value<?>> implements RandomAccess, Serializable {
+    private ArrayNode root;
+    // height of the root, the leaves are at height 0
+    private int height;
+    private int size;
+    private ArrayNode.Owner owner = new ArrayNode.Owner();
+    // capacity of the first leaf
+    private final int initialCapacity;
+    // leaf of the last element looked up and its range of indexes, the next elements are often read from it
+    private transient ArrayLeaf cachedLeaf;
+    private transient int cachedFrom;
+    private transient int cachedTo;
+
+    ArrayElements(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    ArrayElements(Collection<? extends Value<?>> values) {
+        this(values.size());
+        addAll(values);
+    }
+
+    private ArrayElements(ArrayNode root, int height, int size) {
+        this.root = root;
+        this.height = height;
+        this.size = size;
+        this.initialCapacity = 0;
+    }
+
+    /**
+     * @return copy of the elements sharing the tree of this list
+     */
+    ArrayElements snapshot() {
+        owner = new ArrayNode.Owner();
+        return new ArrayElements(root, height, size);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Value<?> get(int index) {
+        return leaf(index).get(index - cachedFrom);
+    }
+
+    /**
+     * Read an element without creating its value while the elements are doubles
+     *
+     * @throws UnexpectedValueException if the element is not a double
+     */
+    double getDouble(int index) {
+        return leaf(index).getDouble(index - cachedFrom);
+    }
+
+    /**
+     * @return leaf of the element, its first index is {@link #cachedFrom}
+     */
+    private ArrayLeaf leaf(int index) {
+        if (cachedLeaf != null && index >= cachedFrom && index < cachedTo)
+            return cachedLeaf;
+        Objects.checkIndex(index, size);
+        int from = index;
+        ArrayNode node = root;
+        for (int h = height; h > 0; h--) {
+            ArrayBranch branch = (ArrayBranch) node;
+            int slot = branch.slot(index, h);
+            index -= branch.offset(slot);
+            node = branch.children[slot];
+        }
+        return cache((ArrayLeaf) node, from - index);
+    }
+
+    private ArrayLeaf cache(ArrayLeaf leaf, int from) {
+        this.cachedLeaf = leaf;
+        this.cachedFrom = from;
+        this.cachedTo = from + leaf.size();
+        return leaf;
+    }
+
+    @Override
+    public Value<?> set(int index, Value<?> value) {
+        Value<?> previous = get(index);
+        store(index, value);
+        return previous;
+    }
+
+    /**
+     * Replace an element without reading the previous one
+     */
+    void store(int index, Value<?> value) {
+        if (cachedLeaf != null && cachedLeaf.owner == owner && index >= cachedFrom && index < cachedTo) {
+            cachedLeaf.store(index - cachedFrom, value);
+            return;
+        }
+        Objects.checkIndex(index, size);
+        int from = index;
+        ArrayNode node = root = editable(root);
+        for (int h = height; h > 0; h--) {
+            ArrayBranch branch = (ArrayBranch) node;
+            int slot = branch.slot(index, h);
+            index -= branch.offset(slot);
+            node = branch.children[slot] = editable(branch.children[slot]);
+        }
+        cache((ArrayLeaf) node, from - index).store(index, value);
+    }
+
+    @Override
+    public boolean add(Value<?> value) {
+        if (root == null)
+            root = new ArrayLeaf(owner, initialCapacity);
+        ArrayNode appended = append(root, height, value);
+        if (appended == null) {
+            // the tree is full, it is the first child of a new root
+            ArrayBranch branch = new ArrayBranch(owner);
+            branch.add(root);
+            branch.add(path(height, value));
+            appended = branch;
+            height++;
+        }
+        root = appended;
+        size++;
+        modCount++;
+        cachedLeaf = null;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Value<?>> c) {
+        if (!(c instanceof ArrayElements other))
+            return super.addAll(c);
+        if (other.size == 0)
+            return false;
+
+        // the tree of the other list is shared by both lists
+        other.owner = new ArrayNode.Owner();
+        if (size == 0) {
+            root = other.root;
+            height = other.height;
+        } else {
+            ArrayNode[] joined = join(root, height, other.root, other.height, height >= other.height);
+            height = Math.max(height, other.height);
+            if (joined.length == 1) {
+                root = joined[0];
+            } else {
+                root = ArrayBranch.of(owner, joined, 0, joined.length);
+                height++;
+            }
+        }
+        size += other.size;
+        modCount++;
+        cachedLeaf = null;
+        return true;
+    }
+
+    private ArrayNode editable(ArrayNode node) {
+        return node.owner == owner ? node : node.copy(owner);
+    }
+
+    /**
+     * Append an element to the last leaf of the subtree, or to a new path of its last branch with a free slot
+     *
+     * @return updated subtree, null if the subtree is full
+     */
+    private ArrayNode append(ArrayNode node, int height, Value<?> value) {
+        if (height == 0) {
+            if (node.size() == WIDTH)
+                return null;
+            ArrayLeaf leaf = (ArrayLeaf) editable(node);
+            leaf.add(value);
+            return leaf;
+        }
+
+        ArrayBranch branch = (ArrayBranch) node;
+        int last = branch.count - 1;
+        ArrayNode child = append(branch.children[last], height - 1, value);
+        if (child == null && branch.count == WIDTH)
+            return null;
+        branch = (ArrayBranch) editable(branch);
+        if (child == null) {
+            branch.add(path(height - 1, value));
+        } else {
+            branch.children[last] = child;
+            branch.sizes[last]++;
+        }
+        return branch;
+    }
+
+    /**
+     * @return subtree of the height holding the only element
+     */
+    private ArrayNode path(int height, Value<?> value) {
+        ArrayLeaf leaf = new ArrayLeaf(owner, WIDTH);
+        leaf.add(value);
+        ArrayNode node = leaf;
+        for (int h = 0; h < height; h++) {
+            ArrayBranch branch = new ArrayBranch(owner);
+            branch.add(node);
+            node = branch;
+        }
+        return node;
+    }
+
+    /**
+     * Join two subtrees, the shorter one is joined to the nearest spine of the higher one. The nodes along the
+     * boundary are rebuilt, the other ones are shared.
+     *
+     * @param leftFull fill the left node when the boundary nodes are packed into two nodes, so that the partly filled
+     *                 node is the one the next join on the same side packs again
+     * @return one or two subtrees of the height of the higher subtree
+     */
+    private ArrayNode[] join(ArrayNode left, int leftHeight, ArrayNode right, int rightHeight, boolean leftFull) {
+        if (leftHeight == 0 && rightHeight == 0)
+            return pack((ArrayLeaf) left, (ArrayLeaf) right, leftFull);
+
+        ArrayNode[] nodes = new ArrayNode[2 * WIDTH];
+        int count = 0;
+        if (leftHeight > rightHeight) {
+            ArrayBranch branch = (ArrayBranch) left;
+            ArrayNode[] joined = join(branch.children[branch.count - 1], leftHeight - 1, right, rightHeight, leftFull);
+            count = copy(branch.children, 0, branch.count - 1, nodes, count);
+            count = copy(joined, 0, joined.length, nodes, count);
+        } else if (leftHeight < rightHeight) {
+            ArrayBranch branch = (ArrayBranch) right;
+            ArrayNode[] joined = join(left, leftHeight, branch.children[0], rightHeight - 1, leftFull);
+            count = copy(joined, 0, joined.length, nodes, count);
+            count = copy(branch.children, 1, branch.count, nodes, count);
+        } else {
+            ArrayBranch leftBranch = (ArrayBranch) left;
+            ArrayBranch rightBranch = (ArrayBranch) right;
+            ArrayNode[] joined = join(leftBranch.children[leftBranch.count - 1], leftHeight - 1,
+                    rightBranch.children[0], rightHeight - 1, leftFull);
+            count = copy(leftBranch.children, 0, leftBranch.count - 1, nodes, count);
+            count = copy(joined, 0, joined.length, nodes, count);
+            count = copy(rightBranch.children, 1, rightBranch.count, nodes, count);
+        }
+
+        if (count <= WIDTH)
+            return new ArrayNode[]{ArrayBranch.of(owner, nodes, 0, count)};
+        int split = leftFull ? WIDTH : count - WIDTH;
+        return new ArrayNode[]{ArrayBranch.of(owner, nodes, 0, split), ArrayBranch.of(owner, nodes, split, count)};
+    }
+
+    private static int copy(ArrayNode[] source, int from, int to, ArrayNode[] target, int count) {
+        System.arraycopy(source, from, target, count, to - from);
+        return count + to - from;
+    }
+
+    /**
+     * @return one leaf of the elements of both leaves, or two leaves when they don't fit into one
+     */
+    private ArrayNode[] pack(ArrayLeaf left, ArrayLeaf right, boolean leftFull) {
+        int total = left.size() + right.size();
+        if (total <= WIDTH) {
+            ArrayLeaf leaf = new ArrayLeaf(owner, total);
+            leaf.addAll(left, 0, left.size());
+            leaf.addAll(right, 0, right.size());
+            return new ArrayNode[]{leaf};
+        }
+        // the full leaf is shared as is
+        if (leftFull ? left.size() == WIDTH : right.size() == WIDTH)
+            return new ArrayNode[]{left, right};
+
+        int split = leftFull ? WIDTH : total - WIDTH;
+        ArrayLeaf first = new ArrayLeaf(owner, split);
+        ArrayLeaf second = new ArrayLeaf(owner, total - split);
+        if (split <= left.size()) {
+            first.addAll(left, 0, split);
+            second.addAll(left, split, left.size());
+            second.addAll(right, 0, right.size());
+        } else {
+            first.addAll(left, 0, left.size());
+            first.addAll(right, 0, split - left.size());
+            second.addAll(right, split - left.size(), right.size());
+        }
+        return new ArrayNode[]{first, second};
+    }
+}
@@ -0,0 +1,210 @@
+package scrum.expression.value;
+
+import scrum.expression.UnexpectedValueException;
+
+import java.util.Arrays;
+
+/**
+ * Leaf of the tree of an {@link ArrayElements}, holding up to {@link #WIDTH} elements. While the elements are all
+ * integers, doubles, texts or logical values, they are held unboxed by an array of that kind, e.g. a {@code double[]},
+ * and the {@link Value} of an element is only created when it is read. Storing an element of another kind promotes the
+ * leaf to an array of values for good.
+ */
+final class ArrayLeaf extends ArrayNode {
+    private static final byte EMPTY = 0;
+    private static final byte INTEGERS = 1;
+    private static final byte DOUBLES = 2;
+    private static final byte TEXTS = 3;
+    private static final byte LOGICALS = 4;
+    private static final byte VALUES = 5;
+
+    private byte kind = EMPTY;
+    // only the array of the kind is allocated
+    private long[] integers;
+    private double[] doubles;
+    private String[] texts;
+    private boolean[] logicals;
+    private Value<?>[] values;
+    private int size;
+    // capacity to allocate once the kind is known
+    private final int initialCapacity;
+
+    ArrayLeaf(Owner owner, int initialCapacity) {
+        super(owner);
+        this.initialCapacity = Math.min(initialCapacity, WIDTH);
+    }
+
+    private ArrayLeaf(Owner owner, ArrayLeaf leaf) {
+        super(owner);
+        this.initialCapacity = leaf.initialCapacity;
+        this.kind = leaf.kind;
+        this.size = leaf.size;
+        switch (kind) {
+            case INTEGERS -> integers = leaf.integers.clone();
+            case DOUBLES -> doubles = leaf.doubles.clone();
+            case TEXTS -> texts = leaf.texts.clone();
+            case LOGICALS -> logicals = leaf.logicals.clone();
+            case VALUES -> values = leaf.values.clone();
+        }
+    }
+
+    /**
+     * @return kind of the array able to hold the value unboxed, only the exact classes are unboxed
+     */
+    private static byte kindOf(Value<?> value) {
+        if (value == null)
+            return VALUES;
+        Class<?> type = value.getClass();
+        if (type == IntegerValue.class)
+            return INTEGERS;
+        if (type == NumericValue.class)
+            return DOUBLES;
+        if (type == TextValue.class && value.getValue() != null)
+            return TEXTS;
+        if (type == LogicalValue.class && value.getValue() != null)
+            return LOGICALS;
+        return VALUES;
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    ArrayLeaf copy(Owner owner) {
+        return new ArrayLeaf(owner, this);
+    }
+
+    Value<?> get(int index) {
+        return switch (kind) {
+            case INTEGERS -> IntegerValue.of(integers[index]);
+            case DOUBLES -> NumericValue.of(doubles[index]);
+            case TEXTS -> new TextValue(texts[index]);
+            case LOGICALS -> LogicalValue.of(logicals[index]);
+            default -> values[index];
+        };
+    }
+
+    /**
+     * Read an element without creating its value while the elements are doubles
+     *
+     * @throws UnexpectedValueException if the element is not a double
+     */
+    double getDouble(int index) {
+        if (kind == DOUBLES)
+            return doubles[index];
+        if (kind == VALUES && NumericValue.isDouble(values[index]))
+            return ((NumericValue) values[index]).doubleValue();
+        // the element is not a double, e.g. an integer, the caller continues with its value
+        throw new UnexpectedValueException(get(index));
+    }
+
+    void store(int index, Value<?> value) {
+        if (kindOf(value) != kind)
+            promote();
+        put(index, value);
+    }
+
+    /**
+     * Append an element, the leaf holds less than {@link #WIDTH} elements
+     */
+    void add(Value<?> value) {
+        byte valueKind = kindOf(value);
+        if (kind == EMPTY)
+            allocate(valueKind);
+        else if (valueKind != kind)
+            promote();
+        if (size == capacity())
+            grow(Math.min(Math.max(size << 1, 4), WIDTH));
+        put(size++, value);
+    }
+
+    /**
+     * Append elements of another leaf, the elements of the same kind are copied unboxed
+     */
+    void addAll(ArrayLeaf leaf, int from, int to) {
+        if (from == to)
+            return;
+        if (kind == EMPTY && leaf.kind != EMPTY)
+            allocate(leaf.kind);
+        if (kind != leaf.kind) {
+            for (int i = from; i < to; i++)
+                add(leaf.get(i));
+            return;
+        }
+        if (size + to - from > capacity())
+            grow(Math.min(Math.max(size + to - from, initialCapacity), WIDTH));
+        System.arraycopy(leaf.array(), from, array(), size, to - from);
+        size += to - from;
+    }
+
+    private void put(int index, Value<?> value) {
+        switch (kind) {
+            case INTEGERS -> integers[index] = ((IntegerValue) value).longValue();
+            case DOUBLES -> doubles[index] = ((NumericValue) value).doubleValue();
+            case TEXTS -> texts[index] = ((TextValue) value).getValue();
+            case LOGICALS -> logicals[index] = ((LogicalValue) value).getValue();
+            default -> values[index] = value;
+        }
+    }
+
+    private void allocate(byte kind) {
+        this.kind = kind;
+        switch (kind) {
+            case INTEGERS -> integers = new long[initialCapacity];
+            case DOUBLES -> doubles = new double[initialCapacity];
+            case TEXTS -> texts = new String[initialCapacity];
+            case LOGICALS -> logicals = new boolean[initialCapacity];
+            default -> values = new Value<?>[initialCapacity];
+        }
+    }
+
+    /**
+     * Hold the elements as values, once they are not all of the same kind anymore
+     */
+    private void promote() {
+        if (kind == VALUES)
+            return;
+        Value<?>[] promoted = new Value<?>[capacity()];
+        for (int i = 0; i < size; i++)
+            promoted[i] = get(i);
+        integers = null;
+        doubles = null;
+        texts = null;
+        logicals = null;
+        kind = VALUES;
+        values = promoted;
+    }
+
+    private void grow(int capacity) {
+        switch (kind) {
+            case INTEGERS -> integers = Arrays.copyOf(integers, capacity);
+            case DOUBLES -> doubles = Arrays.copyOf(doubles, capacity);
+            case TEXTS -> texts = Arrays.copyOf(texts, capacity);
+            case LOGICALS -> logicals = Arrays.copyOf(logicals, capacity);
+            default -> values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private int capacity() {
+        return switch (kind) {
+            case INTEGERS -> integers.length;
+            case DOUBLES -> doubles.length;
+            case TEXTS -> texts.length;
+            case LOGICALS -> logicals.length;
+            case VALUES -> values.length;
+            default -> 0;
+        };
+    }
+
+    private Object array() {
+        return switch (kind) {
+            case INTEGERS -> integers;
+            case DOUBLES -> doubles;
+            case TEXTS -> texts;
+            case LOGICALS -> logicals;
+            default -> values;
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package scrum.expression.value;
+
+import java.io.Serializable;
+
+/**
+ * Node of the tree of an {@link ArrayElements}. The nodes are shared by the arrays copied or concatenated from each
+ * other, only the array holding the {@link Owner} of a node updates it in place, the other ones copy it first.
+ */
+abstract class ArrayNode implements Serializable {
+    static final int BITS = 5;
+    static final int WIDTH = 1 << BITS;
+
+    final Owner owner;
+
+    ArrayNode(Owner owner) {
+        this.owner = owner;
+    }
+
+    /**
+     * @return number of elements held by the node and its children
+     */
+    abstract int size();
+
+    /**
+     * @return copy of the node the owner can update in place
+     */
+    abstract ArrayNode copy(Owner owner);
+
+    /**
+     * Token of an array allowed to update the nodes it created, until they are shared with another array
+     */
+    static final class Owner implements Serializable {
+    }
+}
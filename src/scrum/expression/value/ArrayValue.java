@@ -2,39 +2,87 @@ package scrum.expression.value;
 
 import scrum.expression.ArrayExpression;
 import scrum.expression.Expression;
+import scrum.expression.UnexpectedValueException;
 
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import static scrum.expression.value.NullValue.NULL_INSTANCE;
 
+/**
+ * Backlog of values, its elements are held unboxed while they are of the same kind and are shared with the arrays
+ * concatenated from it, see {@link ArrayElements}. The array itself is updated in place, e.g. by the {@code ADDING}
+ * operator, and is passed by reference to the stories.
+ */
 public class ArrayValue extends IterableValue<List<Value<?>>> {
+    private final ArrayElements elements;
+
     public ArrayValue(ArrayExpression expression) {
-        this(expression.getValues()
-                .stream()
-                .map(Expression::evaluate)
-                .collect(Collectors.toList()));
+        this.elements = new ArrayElements(expression.getValues().size());
+        for (Expression value : expression.getValues())
+            elements.add(value.evaluate());
     }
 
+    /**
+     * @param values values copied into the new array
+     */
     public ArrayValue(List<Value<?>> values) {
-        super(values);
+        this(new ArrayElements(values));
+    }
+
+    private ArrayValue(ArrayElements elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public List<Value<?>> getValue() {
+        return elements;
     }
 
     public Value<?> getValue(int index) {
-        if (getValue().size() > index)
-            return getValue().get(index);
+        if (elements.size() > index)
+            return elements.get(index);
         return NULL_INSTANCE;
     }
 
+    /**
+     * Read an element as a primitive double, without creating its value while the elements are doubles
+     *
+     * @throws UnexpectedValueException if the element is not a double
+     */
+    public double getDouble(int index) {
+        if (elements.size() > index)
+            return elements.getDouble(index);
+        throw new UnexpectedValueException(NULL_INSTANCE);
+    }
+
     public void setValue(int index, Value<?> value) {
-        if (getValue().size() > index)
-            getValue().set(index, value);
+        if (elements.size() > index)
+            elements.store(index, value);
     }
 
     public void appendValue(Value<?> value) {
-        getValue().add(value);
+        elements.add(value);
+    }
+
+    /**
+     * @return new array of the elements of this array followed by the elements of the other one, both arrays share
+     * their elements with the new one
+     */
+    public ArrayValue concat(ArrayValue other) {
+        ArrayElements newElements = elements.snapshot();
+        newElements.addAll(other.elements);
+        return new ArrayValue(newElements);
+    }
+
+    /**
+     * @return new array of the elements of this array followed by the value
+     */
+    public ArrayValue concatValue(Value<?> value) {
+        ArrayElements newElements = elements.snapshot();
+        newElements.add(value);
+        return new ArrayValue(newElements);
     }
 
     @Override
@@ -42,13 +90,16 @@ public class ArrayValue extends IterableValue<List<Value<?>>> {
         if (this == o) return true;
         if (o == null) return false;
         if (getClass() != o.getClass()) return false;
-        //noinspection unchecked
-        List<Value<?>> oValue = (List<Value<?>>) o;
-        return new HashSet<>(getValue()).containsAll(oValue);
+        return new HashSet<>(elements).containsAll(((ArrayValue) o).elements);
+    }
+
+    @Override
+    public String toString() {
+        return elements.toString();
     }
 
     @Override
     public Iterator<Value<?>> iterator() {
-        return getValue().iterator();
+        return elements.iterator();
     }
 }
@@ -4,4 +4,7 @@ public class ComparableValue<T extends Comparable<T>> extends Value<T> {
     public ComparableValue(T value) {
         super(value);
     }
+
+    protected ComparableValue() {
+    }
 }
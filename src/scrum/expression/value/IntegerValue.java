@@ -0,0 +1,51 @@
+package scrum.expression.value;
+
+import scrum.expression.UnexpectedValueException;
+
+/**
+ * Integral number held exactly as a long. The integral literals, the counters and the integral input are integers,
+ * the arithmetic on two integers stays exact and is only promoted to doubles when it overflows or divides.
+ */
+public class IntegerValue extends NumericValue {
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final IntegerValue[] CACHE = new IntegerValue[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++)
+            CACHE[i] = new IntegerValue(i + CACHE_LOW);
+    }
+
+    private final long integer;
+
+    public IntegerValue(long integer) {
+        super(integer);
+        this.integer = integer;
+    }
+
+    /**
+     * @return a cached value for the small integers, a new value otherwise
+     */
+    public static IntegerValue of(long integer) {
+        if (integer >= CACHE_LOW && integer <= CACHE_HIGH)
+            return CACHE[(int) integer - CACHE_LOW];
+        return new IntegerValue(integer);
+    }
+
+    public long longValue() {
+        return integer;
+    }
+
+    /**
+     * An integer is not a double, the operators specialized on doubles evaluate it as a value
+     */
+    @Override
+    public double evaluateDouble() {
+        throw new UnexpectedValueException(this);
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(integer);
+    }
+}
@@ -4,4 +4,10 @@ public abstract class IterableValue<T> extends Value<T> implements Iterable<Valu
     public IterableValue(T value) {
         super(value);
     }
+
+    /**
+     * For the values computing their value when it is read
+     */
+    protected IterableValue() {
+    }
 }
@@ -1,7 +1,17 @@
 package scrum.expression.value;
 
 public class LogicalValue extends ComparableValue<Boolean> {
+    public static final LogicalValue TRUE = new LogicalValue(true);
+    public static final LogicalValue FALSE = new LogicalValue(false);
+
     public LogicalValue(Boolean value) {
         super(value);
     }
+
+    /**
+     * @return shared instance of the value, as values are immutable
+     */
+    public static LogicalValue of(boolean value) {
+        return value ? TRUE : FALSE;
+    }
 }
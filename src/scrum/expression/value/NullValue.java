@@ -14,6 +14,11 @@ public class NullValue<T extends Comparable<T>> extends ComparableValue<T> {
 		return (T) this;
 	}
 
+	// keep a single instance, it is compared by identity
+	private Object readResolve() {
+		return NULL_INSTANCE;
+	}
+
 	@Override
 	public String toString() {
 		return "null";
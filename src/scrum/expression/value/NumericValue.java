@@ -1,14 +1,77 @@
 package scrum.expression.value;
 
+/**
+ * Number held as a primitive double, it is only boxed when read as a {@link Value}. The integral numbers are held
+ * exactly by the {@link IntegerValue} subclass.
+ */
 public class NumericValue extends ComparableValue<Double> {
-    public NumericValue(Double value) {
-        super(value);
+    // integral values shared by the arithmetic, e.g. the counters and the indexes of the arrays
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final NumericValue[] CACHE = new NumericValue[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++)
+            CACHE[i] = new NumericValue(i + CACHE_LOW);
+    }
+
+    private final double number;
+
+    public NumericValue(double number) {
+        this.number = number;
+    }
+
+    /**
+     * @return a cached value for the small integral numbers, a new value otherwise
+     */
+    public static NumericValue of(double number) {
+        int integral = (int) number;
+        // -0.0 is kept apart from 0
+        if (integral == number && integral >= CACHE_LOW && integral <= CACHE_HIGH
+                && (integral != 0 || Double.doubleToRawLongBits(number) == 0L))
+            return CACHE[integral - CACHE_LOW];
+        return new NumericValue(number);
+    }
+
+    /**
+     * @return an integer for the integral numbers written without a decimal point, a double otherwise
+     */
+    public static NumericValue parse(String text) {
+        if (text.indexOf('.') < 0) {
+            try {
+                return IntegerValue.of(Long.parseLong(text));
+            } catch (NumberFormatException e) {
+                // too large for a long
+            }
+        }
+        return of(Double.parseDouble(text));
+    }
+
+    /**
+     * @return true if the value is a number held as a double, an {@link IntegerValue} is not
+     */
+    public static boolean isDouble(Value<?> value) {
+        return value instanceof NumericValue && !(value instanceof IntegerValue);
+    }
+
+    public double doubleValue() {
+        return number;
+    }
+
+    @Override
+    public Double getValue() {
+        return number;
+    }
+
+    @Override
+    public double evaluateDouble() {
+        return number;
     }
 
     @Override
     public String toString() {
-        if ((getValue() % 1) == 0)
-            return String.valueOf(getValue().intValue());
-        return super.toString();
+        if ((number % 1) == 0)
+            return String.valueOf((long) number);
+        return String.valueOf(number);
     }
 }
@@ -15,6 +15,11 @@ public class ThisValue extends Value<ClassValue> {
         return ClassInstanceContext.getValue();
     }
 
+    // keep a single instance when read from the parse cache
+    private Object readResolve() {
+        return THIS_INSTANCE;
+    }
+
     @Override
     public String toString() {
         return getValue().toString();
@@ -12,6 +12,13 @@ public class Value<T> implements Expression {
     @EqualsAndHashCode.Include
     private final T value;
 
+    /**
+     * For the values computing their value when it is read
+     */
+    protected Value() {
+        this.value = null;
+    }
+
     @Override
     public String toString() {
         return value.toString();
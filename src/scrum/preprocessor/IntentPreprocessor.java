@@ -11,7 +11,7 @@ import scrum.preprocessor.llm.RateLimitException;
 import scrum.statement.CompositeStatement;
 import scrum.statement.IntentBlockStatement;
 import scrum.statement.Statement;
-import scrum.token.Token;
+import scrum.token.TokenBuffer;
 
 import java.util.HashSet;
 import java.util.List;
@@ -167,7 +167,7 @@ public class IntentPreprocessor {
     private List<Statement> parseGeneratedCode(String code) throws SyntaxException {
         // Tokenize the generated code
         LexicalParser lexer = new LexicalParser(code);
-        List<Token> tokens = lexer.parse();
+        TokenBuffer tokens = lexer.tokenize();
         
         // Parse into statements
         CompositeStatement tempStatement = new CompositeStatement();
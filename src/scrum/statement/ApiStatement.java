@@ -7,11 +7,9 @@ package scrum.statement;
  */
 public class ApiStatement extends CompositeStatement {
     @Override
-    public void execute() {
-        // Execute child statements (endpoint registrations)
-        super.execute();
-        
+    public Completion execute() {
         // API is already registered in DefinitionScope by the parser
-        // Child endpoint statements are also executed during super.execute()
+        // Execute child statements (endpoint registrations)
+        return super.execute();
     }
 }
@@ -0,0 +1,31 @@
+package scrum.statement;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import scrum.expression.value.Value;
+
+/**
+ * Outcome of the execution of a statement, telling the enclosing statements whether to go on with the next statement.
+ * The blocks stop on any other outcome than {@link #NORMAL} and hand it over: the loops handle the BREAK and NEXT
+ * outcomes and the stories handle the RETURN ones with their answer.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Completion {
+    public enum Type {
+        NORMAL, RETURN, BREAK, NEXT
+    }
+
+    public static final Completion NORMAL = new Completion(Type.NORMAL, null);
+    public static final Completion BREAK = new Completion(Type.BREAK, null);
+    public static final Completion NEXT = new Completion(Type.NEXT, null);
+
+    private final Type type;
+    // answer of a RETURN outcome
+    private final Value<?> value;
+
+    public static Completion returning(Value<?> value) {
+        return new Completion(Type.RETURN, value);
+    }
+}
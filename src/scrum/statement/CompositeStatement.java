@@ -1,28 +1,90 @@
 package scrum.statement;
 
+import lombok.AccessLevel;
 import lombok.Getter;
-import scrum.context.ReturnContext;
+import lombok.Setter;
+import scrum.context.ExecutionContext;
+import scrum.context.FrameLayout;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 @Getter
 public class CompositeStatement implements Statement {
     private final List<Statement> statements2Execute = new ArrayList<>();
+    // source offset of each statement, -1 if unknown
+    @Getter(AccessLevel.NONE)
+    private int[] statementOffsets = new int[0];
+    // slots of the memory frame created for the statements, if they create one
+    @Setter
+    private FrameLayout frameLayout;
+    // bytecode executing the statements in place of this tree, set by another thread with the tiered compilation,
+    // see scrum.compiler.ScrumCompiler
+    @Setter
+    private transient volatile Statement compiled;
+    // executions counted by the tiered compilation, see scrum.compiler.TieredCompiler
+    @Getter(AccessLevel.NONE)
+    private transient int executions;
 
     public void addStatement(Statement statement) {
-        if (statement != null)
+        addStatement(statement, -1);
+    }
+
+    public void addStatement(Statement statement, int offset) {
+        if (statement != null) {
             statements2Execute.add(statement);
+            int index = statements2Execute.size() - 1;
+            if (index >= statementOffsets.length)
+                statementOffsets = Arrays.copyOf(statementOffsets, Math.max(4, statementOffsets.length * 2));
+            statementOffsets[index] = offset;
+        }
     }
 
     @Override
-    public void execute() {
-        for (Statement statement : statements2Execute) {
-            statement.execute();
+    public Completion execute() {
+        Statement compiled = this.compiled;
+        if (compiled != null)
+            return compiled.execute();
 
-            //stop the execution in case ReturnStatement has been invoked
-            if (ReturnContext.getScope().isInvoked())
-                return;
+        ExecutionContext.Context ctx = ExecutionContext.get();
+        int previousOffset = ctx != null ? ctx.getOffset() : -1;
+        Completion completion = Completion.NORMAL;
+        for (int i = 0; i < statements2Execute.size(); i++) {
+            trackStatement(ctx, i);
+            completion = statements2Execute.get(i).execute();
+
+            //stop the execution in case a RETURN, BREAK or NEXT statement has been invoked
+            if (completion != Completion.NORMAL)
+                break;
         }
+        if (ctx != null)
+            ctx.setOffset(previousOffset);
+        return completion;
+    }
+
+    /**
+     * Count an execution of the block, an invocation of a story or an iteration of a loop. The count is a profile, the
+     * increments lost by a race between threads don't matter.
+     *
+     * @return number of executions counted so far
+     */
+    public int countExecution() {
+        return ++executions;
+    }
+
+    /**
+     * @return source offset of the statement at the index, -1 if unknown
+     */
+    public int getStatementOffset(int index) {
+        return statementOffsets[index];
+    }
+
+    /**
+     * Point the execution context to the source position of the statement about to be executed
+     */
+    protected void trackStatement(ExecutionContext.Context ctx, int index) {
+        if (ctx != null && statementOffsets[index] >= 0)
+            ctx.setOffset(statementOffsets[index]);
     }
 }
@@ -24,24 +24,30 @@ public class ConditionStatement implements Statement {
     }
 
     @Override
-    public void execute() {
+    public Completion execute() {
         for (Map.Entry<Expression, CompositeStatement> entry : cases.entrySet()) {
 
             Expression condition = entry.getKey();
-            Value<?> value = condition.evaluate();
-            if (!(value instanceof LogicalValue)) {
-                throw new ExecutionException(String.format("Cannot compare non logical value `%s`", value));
-            }
-            if (((LogicalValue) value).getValue()) {
-                MemoryContext.pushScope(MemoryContext.newScope());
+            if (isTrue(condition.evaluate())) {
+                CompositeStatement statement = entry.getValue();
+                MemoryContext.pushFrame(statement.getFrameLayout());
                 try {
-                    CompositeStatement statement = entry.getValue();
-                    statement.execute();
+                    return statement.execute();
                 } finally {
-                    MemoryContext.endScope();
+                    MemoryContext.popFrame();
                 }
-                break;
             }
         }
+        return Completion.NORMAL;
+    }
+
+    /**
+     * @return whether the value of a case condition is true
+     */
+    public static boolean isTrue(Value<?> value) {
+        if (!(value instanceof LogicalValue)) {
+            throw new ExecutionException(String.format("Cannot compare non logical value `%s`", value));
+        }
+        return ((LogicalValue) value).getValue();
     }
 }
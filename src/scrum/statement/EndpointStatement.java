@@ -19,7 +19,7 @@ public class EndpointStatement implements Statement {
     private final String returnType;
 
     @Override
-    public void execute() {
+    public Completion execute() {
         // Endpoint execution is declarative - metadata is stored in EndpointDefinition
         // The endpoint is registered as part of the API definition
         // Actual HTTP request handling would be implemented in a future phase
@@ -27,5 +27,6 @@ public class EndpointStatement implements Statement {
         
         // For now, we silently register the endpoint (no output)
         // This allows API definitions to be parsed and stored without side effects
+        return Completion.NORMAL;
     }
 }
@@ -28,8 +28,8 @@ public class ExecutableEndpointStatement extends CompositeStatement {
     }
 
     @Override
-    public void execute() {
+    public Completion execute() {
         // Execute the endpoint handler logic (statements in the endpoint body)
-        super.execute();
+        return super.execute();
     }
 }
@@ -10,7 +10,8 @@ public class ExpressionStatement implements Statement {
     private final Expression expression;
 
     @Override
-    public void execute() {
+    public Completion execute() {
         expression.evaluate();
+        return Completion.NORMAL;
     }
 }
@@ -1,4 +1,66 @@
 package scrum.statement;
 
+import scrum.context.FrameLayout;
+
+import java.util.List;
+
+/**
+ * Body of a USER STORY. In lazy parsing mode the body is only parsed when the story is first invoked.
+ */
 public class FunctionStatement extends CompositeStatement {
+    // parser of the body not parsed yet, dropped once the body is parsed
+    private transient Runnable bodyParser;
+
+    /**
+     * Defer the parsing of the body until it is first executed or read
+     */
+    public void setBodyParser(Runnable bodyParser) {
+        this.bodyParser = bodyParser;
+    }
+
+    /**
+     * @return whether the parsing of the body is still deferred, such a body holds no #INTENT block
+     */
+    public boolean isDeferred() {
+        return bodyParser != null;
+    }
+
+    @Override
+    public FrameLayout getFrameLayout() {
+        parseBody();
+        return super.getFrameLayout();
+    }
+
+    @Override
+    public List<Statement> getStatements2Execute() {
+        parseBody();
+        return super.getStatements2Execute();
+    }
+
+    @Override
+    public Completion execute() {
+        parseBody();
+        return super.execute();
+    }
+
+    private void parseBody() {
+        if (bodyParser != null) {
+            Runnable parser = bodyParser;
+            bodyParser = null;
+            try {
+                parser.run();
+            } catch (RuntimeException e) {
+                // parse it again on the next invocation, the error is reported again
+                super.getStatements2Execute().clear();
+                bodyParser = parser;
+                throw e;
+            }
+        }
+    }
+
+    private Object writeReplace() {
+        // the tokens of a deferred body are not serialized, it is parsed before its statements are written
+        parseBody();
+        return this;
+    }
 }
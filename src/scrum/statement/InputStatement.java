@@ -1,5 +1,6 @@
 package scrum.statement;
 
+import scrum.context.Interpreter;
 import scrum.context.MemoryContext;
 import scrum.expression.value.LogicalValue;
 import scrum.expression.value.NumericValue;
@@ -7,17 +8,16 @@ import scrum.expression.value.TextValue;
 import scrum.expression.value.Value;
 import scrum.token.TokenType;
 
-import java.util.function.Supplier;
-
-public record InputStatement(String name, Supplier<String> consoleSupplier) implements Statement {
+public record InputStatement(String name) implements Statement {
     @Override
-    public void execute() {
-        System.out.printf("Enter \"%s\" >>> ", name.replace("_", " "));
-        String line = consoleSupplier.get();
+    public Completion execute() {
+        Interpreter interpreter = Interpreter.current();
+        interpreter.getOutput().printf("Enter \"%s\" >>> ", name.replace("_", " "));
+        String line = interpreter.getInput().get();
 
         Value<?> value;
         if (line.matches(TokenType.Numeric.getRegex())) {
-            value = new NumericValue(Double.parseDouble(line));
+            value = NumericValue.parse(line);
         } else if (line.matches(TokenType.Logical.getRegex())) {
             value = new LogicalValue(Boolean.valueOf(line));
         } else {
@@ -25,5 +25,6 @@ public record InputStatement(String name, Supplier<String> consoleSupplier) impl
         }
 
         MemoryContext.getScope().set(name, value);
+        return Completion.NORMAL;
     }
 }
@@ -34,7 +34,7 @@ public class IntentBlockStatement extends CompositeStatement {
     }
     
     @Override
-    public void execute() {
+    public Completion execute() {
         if (!generated) {
             throw new RuntimeException(
                 "Intent block was not processed by preprocessor. " +
@@ -44,6 +44,6 @@ public class IntentBlockStatement extends CompositeStatement {
         }
         
         // Execute the generated child statements
-        super.execute();
+        return super.execute();
     }
 }
@@ -2,7 +2,6 @@ package scrum.statement;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import scrum.context.ReturnContext;
 import scrum.expression.Expression;
 import scrum.expression.value.Value;
 
@@ -12,8 +11,8 @@ public class ReturnStatement implements Statement {
     private final Expression expression;
 
     @Override
-    public void execute() {
+    public Completion execute() {
         Value<?> result = expression.evaluate();
-        ReturnContext.getScope().invoke(result);
+        return Completion.returning(result);
     }
 }
@@ -1,12 +1,14 @@
 package scrum.statement;
 
+import scrum.context.Interpreter;
 import scrum.expression.Expression;
 import scrum.expression.value.Value;
 
 public record SayStatement(Expression expression) implements Statement {
     @Override
-    public void execute() {
+    public Completion execute() {
         Value<?> value = expression.evaluate();
-        System.out.println(value);
+        Interpreter.current().getOutput().println(value);
+        return Completion.NORMAL;
     }
 }
@@ -1,5 +1,13 @@
 package scrum.statement;
 
-public interface Statement {
-    void execute();
+import java.io.Serializable;
+
+/**
+ * Statements are serializable so that parsed programs can be cached, see {@link scrum.ParseCache}
+ */
+public interface Statement extends Serializable {
+    /**
+     * @return {@link Completion#NORMAL} unless a RETURN, BREAK or NEXT statement has been executed
+     */
+    Completion execute();
 }
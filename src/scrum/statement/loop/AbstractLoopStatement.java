@@ -1,13 +1,24 @@
 package scrum.statement.loop;
 
-import scrum.context.BreakContext;
+import lombok.Getter;
+import lombok.Setter;
+import scrum.compiler.TieredCompiler;
+import scrum.context.ExecutionContext;
+import scrum.context.FrameLayout;
 import scrum.context.MemoryContext;
-import scrum.context.NextContext;
-import scrum.context.ReturnContext;
+import scrum.context.MemoryScope;
+import scrum.statement.Completion;
 import scrum.statement.CompositeStatement;
 import scrum.statement.Statement;
 
+import java.util.List;
+
 public abstract class AbstractLoopStatement extends CompositeStatement {
+    // slots of the memory frame of the counter variables, the inner statements use getFrameLayout()
+    @Getter
+    @Setter
+    private FrameLayout counterFrameLayout;
+
     protected abstract void init();
 
     protected abstract boolean hasNext();
@@ -17,50 +28,97 @@ public abstract class AbstractLoopStatement extends CompositeStatement {
     protected abstract void postIncrement();
 
     @Override
-    public void execute() {
+    public Completion execute() {
         // memory scope for counter variables
-        MemoryContext.pushScope(MemoryContext.newScope());
+        MemoryContext.pushFrame(counterFrameLayout);
+        Iterations iterations = new Iterations(ExecutionContext.get());
         try {
+            return iterate(iterations);
+        } finally {
+            iterations.release();
+            MemoryContext.popFrame(); // release loop memory
+        }
+    }
 
-            // init loop
-            init();
-
-            while (hasNext()) {
-                preIncrement();
-
-                // isolated memory scope for each iteration
-                MemoryContext.pushScope(MemoryContext.newScope());
-
-                try {
+    /**
+     * Iterate while {@link #hasNext()}, within the memory scope of the counter variables
+     */
+    protected Completion iterate(Iterations iterations) {
+        // init loop
+        init();
+
+        while (hasNext()) {
+            preIncrement();
+
+            Completion completion;
+            try {
+                completion = iterations.execute();
+            } finally {
+                // increment the counter even if the NextStatement has been called
+                postIncrement();
+            }
 
-                    // execute inner statements
-                    for (Statement statement : getStatements2Execute()) {
-                        statement.execute();
+            // a RETURN statement leaves the enclosing story too, a BREAK statement only the loop
+            if (completion.getType() == Completion.Type.RETURN)
+                return completion;
+            if (completion == Completion.BREAK)
+                break;
+        }
+        return Completion.NORMAL;
+    }
 
-                        // stop the execution in case ReturnStatement has been invoked
-                        if (ReturnContext.getScope().isInvoked())
-                            return;
+    /**
+     * Iterations of an execution of the loop, each iteration executes the inner statements in an isolated memory
+     * scope. The same frame is emptied for the next iterations.
+     */
+    protected final class Iterations {
+        private final ExecutionContext.Context ctx;
+        private final int loopOffset;
+        private final List<Statement> statements = getStatements2Execute();
+        private MemoryScope iteration;
+
+        private Iterations(ExecutionContext.Context ctx) {
+            this.ctx = ctx;
+            this.loopOffset = ctx != null ? ctx.getOffset() : -1;
+        }
 
-                        // stop the execution in case BreakStatement has been invoked
-                        if (BreakContext.getScope().isInvoked())
-                            return;
+        /**
+         * Execute the inner statements once, the iteration stops on a RETURN, BREAK or NEXT statement
+         */
+        public Completion execute() {
+            if (iteration == null) {
+                iteration = MemoryContext.pushFrame(getFrameLayout());
+            } else {
+                iteration.reset();
+                MemoryContext.pushScope(iteration);
+            }
 
-                        // jump to the next iteration in case NextStatement has been invoked
-                        if (NextContext.getScope().isInvoked())
+            Completion completion = Completion.NORMAL;
+            try {
+                // the body compiled meanwhile by the tiered compilation is picked up by the next iteration
+                Statement compiled = getCompiled();
+                if (compiled != null) {
+                    completion = compiled.execute();
+                } else {
+                    for (int i = 0; i < statements.size(); i++) {
+                        trackStatement(ctx, i);
+                        completion = statements.get(i).execute();
+                        if (completion != Completion.NORMAL)
                             break;
                     }
-                } finally {
-                    NextContext.reset();
-                    MemoryContext.endScope(); // release each iteration memory
-
-                    // increment the counter even if the NextStatement has been called
-                    postIncrement();
                 }
-
+            } finally {
+                MemoryContext.endScope(); // release each iteration memory
+                if (ctx != null)
+                    ctx.setOffset(loopOffset);
             }
-        } finally {
-            MemoryContext.endScope(); // release loop memory
-            BreakContext.reset();
+            TieredCompiler.iterated(AbstractLoopStatement.this);
+            return completion;
+        }
+
+        private void release() {
+            if (iteration != null)
+                MemoryContext.releaseFrame(iteration);
         }
     }
 }
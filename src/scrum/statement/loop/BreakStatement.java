@@ -1,11 +1,11 @@
 package scrum.statement.loop;
 
-import scrum.context.BreakContext;
+import scrum.statement.Completion;
 import scrum.statement.Statement;
 
 public class BreakStatement implements Statement {
     @Override
-    public void execute() {
-        BreakContext.getScope().invoke();
+    public Completion execute() {
+        return Completion.BREAK;
     }
 }
@@ -1,22 +1,34 @@
 package scrum.statement.loop;
 
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import scrum.context.MemoryContext;
+import lombok.Setter;
 import scrum.expression.Expression;
 import scrum.expression.VariableExpression;
 import scrum.expression.operator.AdditionOperator;
 import scrum.expression.operator.LessThanOperator;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.LogicalValue;
-import scrum.expression.value.NumericValue;
 import scrum.expression.value.Value;
+import scrum.statement.Completion;
 
 @RequiredArgsConstructor
+@Getter
 public class ForLoopStatement extends AbstractLoopStatement {
     private final VariableExpression variable;
     private final Expression lowerBound;
     private final Expression uppedBound;
     private final Expression step;
-    private static final Expression DEFAULT_STEP = new NumericValue(1.0);
+    private static final Expression DEFAULT_STEP = IntegerValue.of(1);
+    // operators of the loop, built once so that they keep their specialization
+    @Getter(AccessLevel.NONE)
+    private transient LessThanOperator hasNext;
+    @Getter(AccessLevel.NONE)
+    private transient AdditionOperator stepOperator;
+    // false once the resolver knows that neither the statements nor the bounds of the loop assign the counter
+    @Setter
+    private boolean counterAssigned = true;
 
     public ForLoopStatement(VariableExpression variable, Expression lowerBound, Expression uppedBound) {
         this(variable, lowerBound, uppedBound, DEFAULT_STEP);
@@ -24,14 +36,12 @@ public class ForLoopStatement extends AbstractLoopStatement {
 
     @Override
     protected void init() {
-        MemoryContext.getScope().set(variable.getName(), lowerBound.evaluate());
+        variable.assign(lowerBound.evaluate());
     }
 
     @Override
     protected boolean hasNext() {
-        LessThanOperator hasNext = new LessThanOperator(variable, uppedBound);
-        Value<?> value = hasNext.evaluate();
-        return value instanceof LogicalValue && ((LogicalValue) value).getValue();
+        return hasNext(variable.evaluate());
     }
 
     @Override
@@ -40,7 +50,125 @@ public class ForLoopStatement extends AbstractLoopStatement {
 
     @Override
     protected void postIncrement() {
-        AdditionOperator stepOperator = new AdditionOperator(variable, step);
-        MemoryContext.getScope().set(variable.getName(), stepOperator.evaluate());
+        increment(variable.evaluate(), step.evaluate());
+    }
+
+    /**
+     * Counted iterations: the counter is passed from an iteration to the next one instead of being read back for the
+     * condition, and while it is an integer it is counted on a long and only written to the variable. The counter is
+     * read back after the statements only when they may assign it, see {@link #counterAssigned}, so a counter
+     * reassigned by them is incremented from the assigned value as the generic iterations do.
+     */
+    @Override
+    protected Completion iterate(Iterations iterations) {
+        Value<?> counter = lowerBound.evaluate();
+        variable.assign(counter);
+        if (counter instanceof IntegerValue integer) {
+            Completion completion = count(integer.longValue(), iterations);
+            if (completion != null)
+                return completion;
+            // the counter is not an integer anymore
+            counter = variable.evaluate();
+        }
+
+        while (hasNext(counter)) {
+            Completion completion;
+            try {
+                completion = iterations.execute();
+            } finally {
+                // increment the counter even if the NextStatement has been called
+                counter = increment(counterAssigned ? variable.evaluate() : counter, step.evaluate());
+            }
+
+            // a RETURN statement leaves the enclosing story too, a BREAK statement only the loop
+            if (completion.getType() == Completion.Type.RETURN)
+                return completion;
+            if (completion == Completion.BREAK)
+                break;
+        }
+        return Completion.NORMAL;
+    }
+
+    /**
+     * Iterate while the counter is an integer
+     *
+     * @return null once the next counter is not an integer, the variable then holds it
+     */
+    private Completion count(long count, Iterations iterations) {
+        while (hasNext(count)) {
+            Completion completion;
+            Value<?> counter = null;
+            try {
+                completion = iterations.execute();
+            } finally {
+                // increment the counter even if the NextStatement has been called
+                if (counterAssigned) {
+                    Value<?> assigned = variable.evaluate();
+                    if (assigned instanceof IntegerValue integer)
+                        count = integer.longValue();
+                    else
+                        counter = assigned;
+                }
+                Value<?> step = this.step.evaluate();
+                if (counter == null && step instanceof IntegerValue integerStep
+                        && !overflows(count, integerStep.longValue())) {
+                    count += integerStep.longValue();
+                    variable.assign(IntegerValue.of(count));
+                } else {
+                    counter = increment(counter != null ? counter : IntegerValue.of(count), step);
+                }
+            }
+
+            // a RETURN statement leaves the enclosing story too, a BREAK statement only the loop
+            if (completion.getType() == Completion.Type.RETURN)
+                return completion;
+            if (completion == Completion.BREAK)
+                break;
+            if (counter != null)
+                return null;
+        }
+        return Completion.NORMAL;
+    }
+
+    private boolean hasNext(long count) {
+        Value<?> bound = uppedBound.evaluate();
+        if (bound instanceof IntegerValue integerBound)
+            return count < integerBound.longValue();
+        return isLess(IntegerValue.of(count), bound);
+    }
+
+    private boolean hasNext(Value<?> counter) {
+        Value<?> bound = uppedBound.evaluate();
+        if (counter instanceof IntegerValue integer && bound instanceof IntegerValue integerBound)
+            return integer.longValue() < integerBound.longValue();
+        return isLess(counter, bound);
+    }
+
+    private boolean isLess(Value<?> counter, Value<?> bound) {
+        LessThanOperator operator = hasNext;
+        if (operator == null)
+            hasNext = operator = new LessThanOperator(variable, uppedBound);
+        Value<?> value = operator.evaluate(counter, bound);
+        return value instanceof LogicalValue && ((LogicalValue) value).getValue();
+    }
+
+    /**
+     * @return true if the sum of the integers overflows a long, the overflowing counters are added by the operator
+     */
+    private static boolean overflows(long left, long right) {
+        long sum = left + right;
+        return ((left ^ sum) & (right ^ sum)) < 0;
+    }
+
+    /**
+     * @return the counter of the next iteration, assigned to the variable
+     */
+    private Value<?> increment(Value<?> counter, Value<?> step) {
+        AdditionOperator operator = stepOperator;
+        if (operator == null)
+            stepOperator = operator = new AdditionOperator(variable, this.step);
+        Value<?> next = operator.evaluate(counter, step);
+        variable.assign(next);
+        return next;
     }
 }
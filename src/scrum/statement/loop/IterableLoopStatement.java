@@ -1,41 +1,66 @@
 package scrum.statement.loop;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import scrum.context.MemoryContext;
 import scrum.exception.ExecutionException;
 import scrum.expression.Expression;
 import scrum.expression.VariableExpression;
 import scrum.expression.value.IterableValue;
 import scrum.expression.value.Value;
+import scrum.statement.Completion;
 
 import java.util.Iterator;
 
 @RequiredArgsConstructor
 public class IterableLoopStatement extends AbstractLoopStatement {
+    @Getter
     private final VariableExpression variableExpression;
+    @Getter
     private final Expression iterableExpression;
 
-    private Iterator<Value<?>> iterator;
-
+    /**
+     * Iterate over the elements with an iterator of the execution, so that the executions of a program shared by
+     * threads, or of a story recursing within its loop, don't share it
+     */
     @Override
-    protected void init() {
+    protected Completion iterate(Iterations iterations) {
         Value<?> value = iterableExpression.evaluate();
         if (!(value instanceof IterableValue))
             throw new ExecutionException(String.format("Unable to loop non IterableValue `%s`", value));
-        this.iterator = ((IterableValue<?>) value).iterator();
+        Iterator<Value<?>> iterator = ((IterableValue<?>) value).iterator();
+
+        while (iterator.hasNext()) {
+            variableExpression.assign(iterator.next());
+
+            // a RETURN statement leaves the enclosing story too, a BREAK statement only the loop
+            Completion completion = iterations.execute();
+            if (completion.getType() == Completion.Type.RETURN)
+                return completion;
+            if (completion == Completion.BREAK)
+                break;
+        }
+        return Completion.NORMAL;
+    }
+
+    // the iterator is held by iterate(), the steps of the generic iterations are not used
+
+    @Override
+    protected void init() {
+        throw new UnsupportedOperationException();
     }
 
     @Override
     protected boolean hasNext() {
-        return iterator.hasNext();
+        throw new UnsupportedOperationException();
     }
 
     @Override
     protected void preIncrement() {
-        MemoryContext.getScope().set(variableExpression.getName(), iterator.next());
+        throw new UnsupportedOperationException();
     }
 
     @Override
     protected void postIncrement() {
+        throw new UnsupportedOperationException();
     }
 }
@@ -1,11 +1,11 @@
 package scrum.statement.loop;
 
-import scrum.context.NextContext;
+import scrum.statement.Completion;
 import scrum.statement.Statement;
 
 public class NextStatement implements Statement {
     @Override
-    public void execute() {
-        NextContext.getScope().invoke();
+    public Completion execute() {
+        return Completion.NEXT;
     }
 }
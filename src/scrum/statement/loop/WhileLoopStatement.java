@@ -1,11 +1,13 @@
 package scrum.statement.loop;
 
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import scrum.expression.Expression;
 import scrum.expression.value.LogicalValue;
 import scrum.expression.value.Value;
 
 @RequiredArgsConstructor
+@Getter
 public class WhileLoopStatement extends AbstractLoopStatement {
     private final Expression hasNext;
 
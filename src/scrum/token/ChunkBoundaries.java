@@ -0,0 +1,117 @@
+package scrum.token;
+
+/**
+ * Follows the lexer through a source to find the line breaks it can be cut at into chunks lexed independently: the
+ * ones which are not inside a text literal, a comment or an `#INTENT` block. Every token then lies entirely within
+ * one chunk and a chunk always starts at the beginning of a line.
+ * <p>
+ * The source may be fed in several parts, the state is kept between them.
+ *
+ * @see TokenStream
+ * @see TokenScanner#scanInParallel(SourceMap, int)
+ */
+class ChunkBoundaries {
+    private static final String INTENT_START = Keyword.INTENT.getLexeme();
+    private static final String INTENT_END = Keyword.END_INTENT.getLexeme();
+    private static final String[] COMMENTS = {"#REVIEW", "#SPRINTGOAL"};
+    // longest marker starting with `#`
+    private static final int MARKER_LENGTH = INTENT_END.length();
+
+    @FunctionalInterface
+    interface LineBreakListener {
+        /**
+         * @param index index of the `\n` character
+         * @param safe  whether the source can be cut right after it
+         */
+        void lineBreak(int index, boolean safe);
+    }
+
+    private enum State {
+        CODE,
+        COMMENT,
+        TEXT,
+        INTENT
+    }
+
+    private State state = State.CODE;
+
+    /**
+     * Classify the characters of the text between the given positions, reporting every line break to the listener.
+     * Unless the end of the input is reached, markers starting with `#` are only classified once enough characters
+     * follow them to tell them apart.
+     *
+     * @return position the classification stopped at, to be resumed from once more characters are available
+     */
+    int classify(CharSequence text, int from, int to, boolean endOfInput, LineBreakListener listener) {
+        int position = from;
+        while (position < to) {
+            char ch = text.charAt(position);
+            switch (state) {
+                case CODE:
+                    if (ch == '"') {
+                        state = State.TEXT;
+                    } else if (ch == '#') {
+                        if (!endOfInput && position + MARKER_LENGTH > to)
+                            return position;
+                        if (startsWith(text, to, INTENT_START, position)) {
+                            state = State.INTENT;
+                            position += INTENT_START.length();
+                            continue;
+                        }
+                        if (isComment(text, to, position))
+                            state = State.COMMENT;
+                    } else if (ch == '\n') {
+                        listener.lineBreak(position, true);
+                    }
+                    break;
+                case COMMENT:
+                    if (ch == '\n') {
+                        state = State.CODE;
+                        listener.lineBreak(position, true);
+                    } else if (ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029') {
+                        state = State.CODE;
+                    }
+                    break;
+                case TEXT:
+                    if (ch == '"')
+                        state = State.CODE;
+                    else if (ch == '\n')
+                        listener.lineBreak(position, false);
+                    break;
+                case INTENT:
+                    if (ch == '#') {
+                        if (!endOfInput && position + MARKER_LENGTH > to)
+                            return position;
+                        if (startsWith(text, to, INTENT_END, position)) {
+                            state = State.CODE;
+                            position += INTENT_END.length();
+                            continue;
+                        }
+                    } else if (ch == '\n') {
+                        listener.lineBreak(position, false);
+                    }
+                    break;
+            }
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isComment(CharSequence text, int to, int position) {
+        for (String comment : COMMENTS) {
+            if (startsWith(text, to, comment, position))
+                return true;
+        }
+        return false;
+    }
+
+    private static boolean startsWith(CharSequence text, int to, String prefix, int position) {
+        if (position + prefix.length() > to)
+            return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (text.charAt(position + i) != prefix.charAt(i))
+                return false;
+        }
+        return true;
+    }
+}
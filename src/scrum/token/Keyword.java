@@ -0,0 +1,72 @@
+package scrum.token;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keywords and group dividers of the language. The lexer resolves every such lexeme to its constant once, so the
+ * parser decides by identity instead of comparing strings.
+ * <p>
+ * The ordinal of a constant is also its interned lexeme id in the {@link TokenBuffer}.
+ */
+@RequiredArgsConstructor
+@Getter
+public enum Keyword {
+    INTENT("#INTENT", TokenType.Keyword),
+    END_INTENT("#END INTENT", TokenType.Keyword),
+    DEFINE("I WANT TO DEFINE", TokenType.Keyword),
+    END_OF_API("END OF API", TokenType.Keyword),
+    END_OF_ENDPOINT("END OF ENDPOINT", TokenType.Keyword),
+    END_WHEN("END WHEN", TokenType.Keyword),
+    EPIC("EPIC", TokenType.Keyword),
+    END_OF_EPIC("END OF EPIC", TokenType.Keyword),
+    USER_STORY("USER STORY", TokenType.Keyword),
+    END_OF_STORY("END OF STORY", TokenType.Keyword),
+    ASK("ASK", TokenType.Keyword),
+    SAY("SAY", TokenType.Keyword),
+    IF("IF", TokenType.Keyword),
+    ELSE("ELSE", TokenType.Keyword),
+    ELSEIF("ELSEIF", TokenType.Keyword),
+    END_IF("END IF", TokenType.Keyword),
+    END_OF_ITERATION("END OF ITERATION", TokenType.Keyword),
+    END("end", TokenType.Keyword),
+    SCENARIO("scenario", TokenType.Keyword),
+    RETURN_ANSWER("RETURN ANSWER", TokenType.Keyword),
+    ITERATE("I WANT TO ITERATE", TokenType.Keyword),
+    FOR_RANGE("FOR RANGE", TokenType.Keyword),
+    BY("by", TokenType.Keyword),
+    BREAK("break", TokenType.Keyword),
+    NEXT("next", TokenType.Keyword),
+    API("API", TokenType.Keyword),
+    ENDPOINT("ENDPOINT", TokenType.Keyword),
+    BASE("BASE", TokenType.Keyword),
+    METHOD("METHOD", TokenType.Keyword),
+    PATH("PATH", TokenType.Keyword),
+    QUERY_PARAMS("QUERY_PARAMS", TokenType.Keyword),
+    RETURNS("RETURNS", TokenType.Keyword),
+    ARE("ARE", TokenType.Keyword),
+    WHEN("WHEN", TokenType.Keyword),
+    REQUEST("REQUEST", TokenType.Keyword),
+    RESPOND("RESPOND", TokenType.Keyword),
+    WITH("WITH", TokenType.Keyword),
+
+    USING("USING [", TokenType.GroupDivider),
+    TILL("TILL", TokenType.GroupDivider),
+    CLOSE_BRACKET("]", TokenType.GroupDivider),
+    COMMA(",", TokenType.GroupDivider),
+    OPEN_BRACE("{", TokenType.GroupDivider),
+    CLOSE_BRACE("}", TokenType.GroupDivider),
+    RANGE("..", TokenType.GroupDivider);
+
+    private static final Keyword[] VALUES = values();
+
+    private final String lexeme;
+    private final TokenType type;
+
+    /**
+     * @return the keyword with the given lexeme id or null if the id belongs to another lexeme
+     */
+    public static Keyword of(int lexemeId) {
+        return lexemeId >= 0 && lexemeId < VALUES.length ? VALUES[lexemeId] : null;
+    }
+}
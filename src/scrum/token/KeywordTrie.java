@@ -0,0 +1,119 @@
+package scrum.token;
+
+/**
+ * Prefix tree over the fixed lexemes of the language (keywords, group dividers, logical literals,
+ * null/this and operators), including the multi-word ones like `END OF STORY`, `I WANT TO ITERATE`
+ * or `USING [`. A single walk from a source position finds the best lexeme starting there.
+ *
+ * @see TokenScanner
+ */
+public class KeywordTrie {
+    /**
+     * What has to follow a lexeme for it to be accepted, mirroring the lookaheads of the {@link TokenType} patterns
+     */
+    public enum Boundary {
+        NONE,
+        WHITESPACE,
+        WHITESPACE_OR_COMMA
+    }
+
+    private static final int ALPHABET = 128;
+
+    private final Node root = new Node();
+    private int size;
+
+    /**
+     * @return id of the added lexeme, ids are dense and given in the order of addition
+     */
+    public int add(String lexeme, TokenType type, Boundary boundary) {
+        Node node = root;
+        for (int i = 0; i < lexeme.length(); i++) {
+            char ch = lexeme.charAt(i);
+            if (ch >= ALPHABET)
+                throw new IllegalArgumentException(String.format("Lexeme `%s` is not ASCII", lexeme));
+            if (node.children[ch] == null)
+                node.children[ch] = new Node();
+            node = node.children[ch];
+        }
+        node.lexeme = lexeme;
+        node.type = type;
+        node.boundary = boundary;
+        node.id = size++;
+        return node.id;
+    }
+
+    /**
+     * @return the node of exactly the given lexeme or null if it was not added
+     */
+    public Node find(String lexeme) {
+        Node node = root;
+        for (int i = 0; i < lexeme.length() && node != null; i++) {
+            char ch = lexeme.charAt(i);
+            node = ch < ALPHABET ? node.children[ch] : null;
+        }
+        return node != null && node.lexeme != null ? node : null;
+    }
+
+    /**
+     * @return number of added lexemes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the lexeme starting at the given position. When several lexemes match, the one with the lowest
+     * {@link TokenType} ordinal wins and, within the same type, the longest one.
+     *
+     * @return the terminal node of the matched lexeme or null if none matches
+     */
+    public Node match(CharSequence source, int position) {
+        Node best = null;
+        Node node = root;
+        int length = source.length();
+        for (int i = position; i < length; i++) {
+            char ch = source.charAt(i);
+            if (ch >= ALPHABET || (node = node.children[ch]) == null)
+                break;
+            if (node.lexeme != null && isBoundary(source, i + 1, node.boundary)
+                    && (best == null || node.type.ordinal() <= best.type.ordinal()))
+                best = node;
+        }
+        return best;
+    }
+
+    private static boolean isBoundary(CharSequence source, int position, Boundary boundary) {
+        if (boundary == Boundary.NONE)
+            return true;
+        int length = source.length();
+        if (position == length)
+            return true;
+        char ch = source.charAt(position);
+        if (ch == ' ' || ch == '\t' || ch == '\n' || ch == '\u000B' || ch == '\f' || ch == '\r')
+            return true;
+        if (ch == ',' && boundary == Boundary.WHITESPACE_OR_COMMA)
+            return true;
+        // `$` also matches right before a line terminator that ends the input
+        return position == length - 1 && (ch == '\u0085' || ch == '\u2028' || ch == '\u2029');
+    }
+
+    public static class Node {
+        private final Node[] children = new Node[ALPHABET];
+        private String lexeme;
+        private TokenType type;
+        private Boundary boundary;
+        private int id;
+
+        public String getLexeme() {
+            return lexeme;
+        }
+
+        public TokenType getType() {
+            return type;
+        }
+
+        public int getId() {
+            return id;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package scrum.token;
+
+import lombok.Getter;
+
+/**
+ * Maps offsets of a source file to lines and columns.
+ * <p>
+ * Built once per source: the start offset of every line is kept in an int array, so finding the line of an offset
+ * is a binary search and extracting a line is a constant time lookup. Lines and columns are counted from 1.
+ * <p>
+ * A source read as a stream keeps only the line starts, see {@link TokenStream}; the text of its lines is then not
+ * available.
+ */
+public class SourceMap {
+    @Getter
+    private final String source;
+    private final int[] lineStarts;
+    @Getter
+    private final int lineCount;
+    private final int length;
+
+    public SourceMap(String source) {
+        this.source = source;
+        this.length = source.length();
+
+        int count = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n')
+                count++;
+        }
+
+        this.lineStarts = new int[count];
+        this.lineCount = count;
+        int line = 1;
+        for (int i = 0; i < source.length(); i++) {
+            if (source.charAt(i) == '\n')
+                lineStarts[line++] = i + 1;
+        }
+    }
+
+    SourceMap(int[] lineStarts, int lineCount, int length) {
+        this.source = null;
+        this.lineStarts = lineStarts;
+        this.lineCount = lineCount;
+        this.length = length;
+    }
+
+    /**
+     * @return offset of the first character of the line
+     */
+    public int getLineStart(int line) {
+        return lineStarts[line - 1];
+    }
+
+    /**
+     * @return offset right after the last character of the line, excluding the line break
+     */
+    public int getLineEnd(int line) {
+        return line < lineCount ? lineStarts[line] - 1 : length;
+    }
+
+    /**
+     * @return line containing the offset
+     */
+    public int getLine(int offset) {
+        int low = 0;
+        int high = lineCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (lineStarts[middle] <= offset)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low + 1;
+    }
+
+    /**
+     * @return column of the offset within its line
+     */
+    public int getColumn(int offset) {
+        return offset - lineStarts[getLine(offset) - 1] + 1;
+    }
+
+    /**
+     * @return column of the offset within the given line
+     */
+    public int getColumn(int line, int offset) {
+        return offset - lineStarts[line - 1] + 1;
+    }
+
+    /**
+     * @return text of the line without the line break or null if there is no such line or the text is not kept
+     */
+    public String getLineText(int line) {
+        if (source == null || line < 1 || line > lineCount)
+            return null;
+        return source.substring(getLineStart(line), getLineEnd(line));
+    }
+}
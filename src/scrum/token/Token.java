@@ -9,7 +9,11 @@ import lombok.ToString;
 @ToString
 public class Token {
     private final TokenType type;
+    // resolved for keywords and group dividers only
+    private final Keyword keyword;
     private final String value;
     private final Integer row;
+    private final Integer column;
+    private final Integer offset;
 }
 
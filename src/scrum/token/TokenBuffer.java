@@ -0,0 +1,313 @@
+package scrum.token;
+
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Compact storage of the tokens of a source.
+ * <p>
+ * Instead of one {@link Token} object per lexeme the buffer keeps the {@link TokenType} ordinal, the interned id of
+ * fixed lexemes (see {@link TokenScanner#lexemeId(TokenType, String)}), the start and end offsets of the lexeme and its row in
+ * parallel int arrays. Values are sliced from the source only when they are asked for, so scanning allocates
+ * nothing per token apart from the occasional growth of the arrays.
+ * <p>
+ * A buffer may hold only a chunk of a larger source, see {@link TokenStream}. Rows and offsets are then shifted by
+ * the position of the chunk in the whole source.
+ * <p>
+ * {@link #asList()} exposes the buffer as a {@code List<Token>} building the tokens on access.
+ */
+public class TokenBuffer {
+    private static final TokenType[] TYPES = TokenType.values();
+    // marks text literals whose value is the lexeme without the surrounding double quotes
+    private static final int QUOTED = 1 << 8;
+    private static final int TYPE_MASK = QUOTED - 1;
+    private static final int INSIGNIFICANT = TokenType.mask(TokenType.LineBreak, TokenType.Comment);
+
+    @Getter
+    private final String source;
+    @Getter
+    private final SourceMap sourceMap;
+    // number of rows and characters of the whole source preceding this buffer
+    private final int rowBase;
+    private final int offsetBase;
+    private int[] types;
+    private int[] lexemes;
+    private int[] starts;
+    private int[] ends;
+    private int[] rows;
+    private int size;
+    // index of the first token at or after a given index which is neither a line break nor a comment
+    private int[] significant;
+
+    public TokenBuffer(SourceMap sourceMap) {
+        this(sourceMap.getSource(), sourceMap, 0, 0);
+    }
+
+    TokenBuffer(SourceMap sourceMap, int capacity) {
+        this(sourceMap.getSource(), sourceMap, 0, 0, capacity);
+    }
+
+    /**
+     * Buffer of a chunk of a larger source starting at the given row and offset of the whole source
+     */
+    public TokenBuffer(SourceMap sourceMap, int firstRow, int firstOffset) {
+        this(sourceMap.getSource(), sourceMap, firstRow - 1, firstOffset);
+    }
+
+    private TokenBuffer(String source, SourceMap sourceMap, int rowBase, int offsetBase) {
+        this(source, sourceMap, rowBase, offsetBase, source.length() / 4);
+    }
+
+    private TokenBuffer(String source, SourceMap sourceMap, int rowBase, int offsetBase, int capacity) {
+        this.source = source;
+        this.sourceMap = sourceMap;
+        this.rowBase = rowBase;
+        this.offsetBase = offsetBase;
+        capacity = Math.max(16, capacity);
+        this.types = new int[capacity];
+        this.lexemes = new int[capacity];
+        this.starts = new int[capacity];
+        this.ends = new int[capacity];
+        this.rows = new int[capacity];
+    }
+
+    /**
+     * Build a buffer holding the given tokens. Lists returned by {@link #asList()} are unwrapped, any other list
+     * is copied into a buffer over a synthetic source made of the token values.
+     */
+    public static TokenBuffer of(List<Token> tokens) {
+        if (tokens instanceof TokenList)
+            return ((TokenList) tokens).buffer;
+
+        StringBuilder source = new StringBuilder();
+        int[] bounds = new int[tokens.size() * 2];
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            boolean quoted = token.getType() == TokenType.Text;
+            bounds[2 * i] = source.length();
+            if (quoted)
+                source.append('"');
+            source.append(token.getValue());
+            if (quoted)
+                source.append('"');
+            bounds[2 * i + 1] = source.length();
+        }
+
+        TokenBuffer buffer = new TokenBuffer(source.toString(), null, 0, 0);
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            int row = token.getRow() != null ? token.getRow() : -1;
+            if (token.getType() == TokenType.Text)
+                buffer.addQuoted(bounds[2 * i], bounds[2 * i + 1], row);
+            else
+                buffer.add(token.getType(), TokenScanner.lexemeId(token.getType(), token.getValue()), bounds[2 * i], bounds[2 * i + 1], row);
+        }
+        return buffer;
+    }
+
+    /**
+     * Add a token whose value is the source between the start and end offsets. Offsets and row are relative to
+     * the source of the buffer.
+     */
+    public void add(TokenType type, int start, int end, int row) {
+        append(type.ordinal(), -1, start, end, row);
+    }
+
+    /**
+     * Add a fixed lexeme with its interned id
+     */
+    public void add(TokenType type, int lexeme, int start, int end, int row) {
+        append(type.ordinal(), lexeme, start, end, row);
+    }
+
+    /**
+     * Add a text literal, the start and end offsets include the double quotes which are not part of the value
+     */
+    public void addQuoted(int start, int end, int row) {
+        append(TokenType.Text.ordinal() | QUOTED, -1, start, end, row);
+    }
+
+    private void append(int type, int lexeme, int start, int end, int row) {
+        ensureCapacity(size + 1);
+        types[size] = type;
+        lexemes[size] = lexeme;
+        starts[size] = start;
+        ends[size] = end;
+        rows[size] = row;
+        size++;
+        significant = null;
+    }
+
+    /**
+     * Append all the tokens of another buffer over the same source
+     */
+    public void append(TokenBuffer other) {
+        if (other.source != source || other.rowBase != rowBase || other.offsetBase != offsetBase)
+            throw new IllegalArgumentException("Tokens of another source can't be appended");
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.lexemes, 0, lexemes, size, other.size);
+        System.arraycopy(other.starts, 0, starts, size, other.size);
+        System.arraycopy(other.ends, 0, ends, size, other.size);
+        System.arraycopy(other.rows, 0, rows, size, other.size);
+        size += other.size;
+        significant = null;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > types.length) {
+            capacity = Math.max(capacity, types.length * 2);
+            types = Arrays.copyOf(types, capacity);
+            lexemes = Arrays.copyOf(lexemes, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public TokenType getType(int index) {
+        return TYPES[types[index] & TYPE_MASK];
+    }
+
+    public boolean isType(int index, TokenType type) {
+        return (types[index] & TYPE_MASK) == type.ordinal();
+    }
+
+    /**
+     * @return whether the token type is in the mask built with {@link TokenType#mask(TokenType...)}
+     */
+    public boolean isType(int index, int typeMask) {
+        return (typeMask & (1 << (types[index] & TYPE_MASK))) != 0;
+    }
+
+    /**
+     * @return interned id of the fixed lexeme or -1 for literals and variables
+     */
+    public int getLexemeId(int index) {
+        return lexemes[index];
+    }
+
+    /**
+     * @return the keyword or group divider of the token or null for any other token
+     */
+    public Keyword getKeyword(int index) {
+        return Keyword.of(lexemes[index]);
+    }
+
+    /**
+     * @return index of the first token at or after the given one which is neither a line break nor a comment,
+     * or {@link #size()} if there is none
+     */
+    public int nextSignificant(int index) {
+        if (significant == null) {
+            int[] next = new int[size + 1];
+            next[size] = size;
+            for (int i = size - 1; i >= 0; i--)
+                next[i] = isType(i, INSIGNIFICANT) ? next[i + 1] : i;
+            significant = next;
+        }
+        return significant[index];
+    }
+
+    /**
+     * @return offset of the first character of the lexeme in the whole source
+     */
+    public int getStart(int index) {
+        return offsetBase + starts[index];
+    }
+
+    /**
+     * @return offset right after the last character of the lexeme in the whole source
+     */
+    public int getEnd(int index) {
+        return offsetBase + ends[index];
+    }
+
+    public int getRow(int index) {
+        return rowBase + rows[index];
+    }
+
+    /**
+     * @return column of the lexeme or -1 if the buffer is not backed by a real source
+     */
+    public int getColumn(int index) {
+        return sourceMap != null ? sourceMap.getColumn(rows[index], starts[index]) : -1;
+    }
+
+    /**
+     * @return trimmed text of the line of the token or null if the buffer is not backed by a real source
+     */
+    public String getLineText(int index) {
+        String text = sourceMap != null ? sourceMap.getLineText(rows[index]) : null;
+        return text != null ? text.trim() : null;
+    }
+
+    public String getValue(int index) {
+        return source.substring(valueStart(index), valueEnd(index));
+    }
+
+    /**
+     * Compare the token value without slicing it from the source
+     */
+    public boolean valueEquals(int index, String value) {
+        if (value == null)
+            return false;
+        int start = valueStart(index);
+        int length = valueEnd(index) - start;
+        return length == value.length() && source.regionMatches(start, value, 0, length);
+    }
+
+    /**
+     * Build the {@link Token} at the given index
+     */
+    public Token getToken(int index) {
+        return Token.builder()
+                .type(getType(index))
+                .keyword(getKeyword(index))
+                .value(getValue(index))
+                .row(getRow(index))
+                .column(sourceMap != null ? getColumn(index) : null)
+                .offset(sourceMap != null ? getStart(index) : null)
+                .build();
+    }
+
+    public List<Token> asList() {
+        return new TokenList(this);
+    }
+
+    private int valueStart(int index) {
+        return (types[index] & QUOTED) != 0 ? starts[index] + 1 : starts[index];
+    }
+
+    private int valueEnd(int index) {
+        return (types[index] & QUOTED) != 0 ? ends[index] - 1 : ends[index];
+    }
+
+    private static class TokenList extends AbstractList<Token> implements RandomAccess {
+        private final TokenBuffer buffer;
+
+        private TokenList(TokenBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Token get(int index) {
+            if (index < 0 || index >= buffer.size)
+                throw new IndexOutOfBoundsException(index);
+            return buffer.getToken(index);
+        }
+
+        @Override
+        public int size() {
+            return buffer.size;
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package scrum.token;
+
+import scrum.context.ExecutionContext;
+import scrum.context.Interpreter;
+import scrum.exception.TokenException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Single pass scanner turning SCRUM source code into tokens.
+ * <p>
+ * Each character is classified through a lookup table and the fixed lexemes are resolved with a {@link KeywordTrie},
+ * so every character of the source is visited a constant number of times. The produced tokens are identical to
+ * the ones described by the {@link TokenType} patterns.
+ */
+public class TokenScanner {
+    private static final String INTENT_START = Keyword.INTENT.getLexeme();
+    private static final String INTENT_END = Keyword.END_INTENT.getLexeme();
+    private static final String[] COMMENTS = {"#REVIEW", "#SPRINTGOAL"};
+
+    private static final String[] LOGICALS = {"true", "false"};
+    private static final String[] OPERATORS = {"+", "-", "*", "/", "//", "%", ">=", ">", "<=", "<", "<<", "=", "==",
+            "IS", "ISS", "!=", "!", "::", "(", ")"};
+    private static final String[] OPERATOR_WORDS = {"NEW", "AND", "OR"};
+
+    private static final byte SPACE = 1;
+    private static final byte LINE_BREAK = 1 << 1;
+    private static final byte DIGIT = 1 << 2;
+    private static final byte LETTER = 1 << 3;
+    private static final byte[] CHAR_CLASSES = new byte[128];
+    private static final KeywordTrie LEXEMES = new KeywordTrie();
+
+    static {
+        for (char ch : new char[]{' ', '\t', '\u000B', '\f'})
+            CHAR_CLASSES[ch] = SPACE;
+        CHAR_CLASSES['\n'] = LINE_BREAK;
+        CHAR_CLASSES['\r'] = LINE_BREAK;
+        for (char ch = '0'; ch <= '9'; ch++)
+            CHAR_CLASSES[ch] = DIGIT;
+        for (char ch = 'a'; ch <= 'z'; ch++)
+            CHAR_CLASSES[ch] = LETTER;
+        for (char ch = 'A'; ch <= 'Z'; ch++)
+            CHAR_CLASSES[ch] = LETTER;
+        CHAR_CLASSES['_'] = LETTER;
+
+        // keywords are added first so that their lexeme ids are the Keyword ordinals
+        for (Keyword keyword : Keyword.values()) {
+            KeywordTrie.Boundary boundary = keyword.getType() == TokenType.Keyword
+                    ? KeywordTrie.Boundary.WHITESPACE : KeywordTrie.Boundary.NONE;
+            LEXEMES.add(keyword.getLexeme(), keyword.getType(), boundary);
+        }
+        for (String logical : LOGICALS)
+            LEXEMES.add(logical, TokenType.Logical, KeywordTrie.Boundary.WHITESPACE);
+        LEXEMES.add("null", TokenType.Null, KeywordTrie.Boundary.WHITESPACE_OR_COMMA);
+        LEXEMES.add("this", TokenType.This, KeywordTrie.Boundary.WHITESPACE_OR_COMMA);
+        for (String operator : OPERATORS)
+            LEXEMES.add(operator, TokenType.Operator, KeywordTrie.Boundary.NONE);
+        for (String operator : OPERATOR_WORDS)
+            LEXEMES.add(operator, TokenType.Operator, KeywordTrie.Boundary.WHITESPACE);
+    }
+
+    /**
+     * Interned id of a fixed lexeme of the language (keyword, group divider, operator...), as stored in the
+     * {@link TokenBuffer}. The ids of keywords and group dividers are the {@link Keyword} ordinals.
+     *
+     * @return the id or -1 if the value is not a fixed lexeme of the given type
+     */
+    public static int lexemeId(TokenType type, String lexeme) {
+        KeywordTrie.Node node = lexeme != null ? LEXEMES.find(lexeme) : null;
+        return node != null && node.getType() == type ? node.getId() : -1;
+    }
+
+    private final String source;
+    private final SourceMap sourceMap;
+    private final TokenBuffer tokens;
+    private int position;
+    private final int end;
+    private int row;
+    // rows of the whole source preceding the scanned chunk
+    private final int rowBase;
+
+    public TokenScanner(String source) {
+        this(new SourceMap(source));
+    }
+
+    public TokenScanner(SourceMap sourceMap) {
+        this(sourceMap, 1, 0);
+    }
+
+    /**
+     * Scanner of a chunk of a larger source, the chunk starting at the given row and offset of the whole source.
+     * A chunk has to start at the beginning of a line and must not split a token.
+     */
+    public TokenScanner(SourceMap sourceMap, int firstRow, int firstOffset) {
+        this(sourceMap, new TokenBuffer(sourceMap, firstRow, firstOffset), 0, sourceMap.getSource().length(), 1, firstRow - 1);
+    }
+
+    private TokenScanner(SourceMap sourceMap, TokenBuffer tokens, int from, int to, int row, int rowBase) {
+        this.source = sourceMap.getSource();
+        this.sourceMap = sourceMap;
+        this.tokens = tokens;
+        this.position = from;
+        this.end = to;
+        this.row = row;
+        this.rowBase = rowBase;
+    }
+
+    /**
+     * Scanner of the part of the source between the given offsets, which have to be chunk boundaries found by
+     * {@link ChunkBoundaries}
+     */
+    private static TokenScanner of(SourceMap sourceMap, int from, int to) {
+        TokenBuffer tokens = new TokenBuffer(sourceMap, (to - from) / 4);
+        return new TokenScanner(sourceMap, tokens, from, to, sourceMap.getLine(from), 0);
+    }
+
+    public TokenBuffer scan() {
+        while (position < end) {
+            nextToken();
+        }
+        return tokens;
+    }
+
+    /**
+     * Scan the source in chunks of about the given size lexed in parallel on the common {@link ForkJoinPool}.
+     * The chunks are cut at the line breaks found by {@link ChunkBoundaries}, so the tokens are identical to the
+     * ones of {@link #scan()}.
+     */
+    public static TokenBuffer scanInParallel(SourceMap sourceMap, int chunkSize) {
+        int[] bounds = findChunkBounds(sourceMap.getSource(), chunkSize);
+        int chunks = bounds.length - 1;
+
+        // the chunks are lexed with the interpreter state of the script, only its execution context is read
+        Interpreter interpreter = Interpreter.current();
+        List<ForkJoinTask<TokenBuffer>> tasks = new ArrayList<>(chunks);
+        for (int i = 0; i < chunks; i++) {
+            TokenScanner scanner = of(sourceMap, bounds[i], bounds[i + 1]);
+            ScopedValue.Carrier scope = ScopedValue.where(Interpreter.CURRENT, interpreter);
+            tasks.add(ForkJoinPool.commonPool().submit(() -> scope.call(() -> {
+                try {
+                    return scanner.scan();
+                } catch (TokenException e) {
+                    return null;
+                }
+            })));
+        }
+
+        TokenBuffer tokens = new TokenBuffer(sourceMap);
+        for (int i = 0; i < chunks; i++) {
+            TokenBuffer chunk = tasks.get(i).join();
+            if (chunk == null) {
+                tasks.subList(i + 1, chunks).forEach(task -> task.cancel(false));
+                // scan the invalid chunk again on this thread to report the impediment with its execution context
+                of(sourceMap, bounds[i], bounds[i + 1]).scan();
+            }
+            tokens.append(chunk);
+        }
+        return tokens;
+    }
+
+    private static int[] findChunkBounds(String source, int chunkSize) {
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        new ChunkBoundaries().classify(source, 0, source.length(), true, (index, safe) -> {
+            if (safe && index + 1 - bounds.get(bounds.size() - 1) >= chunkSize)
+                bounds.add(index + 1);
+        });
+        if (bounds.get(bounds.size() - 1) < source.length())
+            bounds.add(source.length());
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private void nextToken() {
+        char ch = source.charAt(position);
+        int charClass = ch < CHAR_CLASSES.length ? CHAR_CLASSES[ch] : 0;
+
+        if (charClass == SPACE) {
+            position++;
+            return;
+        }
+        if (charClass == LINE_BREAK) {
+            addToken(TokenType.LineBreak, position + 1);
+            return;
+        }
+        if (ch == '#') {
+            if (source.startsWith(INTENT_START, position)) {
+                readIntentBlock();
+                return;
+            }
+            if (isComment()) {
+                readComment();
+                return;
+            }
+        }
+
+        KeywordTrie.Node lexeme = LEXEMES.match(source, position);
+        if (lexeme != null && lexeme.getType().ordinal() < TokenType.Numeric.ordinal()) {
+            addLexeme(lexeme);
+            return;
+        }
+
+        int numericEnd = readNumeric();
+        if (numericEnd > position) {
+            addToken(TokenType.Numeric, numericEnd);
+            return;
+        }
+
+        if (lexeme != null && lexeme.getType().ordinal() < TokenType.Text.ordinal()) {
+            addLexeme(lexeme);
+            return;
+        }
+
+        if (ch == '"') {
+            int closingQuote = source.indexOf('"', position + 1);
+            if (closingQuote >= 0) {
+                tokens.addQuoted(position, closingQuote + 1, row);
+                moveTo(closingQuote + 1);
+                return;
+            }
+        }
+
+        if (lexeme != null) {
+            addLexeme(lexeme);
+            return;
+        }
+
+        if (charClass == LETTER) {
+            int end = position + 1;
+            while (end < source.length() && isIdentifierPart(source.charAt(end)))
+                end++;
+            addToken(TokenType.Variable, end);
+            return;
+        }
+
+        throw buildTokenException(String.format("invalid expression at line %d", rowBase + row));
+    }
+
+    private void addLexeme(KeywordTrie.Node lexeme) {
+        int end = position + lexeme.getLexeme().length();
+        tokens.add(lexeme.getType(), lexeme.getId(), position, end, row);
+        moveTo(end);
+    }
+
+    /**
+     * Add the token starting at the current position and move the position to the given end
+     */
+    private void addToken(TokenType type, int end) {
+        tokens.add(type, position, end, row);
+        moveTo(end);
+    }
+
+    private void moveTo(int end) {
+        row += countNewlines(position, end);
+        position = end;
+    }
+
+    private boolean isComment() {
+        for (String comment : COMMENTS) {
+            if (source.startsWith(comment, position))
+                return true;
+        }
+        return false;
+    }
+
+    // comment lasts till the end of the line
+    private void readComment() {
+        int end = position;
+        while (end < source.length() && !isLineTerminator(source.charAt(end)))
+            end++;
+        addToken(TokenType.Comment, end);
+    }
+
+    // capture everything until #END INTENT as raw text
+    private void readIntentBlock() {
+        int textStart = position + INTENT_START.length();
+        int textEnd = source.indexOf(INTENT_END, textStart);
+        if (textEnd == -1) {
+            throw buildTokenException(String.format("Missing #END INTENT at line %d", rowBase + row));
+        }
+
+        tokens.add(TokenType.Keyword, Keyword.INTENT.ordinal(), position, textStart, row);
+
+        if (!isBlank(textStart, textEnd)) {
+            tokens.add(TokenType.Text, textStart, textEnd, row);
+        }
+
+        row += countNewlines(position, textEnd);
+        tokens.add(TokenType.Keyword, Keyword.END_INTENT.ordinal(), textEnd, textEnd + INTENT_END.length(), row);
+        position = textEnd + INTENT_END.length();
+    }
+
+    /**
+     * Read a numeric literal, e.g. `-1`, `2.5` or `.5`. A dot followed by another dot belongs to the `..` divider.
+     *
+     * @return end position of the literal or the current position if there is none
+     */
+    private int readNumeric() {
+        int length = source.length();
+        int end = position;
+        if (source.charAt(end) == '-')
+            end++;
+        int firstDigit = end < length && source.charAt(end) == '.' ? end + 1 : end;
+        if (firstDigit >= length || !isDigit(source.charAt(firstDigit)))
+            return position;
+
+        while (end < length && isDigit(source.charAt(end)))
+            end++;
+        if (end + 1 < length && source.charAt(end) == '.' && source.charAt(end + 1) == '.')
+            return end;
+        if (end < length && source.charAt(end) == '.') {
+            end++;
+            while (end < length && isDigit(source.charAt(end)))
+                end++;
+        }
+        return end;
+    }
+
+    private TokenException buildTokenException(String message) {
+        ExecutionContext.Context ctx = ExecutionContext.get();
+        return TokenException.builder()
+                .explanation(message)
+                .fileName(ctx != null ? ctx.getFileName() : null)
+                .line(rowBase + row)
+                .column(sourceMap.getColumn(row, position))
+                .snippet(sourceMap.getLineText(row).trim())
+                .build();
+    }
+
+    // same as String.trim().isEmpty() without copying the text
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) > ' ')
+                return false;
+        }
+        return true;
+    }
+
+    private int countNewlines(int from, int to) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (source.charAt(i) == '\n')
+                count++;
+        }
+        return count;
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch < CHAR_CLASSES.length && CHAR_CLASSES[ch] == DIGIT;
+    }
+
+    private static boolean isIdentifierPart(char ch) {
+        return ch < CHAR_CLASSES.length && (CHAR_CLASSES[ch] & (LETTER | DIGIT)) != 0;
+    }
+
+    private static boolean isLineTerminator(char ch) {
+        return ch == '\n' || ch == '\r' || ch == '\u0085' || ch == '\u2028' || ch == '\u2029';
+    }
+}
@@ -0,0 +1,120 @@
+package scrum.token;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Tokenizes a source read from a {@link Reader} chunk by chunk, so the whole source is never held in memory.
+ * <p>
+ * The source is cut into chunks of about {@link #DEFAULT_CHUNK_SIZE} characters at the line breaks found by
+ * {@link ChunkBoundaries}, so no token spans two chunks. A chunk grows beyond that size only as long as a
+ * text literal or an `#INTENT` block is open. Each chunk is scanned by a {@link TokenScanner} into its own
+ * {@link TokenBuffer} when the parser asks for it, see {@link TokensStack#TokensStack(TokenStream)}.
+ * <p>
+ * Only the line starts of the source are kept, see {@link #getSourceMap()}.
+ */
+public class TokenStream {
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final int chunkSize;
+    private final char[] readBuffer = new char[8192];
+    // characters read but not handed out as a chunk yet
+    private final StringBuilder pending = new StringBuilder();
+    // characters of pending already classified by the state machine
+    private int classified;
+    // end of the last line of pending which can end a chunk
+    private int safeEnd;
+    private final ChunkBoundaries boundaries = new ChunkBoundaries();
+    private boolean endOfInput;
+
+    private int chunkRow = 1;
+    private int chunkOffset;
+    private int[] lineStarts = new int[1024];
+    private int lineCount = 1;
+
+    public TokenStream(Reader reader) {
+        this(reader, DEFAULT_CHUNK_SIZE);
+    }
+
+    public TokenStream(Reader reader, int chunkSize) {
+        this.reader = reader;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Read and scan the next chunk of the source
+     *
+     * @return tokens of the chunk or null when the source is exhausted
+     */
+    public TokenBuffer nextChunk() {
+        String chunk = readChunk();
+        if (chunk == null)
+            return null;
+
+        TokenBuffer tokens = new TokenScanner(new SourceMap(chunk), chunkRow, chunkOffset).scan();
+        chunkRow += countNewlines(chunk);
+        chunkOffset += chunk.length();
+        return tokens;
+    }
+
+    /**
+     * @return line starts of the part of the source read so far, complete once {@link #nextChunk()} returned null
+     */
+    public SourceMap getSourceMap() {
+        return new SourceMap(Arrays.copyOf(lineStarts, lineCount), lineCount, chunkOffset + pending.length());
+    }
+
+    private String readChunk() {
+        while (!endOfInput && safeEnd < chunkSize) {
+            if (!fill())
+                endOfInput = true;
+            classify();
+        }
+
+        int end = endOfInput && safeEnd < chunkSize ? pending.length() : safeEnd;
+        if (end == 0)
+            return null;
+
+        String chunk = pending.substring(0, end);
+        pending.delete(0, end);
+        classified -= end;
+        safeEnd = 0;
+        return chunk;
+    }
+
+    private boolean fill() {
+        try {
+            int read = reader.read(readBuffer);
+            if (read < 0)
+                return false;
+            pending.append(readBuffer, 0, read);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void classify() {
+        classified = boundaries.classify(pending, classified, pending.length(), endOfInput, this::lineBreak);
+    }
+
+    private void lineBreak(int index, boolean safe) {
+        if (lineCount == lineStarts.length)
+            lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+        lineStarts[lineCount++] = chunkOffset + index + 1;
+        if (safe)
+            safeEnd = index + 1;
+    }
+
+    private static int countNewlines(String chunk) {
+        int count = 0;
+        for (int i = 0; i < chunk.length(); i++) {
+            if (chunk.charAt(i) == '\n')
+                count++;
+        }
+        return count;
+    }
+}
@@ -20,5 +20,22 @@ public enum TokenType {
     Variable("[a-zA-Z_]+[a-zA-Z0-9_]*");
 
     private final String regex;
+
+    /**
+     * @return bit of this type in the masks built with {@link #mask(TokenType...)}
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * Combine the types into a bit mask which can be checked without allocations
+     */
+    public static int mask(TokenType... types) {
+        int mask = 0;
+        for (TokenType type : types)
+            mask |= type.bit();
+        return mask;
+    }
 }
 
@@ -1,32 +1,97 @@
 package scrum.token;
 
-import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.ArrayUtils;
+import scrum.context.ExecutionContext;
 import scrum.exception.SyntaxException;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Stream;
+import java.util.Set;
 
-@RequiredArgsConstructor
+/**
+ * Cursor over a {@link TokenBuffer}. Types and values are checked in place, a {@link Token} is only built for
+ * the lexemes actually consumed by the parser.
+ * <p>
+ * Token types are matched with bit masks built by {@link TokenType#mask(TokenType...)}, meant to be kept in constants
+ * by the callers, and keywords by identity of their {@link Keyword} constant, so matching allocates nothing. Line
+ * breaks and comments are skipped through the precomputed {@link TokenBuffer#nextSignificant(int)} index.
+ * <p>
+ * Over a {@link TokenStream} the cursor moves from one chunk of tokens to the next, keeping only the current chunk and
+ * the previous one.
+ */
 public class TokensStack {
-	private final List<Token> tokens;
+	private TokenBuffer tokens;
 	private int position;
+	private TokenStream stream;
+	private TokenBuffer previousTokens;
 
-	private static final List<TokenType> EMPTY_TOKENS = List.of(TokenType.LineBreak, TokenType.Comment);
+	public TokensStack(TokenBuffer tokens) {
+		this.tokens = tokens;
+	}
+
+	public TokensStack(TokenStream stream) {
+		this.stream = stream;
+		this.tokens = stream.nextChunk();
+		if (tokens == null)
+			tokens = TokenBuffer.of(List.of());
+	}
+
+	public TokensStack(List<Token> tokens) {
+		this(TokenBuffer.of(tokens));
+	}
+
+	private TokensStack(TokenBuffer tokens, int position) {
+		this.tokens = tokens;
+		this.position = position;
+	}
+
+	/**
+	 * @return an independent cursor starting at the current position, e.g. to come back later to a skipped block.
+	 * Not supported over a stream whose chunks are discarded once read.
+	 */
+	public TokensStack copy() {
+		if (stream != null)
+			throw new IllegalStateException("A streamed cursor can't be copied");
+		return new TokensStack(tokens, position);
+	}
+
+	/**
+	 * @return the current position to come back to with {@link #reset(int)}, not supported over a stream
+	 */
+	public int mark() {
+		if (stream != null)
+			throw new IllegalStateException("A streamed cursor can't be marked");
+		return position;
+	}
+
+	public void reset(int mark) {
+		position = mark;
+	}
+
+	/**
+	 * Move past the next token without building it
+	 *
+	 * @return keyword of the skipped token or null if it is not a keyword
+	 */
+	public Keyword skip() {
+		skipEmptyTokens();
+		if (!available())
+			throw buildSyntaxException("Unexpected end of tokens");
+		return tokens.getKeyword(position++);
+	}
 
 	public Token next(TokenType type, TokenType... types) {
+		return next(type.bit() | TokenType.mask(types));
+	}
+
+	/**
+	 * Read the next token if its type is in the mask
+	 */
+	public Token next(int typeMask) {
 		skipEmptyTokens();
-		TokenType[] tokenTypes = ArrayUtils.add(types, type);
-		if (position < tokens.size()) {
-			Token token = tokens.get(position);
-			if (Stream.of(tokenTypes).anyMatch(t -> t == token.getType())) {
-				position++;
-				return token;
-			}
+		if (available() && tokens.isType(position, typeMask)) {
+			return tokens.getToken(position++);
 		}
-		throw new SyntaxException(String.format("After `%s` declaration expected any of the following lexemes `%s`", previous(), Arrays.toString(tokenTypes)));
+		throw buildSyntaxException(String.format("After `%s` declaration expected any of the following lexemes `%s`", previous(), toString(typeMask)));
 	}
 
 	public void back() {
@@ -35,25 +100,40 @@ public class TokensStack {
 
 	public boolean hasNext() {
 		skipEmptyTokens();
-		return position < tokens.size();
+		return available();
 	}
 
 	public Token next(TokenType type, String value, String... values) {
 		skipEmptyTokens();
-		if (position < tokens.size()) {
-			String[] allValues = ArrayUtils.add(values, value);
-			Token token = tokens.get(position);
-			if (token.getType() == type && Arrays.stream(allValues).anyMatch(t -> Objects.equals(t, token.getValue()))) {
-				position++;
-				return token;
-			}
+		if (available() && tokens.isType(position, type) && matchesValue(value, values)) {
+			return tokens.getToken(position++);
+		}
+		throw buildSyntaxException(String.format("After `%s` declaration expected `%s, %s` lexeme", previous(), type, value));
+	}
+
+	public Token next(Keyword keyword) {
+		skipEmptyTokens();
+		if (peekSameLine(keyword)) {
+			return tokens.getToken(position++);
+		}
+		throw buildSyntaxException(String.format("After `%s` declaration expected `%s, %s` lexeme", previous(), keyword.getType(), keyword.getLexeme()));
+	}
+
+	/**
+	 * Read the next token if it is one of the keywords
+	 */
+	public Token next(Set<Keyword> keywords) {
+		skipEmptyTokens();
+		if (peekSameLine(keywords)) {
+			return tokens.getToken(position++);
 		}
-		throw new SyntaxException(String.format("After `%s` declaration expected `%s, %s` lexeme", previous(), type, value));
+		throw buildSyntaxException(String.format("After `%s` declaration expected any of the following lexemes `%s`", previous(), keywords));
 	}
 
 	public Token next() {
 		skipEmptyTokens();
-		return tokens.get(position++);
+		available();
+		return tokens.getToken(position++);
 	}
 
 	public boolean peek(TokenType type, String value, String... values) {
@@ -62,35 +142,125 @@ public class TokensStack {
 	}
 
 	public boolean peekSameLine(TokenType type, String value, String... values) {
-		if (position < tokens.size()) {
-			String[] allValues = ArrayUtils.add(values, value);
-			Token token = tokens.get(position);
-			return type == token.getType() && Arrays.stream(allValues).anyMatch(t -> Objects.equals(t, token.getValue()));
+		return available() && tokens.isType(position, type) && matchesValue(value, values);
+	}
+
+	public boolean peek(Keyword keyword) {
+		skipEmptyTokens();
+		return peekSameLine(keyword);
+	}
+
+	public boolean peekSameLine(Keyword keyword) {
+		return available() && tokens.getKeyword(position) == keyword;
+	}
+
+	public boolean peek(Set<Keyword> keywords) {
+		skipEmptyTokens();
+		return peekSameLine(keywords);
+	}
+
+	public boolean peekSameLine(Set<Keyword> keywords) {
+		if (available()) {
+			Keyword keyword = tokens.getKeyword(position);
+			return keyword != null && keywords.contains(keyword);
 		}
 		return false;
 	}
 
 	public boolean peek(TokenType type, TokenType... types) {
-		skipEmptyTokens();
-		return peekSameLine(type, types);
+		return peek(type.bit() | TokenType.mask(types));
 	}
 
 	public boolean peekSameLine(TokenType type, TokenType... types) {
-		if (position < tokens.size()) {
-			TokenType[] tokenTypes = ArrayUtils.add(types, type);
-			Token token = tokens.get(position);
-			return Stream.of(tokenTypes).anyMatch(t -> t == token.getType());
+		return peekSameLine(type.bit() | TokenType.mask(types));
+	}
+
+	public boolean peek(int typeMask) {
+		skipEmptyTokens();
+		return peekSameLine(typeMask);
+	}
+
+	public boolean peekSameLine(int typeMask) {
+		return available() && tokens.isType(position, typeMask);
+	}
+
+	/**
+	 * @return interned lexeme id of the next token on the same line, see {@link TokenBuffer#getLexemeId(int)},
+	 * or -1 if there is none
+	 */
+	public int peekLexemeIdSameLine() {
+		return available() ? tokens.getLexemeId(position) : -1;
+	}
+
+	private Token previous() {
+		if (position == 0 && previousTokens != null)
+			return previousTokens.getToken(previousTokens.size() - 1);
+		return tokens.getToken(position - 1);
+	}
+
+	/**
+	 * @return whether there is a token at the current position, reading the next chunk of a stream when needed
+	 */
+	private boolean available() {
+		while (position >= tokens.size() && stream != null) {
+			TokenBuffer next = stream.nextChunk();
+			if (next == null) {
+				stream = null;
+				break;
+			}
+			position -= tokens.size();
+			previousTokens = tokens;
+			tokens = next;
+		}
+		return position < tokens.size();
+	}
+
+	private boolean matchesValue(String value, String... values) {
+		if (tokens.valueEquals(position, value))
+			return true;
+		for (String other : values) {
+			if (tokens.valueEquals(position, other))
+				return true;
 		}
 		return false;
 	}
 
-	private Token previous() {
-		return tokens.get(position - 1);
+	private static String toString(int typeMask) {
+		List<TokenType> types = new ArrayList<>();
+		for (TokenType type : TokenType.values()) {
+			if ((typeMask & type.bit()) != 0)
+				types.add(type);
+		}
+		return types.toString();
+	}
+
+	/**
+	 * Build a syntax exception located at the token which could not be read
+	 */
+	private SyntaxException buildSyntaxException(String message) {
+		int index = available() ? position : position - 1;
+		TokenBuffer buffer = tokens;
+		if (index < 0 && previousTokens != null) {
+			buffer = previousTokens;
+			index = buffer.size() - 1;
+		}
+		int line = index >= 0 ? buffer.getRow(index) : -1;
+		ExecutionContext.Context ctx = ExecutionContext.get();
+		return SyntaxException.builder()
+				.explanation(message)
+				.fileName(ctx != null ? ctx.getFileName() : null)
+				.line(line)
+				.column(index >= 0 ? buffer.getColumn(index) : -1)
+				.snippet(index >= 0 ? buffer.getLineText(index) : null)
+				.build();
 	}
 
 	private void skipEmptyTokens() {
-		while (position != tokens.size() && EMPTY_TOKENS.contains(tokens.get(position).getType()))
-			position++;
+		while (available()) {
+			position = tokens.nextSignificant(position);
+			if (position < tokens.size())
+				return;
+		}
 	}
 
 	/**
@@ -98,25 +268,25 @@ public class TokensStack {
 	 * Used for special parsing contexts like #INTENT blocks where whitespace matters.
 	 */
 	public Token nextRaw() {
-		if (position < tokens.size()) {
-			return tokens.get(position++);
+		if (available()) {
+			return tokens.getToken(position++);
 		}
-		throw new SyntaxException("Unexpected end of tokens");
+		throw buildSyntaxException("Unexpected end of tokens");
 	}
 
 	/**
 	 * Check if there are more raw tokens without skipping line breaks or comments.
 	 */
 	public boolean hasNextRaw() {
-		return position < tokens.size();
+		return available();
 	}
 
 	/**
 	 * Peek at the next raw token without advancing position or skipping.
 	 */
 	public Token peekRaw() {
-		if (position < tokens.size()) {
-			return tokens.get(position);
+		if (available()) {
+			return tokens.getToken(position);
 		}
 		return null;
 	}
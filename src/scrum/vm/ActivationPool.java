@@ -0,0 +1,58 @@
+package scrum.vm;
+
+import scrum.context.MemoryScope;
+import scrum.expression.value.Value;
+
+import java.util.Arrays;
+
+/**
+ * Registers and stacks of the blocks executed by the virtual machine for an interpreter state, reused by the next
+ * executions instead of allocating them for each execution of a block. A story called by a block executes its own
+ * block before the caller completes, so the activations are acquired and released in a stack order.
+ */
+public final class ActivationPool {
+    private Activation[] activations = new Activation[16];
+    // number of activations in use
+    private int size;
+
+    Activation acquire(int registers, int offsets, int loops, int depth) {
+        if (size == activations.length)
+            activations = Arrays.copyOf(activations, size << 1);
+        Activation activation = activations[size];
+        if (activation == null)
+            activations[size] = activation = new Activation();
+        size++;
+        activation.ensure(registers, offsets, loops, depth);
+        return activation;
+    }
+
+    /**
+     * Release the most recently acquired activation, the values of its registers are left to the garbage collector
+     */
+    void release(Activation activation, int registers) {
+        Arrays.fill(activation.registers, 0, registers, null);
+        size--;
+    }
+
+    /**
+     * Arrays of an execution of a block, at least as large as the block needs. The iterations are all left, so empty,
+     * once the block has completed.
+     */
+    static final class Activation {
+        Value<?>[] registers = new Value<?>[0];
+        int[] offsets = new int[0];
+        MemoryScope[] iterations = new MemoryScope[0];
+        int[] stack = new int[0];
+
+        private void ensure(int registers, int offsets, int loops, int depth) {
+            if (this.registers.length < registers)
+                this.registers = new Value<?>[registers];
+            if (this.offsets.length < offsets)
+                this.offsets = new int[offsets];
+            if (this.iterations.length < loops)
+                this.iterations = new MemoryScope[loops];
+            if (this.stack.length < depth)
+                this.stack = new int[depth];
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package scrum.vm;
+
+import scrum.context.FrameLayout;
+import scrum.expression.AssignExpression;
+import scrum.expression.Expression;
+import scrum.expression.FunctionExpression;
+import scrum.expression.VariableExpression;
+import scrum.expression.operator.*;
+import scrum.expression.value.Value;
+import scrum.statement.*;
+import scrum.statement.loop.AbstractLoopStatement;
+import scrum.statement.loop.BreakStatement;
+import scrum.statement.loop.ForLoopStatement;
+import scrum.statement.loop.NextStatement;
+import scrum.statement.loop.WhileLoopStatement;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lowers a block to the instructions of the virtual machine. The statements, the FOR RANGE and conditional loops and
+ * the specializing operators are lowered to instructions over registers, the literals are held by the constant pool.
+ * The other nodes, e.g. the variables, the story calls or the iterable loops, are held by the node pool and called
+ * by the instructions as they are by the interpreter.
+ * <p>
+ * The registers only hold the values of the statement being executed, each statement starts over from the first
+ * register. The bodies of the loops which are not lowered are lowered on their own, see {@link #getNestedBlocks()}.
+ */
+class Lowering {
+    // operators computing two numbers in place
+    private static final Map<Class<?>, Integer> OPERATORS = Map.of(
+            AdditionOperator.class, Opcode.ADD,
+            SubtractionOperator.class, Opcode.SUBTRACT,
+            MultiplicationOperator.class, Opcode.MULTIPLY,
+            LessThanOperator.class, Opcode.LESS,
+            LessThanOrEqualToOperator.class, Opcode.LESS_OR_EQUAL,
+            GreaterThanOperator.class, Opcode.GREATER,
+            GreaterThanOrEqualToOperator.class, Opcode.GREATER_OR_EQUAL,
+            EqualsOperator.class, Opcode.EQUAL,
+            NotEqualsOperator.class, Opcode.NOT_EQUAL);
+
+    private int[] code = new int[64];
+    private int size;
+    private final List<Value<?>> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new IdentityHashMap<>();
+    private final List<Object> nodes = new ArrayList<>();
+    private final Map<Object, Integer> nodeIndexes = new IdentityHashMap<>();
+    private final List<AssignExpression> counters = new ArrayList<>();
+    private final List<Expression> increments = new ArrayList<>();
+    private final List<CompositeStatement> nestedBlocks = new ArrayList<>();
+    private final Deque<LoopTargets> loops = new ArrayDeque<>();
+    private int registers;
+    // the first slot holds the offset of the statement executing the block
+    private int offsets = 1;
+    private int depth;
+    private int maxDepth;
+
+    /**
+     * Targets of the BREAK and NEXT statements of a lowered loop
+     *
+     * @param depth depth of the unwind stack within the iterations
+     */
+    private record LoopTargets(Label breakLabel, Label nextLabel, int depth) {
+    }
+
+    /**
+     * Position in the code, the jumps to a position not bound yet are patched when it is bound
+     */
+    private static class Label {
+        private int target = -1;
+        private final List<Integer> uses = new ArrayList<>();
+    }
+
+    Lowering(CompositeStatement block) {
+        block(block);
+        emit(Opcode.COMPLETE, VmBlock.NORMAL);
+    }
+
+    /**
+     * @return blocks executed by the nodes called from the block, their bodies are lowered on their own
+     */
+    List<CompositeStatement> getNestedBlocks() {
+        return nestedBlocks;
+    }
+
+    VmBlock build() {
+        return new VmBlock(Arrays.copyOf(code, size), constants.toArray(new Value<?>[0]), nodes.toArray(),
+                Math.max(registers, 1), offsets, counters.toArray(new AssignExpression[0]),
+                increments.toArray(new Expression[0]), maxDepth);
+    }
+
+    private void block(CompositeStatement block) {
+        List<Statement> statements = block.getStatements2Execute();
+        for (int i = 0; i < statements.size(); i++) {
+            int offset = block.getStatementOffset(i);
+            if (offset >= 0)
+                emit(Opcode.TRACK, offset);
+            statement(statements.get(i));
+        }
+    }
+
+    private void statement(Statement statement) {
+        if (statement instanceof ExpressionStatement expressionStatement) {
+            expression(expressionStatement.getExpression(), 0);
+        } else if (statement instanceof SayStatement sayStatement) {
+            expression(sayStatement.expression(), 0);
+            emit(Opcode.SAY, 0);
+        } else if (statement instanceof ReturnStatement returnStatement) {
+            expression(returnStatement.getExpression(), 0);
+            emit(Opcode.RETURN, 0);
+        } else if (statement instanceof BreakStatement) {
+            if (loops.isEmpty()) {
+                emit(Opcode.COMPLETE, VmBlock.BREAK);
+            } else {
+                emit(Opcode.UNWIND, loops.peek().depth());
+                jump(Opcode.JUMP, loops.peek().breakLabel());
+            }
+        } else if (statement instanceof NextStatement) {
+            if (loops.isEmpty()) {
+                emit(Opcode.COMPLETE, VmBlock.NEXT);
+            } else {
+                emit(Opcode.UNWIND, loops.peek().depth());
+                jump(Opcode.JUMP, loops.peek().nextLabel());
+            }
+        } else if (statement instanceof ConditionStatement conditionStatement) {
+            condition(conditionStatement);
+        } else if (statement instanceof ForLoopStatement forLoop) {
+            VariableExpression variable = forLoop.getVariable();
+            loop(forLoop, new LessThanOperator(variable, forLoop.getUppedBound()), variable, forLoop.getLowerBound(),
+                    new AdditionOperator(variable, forLoop.getStep()));
+        } else if (statement instanceof WhileLoopStatement whileLoop) {
+            loop(whileLoop, whileLoop.getHasNext(), null, null, null);
+        } else {
+            if (statement instanceof AbstractLoopStatement loop)
+                nestedBlocks.add(loop);
+            if (loops.isEmpty()) {
+                emit(Opcode.EXEC, node(statement));
+            } else {
+                LoopTargets targets = loops.peek();
+                emit(Opcode.EXEC_IN_LOOP, node(statement), targets.depth());
+                target(targets.breakLabel());
+                target(targets.nextLabel());
+            }
+        }
+    }
+
+    /**
+     * Execute the first case whose condition is true in a frame of its own, as {@link ConditionStatement} does
+     */
+    private void condition(ConditionStatement statement) {
+        Label after = new Label();
+        for (Map.Entry<Expression, CompositeStatement> entry : statement.getCases().entrySet()) {
+            Label nextCase = new Label();
+            expression(entry.getKey(), 0);
+            jump(Opcode.JUMP_IF_FALSE, 0, nextCase);
+
+            CompositeStatement caseStatement = entry.getValue();
+            int offset = offsets++;
+            emit(Opcode.PUSH_FRAME, layout(caseStatement.getFrameLayout()));
+            push();
+            emit(Opcode.SAVE_OFFSET, offset);
+            block(caseStatement);
+            emit(Opcode.RESTORE_OFFSET, offset);
+            emit(Opcode.POP_FRAME);
+            depth -= 2;
+            jump(Opcode.JUMP, after);
+            bind(nextCase);
+        }
+        bind(after);
+    }
+
+    /**
+     * Iterate in frames of their own as {@link AbstractLoopStatement} does
+     *
+     * @param counter   counter variable of the loop, null if it has none
+     * @param increment value of the counter for the next iteration
+     */
+    private void loop(AbstractLoopStatement loop, Expression condition, VariableExpression counter,
+                      Expression lowerBound, Expression increment) {
+        int index = counters.size();
+        counters.add(counter);
+        increments.add(increment);
+        int offset = offsets++;
+        emit(Opcode.SAVE_OFFSET, offset);
+        emit(Opcode.LOOP_ENTER, index, layout(loop.getCounterFrameLayout()));
+        push();
+        if (counter != null) {
+            expression(lowerBound, 0);
+            store(counter, 0);
+        }
+
+        Label head = new Label();
+        Label nextLabel = new Label();
+        Label breakLabel = new Label();
+        Label exit = new Label();
+        bind(head);
+        expression(condition, 0);
+        jump(Opcode.JUMP_UNLESS_TRUE, 0, exit);
+        emit(Opcode.ITERATION, index, layout(loop.getFrameLayout()));
+        push();
+        loops.push(new LoopTargets(breakLabel, nextLabel, depth));
+        block(loop);
+        loops.pop();
+
+        // the counter is incremented even if the iteration is left by a BREAK or NEXT statement
+        bind(nextLabel);
+        endIteration(offset, counter, increment);
+        jump(Opcode.JUMP, head);
+        bind(breakLabel);
+        endIteration(offset, counter, increment);
+        depth -= 2;
+        bind(exit);
+        emit(Opcode.LOOP_EXIT, index);
+        depth -= 2;
+    }
+
+    private void endIteration(int offset, VariableExpression counter, Expression increment) {
+        emit(Opcode.ITERATION_END);
+        emit(Opcode.RESTORE_OFFSET, offset);
+        if (counter != null) {
+            expression(increment, 0);
+            store(counter, 0);
+        }
+    }
+
+    /**
+     * Evaluate an expression to a register, the following registers are free to hold the operands
+     */
+    private void expression(Expression expression, int register) {
+        registers = Math.max(registers, register + 1);
+        if (expression instanceof Value<?> value) {
+            emit(Opcode.CONST, register, constant(value));
+        } else if (expression instanceof SpecializingOperatorExpression operator) {
+            expression(operator.getLeft(), register);
+            expression(operator.getRight(), register + 1);
+            emit(OPERATORS.getOrDefault(operator.getClass(), Opcode.BINARY), register, node(operator), register,
+                    register + 1);
+        } else if (expression instanceof AssignmentOperator assignment && assignment.getLeft() instanceof AssignExpression) {
+            expression(assignment.getRight(), register);
+            store(assignment.getLeft(), register);
+            expression(assignment.getLeft(), register);
+        } else if (expression instanceof VariableExpression) {
+            emit(Opcode.LOAD, register, node(expression));
+        } else if (expression instanceof ArrayValueOperator) {
+            emit(Opcode.ELEMENT, register, node(expression));
+        } else if (expression instanceof FunctionExpression) {
+            emit(Opcode.CALL, register, node(expression));
+        } else {
+            emit(Opcode.EVAL, register, node(expression));
+        }
+    }
+
+    private void store(Expression target, int register) {
+        emit(target instanceof VariableExpression ? Opcode.STORE_VARIABLE : Opcode.STORE, node(target), register);
+    }
+
+    private void push() {
+        depth += 2;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    private int constant(Value<?> value) {
+        return constantIndexes.computeIfAbsent(value, v -> {
+            constants.add(value);
+            return constants.size() - 1;
+        });
+    }
+
+    private int node(Object node) {
+        return nodeIndexes.computeIfAbsent(node, n -> {
+            nodes.add(node);
+            return nodes.size() - 1;
+        });
+    }
+
+    private int layout(FrameLayout layout) {
+        return layout != null ? node(layout) : -1;
+    }
+
+    private void emit(int... instruction) {
+        if (size + instruction.length > code.length)
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + instruction.length));
+        System.arraycopy(instruction, 0, code, size, instruction.length);
+        size += instruction.length;
+    }
+
+    private void jump(int opcode, Label label) {
+        emit(opcode);
+        target(label);
+    }
+
+    private void jump(int opcode, int register, Label label) {
+        emit(opcode, register);
+        target(label);
+    }
+
+    private void target(Label label) {
+        if (label.target < 0)
+            label.uses.add(size);
+        emit(label.target);
+    }
+
+    private void bind(Label label) {
+        label.target = size;
+        for (int use : label.uses)
+            code[use] = size;
+    }
+}
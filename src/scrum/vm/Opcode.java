@@ -0,0 +1,83 @@
+package scrum.vm;
+
+/**
+ * Instructions of the virtual machine. An instruction is its opcode followed by its operands in the code array: the
+ * registers are indexes of the register file, the constants and nodes are indexes of the pools of the block and the
+ * targets are indexes of the code array.
+ */
+final class Opcode {
+    // CONST dst constant: dst = constants[constant]
+    static final int CONST = 0;
+    // EVAL dst node: dst = node.evaluate(), the expressions which are not lowered
+    static final int EVAL = 1;
+    // BINARY dst node left right: dst = node.evaluate(left, right), the specializing operators
+    static final int BINARY = 2;
+    // STORE node value: node.assign(value)
+    static final int STORE = 3;
+    // SAY value
+    static final int SAY = 4;
+    // EXEC node: execute the statements which are not lowered, the block stops unless they complete normally
+    static final int EXEC = 5;
+    // EXEC_IN_LOOP node depth break next: EXEC within a loop, which handles the BREAK and NEXT completions
+    static final int EXEC_IN_LOOP = 6;
+    // TRACK offset: point the execution context to the source offset of a statement
+    static final int TRACK = 7;
+    // SAVE_OFFSET slot: save the source offset of the execution context
+    static final int SAVE_OFFSET = 8;
+    // RESTORE_OFFSET slot
+    static final int RESTORE_OFFSET = 9;
+    // JUMP target
+    static final int JUMP = 10;
+    // JUMP_IF_FALSE condition target: jump unless the condition of a case is true, a non logical value is an error
+    static final int JUMP_IF_FALSE = 11;
+    // JUMP_UNLESS_TRUE condition target: jump unless the condition of a loop is true
+    static final int JUMP_UNLESS_TRUE = 12;
+    // PUSH_FRAME layout: push the frame of a case, the layout is a node or -1
+    static final int PUSH_FRAME = 13;
+    // POP_FRAME
+    static final int POP_FRAME = 14;
+    // LOOP_ENTER loop layout: push the frame of the counter variables of a loop
+    static final int LOOP_ENTER = 15;
+    // ITERATION loop layout: push the frame of an iteration, reused by the next iterations
+    static final int ITERATION = 16;
+    // ITERATION_END
+    static final int ITERATION_END = 17;
+    // LOOP_EXIT loop: release the frame of the iterations and pop the frame of the counter variables
+    static final int LOOP_EXIT = 18;
+    // UNWIND depth: leave the frames pushed above the depth, e.g. on a BREAK statement within a case
+    static final int UNWIND = 19;
+    // RETURN value: the block completes with an answer
+    static final int RETURN = 20;
+    // COMPLETE completion: the block completes with a BREAK (0), NEXT (1) or NORMAL (2) completion
+    static final int COMPLETE = 21;
+
+    // LOAD dst node: dst = variable.evaluate()
+    static final int LOAD = 22;
+    // STORE_VARIABLE node value: variable.assign(value)
+    static final int STORE_VARIABLE = 23;
+    // ELEMENT dst node: dst = the element of an array, node.evaluate()
+    static final int ELEMENT = 24;
+    // CALL dst node: dst = the answer of a story, node.evaluate()
+    static final int CALL = 25;
+    // ADD dst node left right: BINARY with the sum of two numbers computed in place
+    static final int ADD = 26;
+    // SUBTRACT dst node left right
+    static final int SUBTRACT = 27;
+    // MULTIPLY dst node left right
+    static final int MULTIPLY = 28;
+    // LESS dst node left right: BINARY with the comparison of two numbers computed in place
+    static final int LESS = 29;
+    // LESS_OR_EQUAL dst node left right
+    static final int LESS_OR_EQUAL = 30;
+    // GREATER dst node left right
+    static final int GREATER = 31;
+    // GREATER_OR_EQUAL dst node left right
+    static final int GREATER_OR_EQUAL = 32;
+    // EQUAL dst node left right
+    static final int EQUAL = 33;
+    // NOT_EQUAL dst node left right
+    static final int NOT_EQUAL = 34;
+
+    private Opcode() {
+    }
+}
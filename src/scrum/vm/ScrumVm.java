@@ -0,0 +1,54 @@
+package scrum.vm;
+
+import scrum.context.definition.ClassDefinition;
+import scrum.context.definition.DefinitionScope;
+import scrum.context.definition.FunctionDefinition;
+import scrum.statement.CompositeStatement;
+import scrum.statement.Statement;
+
+/**
+ * Virtual machine executing the programs lowered to a compact register-based code instead of walking their tree.
+ * Each block, the program itself, the bodies of the USER STORIES and EPICS and the bodies of the loops which are not
+ * lowered with their block, is lowered to a {@link VmBlock} executed in place of its statements, see
+ * {@link CompositeStatement#setCompiled(Statement)}.
+ * <p>
+ * The lowered blocks keep the semantics of the interpreter: they print the same output, report the same impediments
+ * at the same source positions and push the same memory frames.
+ */
+public class ScrumVm {
+    private ScrumVm() {
+    }
+
+    /**
+     * Lower a program and the stories and epics it defines, the bodies still deferred by the lazy parsing are left to
+     * the interpreter
+     */
+    public static void lower(CompositeStatement program, DefinitionScope definitionScope) {
+        lower(program);
+        lower(definitionScope);
+    }
+
+    private static void lower(DefinitionScope definitionScope) {
+        for (FunctionDefinition function : definitionScope.getFunctions()) {
+            if (!function.getStatement().isDeferred())
+                lower(function.getStatement());
+            lower(function.getDefinitionScope());
+        }
+        for (ClassDefinition classDefinition : definitionScope.getClasses()) {
+            lower(classDefinition.getStatement());
+            lower(classDefinition.getDefinitionScope());
+        }
+    }
+
+    /**
+     * Lower a block and the bodies of the loops it calls, a block already compiled or lowered is kept
+     */
+    public static void lower(CompositeStatement block) {
+        if (block.getCompiled() != null)
+            return;
+        Lowering lowering = new Lowering(block);
+        block.setCompiled(lowering.build());
+        for (CompositeStatement nestedBlock : lowering.getNestedBlocks())
+            lower(nestedBlock);
+    }
+}
@@ -0,0 +1,317 @@
+package scrum.vm;
+
+import scrum.context.ExecutionContext;
+import scrum.context.FrameLayout;
+import scrum.context.Interpreter;
+import scrum.context.MemoryContext;
+import scrum.context.MemoryScope;
+import scrum.expression.AssignExpression;
+import scrum.expression.Expression;
+import scrum.expression.FunctionExpression;
+import scrum.expression.VariableExpression;
+import scrum.expression.operator.ArrayValueOperator;
+import scrum.expression.operator.SpecializingOperatorExpression;
+import scrum.expression.value.IntegerValue;
+import scrum.expression.value.LogicalValue;
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.Value;
+import scrum.statement.Completion;
+import scrum.statement.ConditionStatement;
+import scrum.statement.Statement;
+
+/**
+ * Block lowered to the instructions of the virtual machine, see {@link Opcode}. The instructions are executed by a
+ * single dispatch loop over registers holding the intermediate values, instead of the virtual calls of the tree.
+ * <p>
+ * The frames pushed by the block are recorded on an unwind stack, so they are left in the same order as the tree
+ * leaves them when the block completes early or fails, e.g. on a RETURN statement within a loop.
+ */
+final class VmBlock implements Statement {
+    // completions of the COMPLETE instruction
+    static final int BREAK = 0;
+    static final int NEXT = 1;
+    static final int NORMAL = 2;
+    private static final Completion[] COMPLETIONS = {Completion.BREAK, Completion.NEXT, Completion.NORMAL};
+
+    // kinds of the entries of the unwind stack, each entry is a kind followed by a loop
+    private static final int FRAME = 0;
+    private static final int LOOP = 1;
+    private static final int ITERATION = 2;
+
+    private final int[] code;
+    private final Value<?>[] constants;
+    private final Object[] nodes;
+    private final int registers;
+    private final int offsets;
+    // counter variables and their increments by loop, null for the loops without counter
+    private final AssignExpression[] counters;
+    private final Expression[] increments;
+    // size of the unwind stack
+    private final int depth;
+
+    VmBlock(int[] code, Value<?>[] constants, Object[] nodes, int registers, int offsets, AssignExpression[] counters,
+            Expression[] increments, int depth) {
+        this.code = code;
+        this.constants = constants;
+        this.nodes = nodes;
+        this.registers = registers;
+        this.offsets = offsets;
+        this.counters = counters;
+        this.increments = increments;
+        this.depth = depth;
+    }
+
+    @Override
+    public Completion execute() {
+        Interpreter interpreter = Interpreter.current();
+        ActivationPool pool = interpreter.getActivationPool();
+        ActivationPool.Activation activation = pool.acquire(this.registers, offsets, counters.length, depth);
+        try {
+            return execute(interpreter, activation);
+        } finally {
+            pool.release(activation, this.registers);
+        }
+    }
+
+    private Completion execute(Interpreter interpreter, ActivationPool.Activation activation) {
+        ExecutionContext.Context ctx = interpreter.getExecutionContext();
+        int[] code = this.code;
+        Value<?>[] registers = activation.registers;
+        // the first slot holds the offset of the statement executing the block
+        int[] offsets = activation.offsets;
+        offsets[0] = ctx != null ? ctx.getOffset() : -1;
+        MemoryScope[] iterations = activation.iterations;
+        int[] stack = activation.stack;
+        int sp = 0;
+
+        Completion completion;
+        int pc = 0;
+        try {
+            dispatch:
+            while (true) {
+                switch (code[pc]) {
+                    case Opcode.CONST -> {
+                        registers[code[pc + 1]] = constants[code[pc + 2]];
+                        pc += 3;
+                    }
+                    case Opcode.EVAL -> {
+                        registers[code[pc + 1]] = ((Expression) nodes[code[pc + 2]]).evaluate();
+                        pc += 3;
+                    }
+                    case Opcode.BINARY -> {
+                        registers[code[pc + 1]] = binary(code[pc + 2], registers[code[pc + 3]], registers[code[pc + 4]]);
+                        pc += 5;
+                    }
+                    case Opcode.ADD -> {
+                        Value<?> left = registers[code[pc + 3]];
+                        Value<?> right = registers[code[pc + 4]];
+                        registers[code[pc + 1]] = NumericValue.isDouble(left) && NumericValue.isDouble(right)
+                                ? NumericValue.of(((NumericValue) left).doubleValue() + ((NumericValue) right).doubleValue())
+                                : binary(code[pc + 2], left, right);
+                        pc += 5;
+                    }
+                    case Opcode.SUBTRACT -> {
+                        Value<?> left = registers[code[pc + 3]];
+                        Value<?> right = registers[code[pc + 4]];
+                        registers[code[pc + 1]] = NumericValue.isDouble(left) && NumericValue.isDouble(right)
+                                ? NumericValue.of(((NumericValue) left).doubleValue() - ((NumericValue) right).doubleValue())
+                                : binary(code[pc + 2], left, right);
+                        pc += 5;
+                    }
+                    case Opcode.MULTIPLY -> {
+                        Value<?> left = registers[code[pc + 3]];
+                        Value<?> right = registers[code[pc + 4]];
+                        registers[code[pc + 1]] = NumericValue.isDouble(left) && NumericValue.isDouble(right)
+                                ? NumericValue.of(((NumericValue) left).doubleValue() * ((NumericValue) right).doubleValue())
+                                : binary(code[pc + 2], left, right);
+                        pc += 5;
+                    }
+                    case Opcode.LESS, Opcode.LESS_OR_EQUAL, Opcode.GREATER, Opcode.GREATER_OR_EQUAL, Opcode.EQUAL,
+                         Opcode.NOT_EQUAL -> {
+                        Value<?> left = registers[code[pc + 3]];
+                        Value<?> right = registers[code[pc + 4]];
+                        if (left instanceof IntegerValue l && right instanceof IntegerValue r)
+                            registers[code[pc + 1]] = LogicalValue.of(compare(code[pc], Long.compare(l.longValue(), r.longValue())));
+                        else if (left instanceof NumericValue l && right instanceof NumericValue r)
+                            registers[code[pc + 1]] = LogicalValue.of(compare(code[pc], Double.compare(l.doubleValue(), r.doubleValue())));
+                        else
+                            registers[code[pc + 1]] = binary(code[pc + 2], left, right);
+                        pc += 5;
+                    }
+                    case Opcode.LOAD -> {
+                        registers[code[pc + 1]] = ((VariableExpression) nodes[code[pc + 2]]).evaluate();
+                        pc += 3;
+                    }
+                    case Opcode.STORE_VARIABLE -> {
+                        ((VariableExpression) nodes[code[pc + 1]]).assign(registers[code[pc + 2]]);
+                        pc += 3;
+                    }
+                    case Opcode.ELEMENT -> {
+                        registers[code[pc + 1]] = ((ArrayValueOperator) nodes[code[pc + 2]]).evaluate();
+                        pc += 3;
+                    }
+                    case Opcode.CALL -> {
+                        registers[code[pc + 1]] = ((FunctionExpression) nodes[code[pc + 2]]).evaluate();
+                        pc += 3;
+                    }
+                    case Opcode.STORE -> {
+                        ((AssignExpression) nodes[code[pc + 1]]).assign(registers[code[pc + 2]]);
+                        pc += 3;
+                    }
+                    case Opcode.SAY -> {
+                        interpreter.getOutput().println(registers[code[pc + 1]]);
+                        pc += 2;
+                    }
+                    case Opcode.EXEC -> {
+                        completion = ((Statement) nodes[code[pc + 1]]).execute();
+                        if (completion != Completion.NORMAL)
+                            break dispatch;
+                        pc += 2;
+                    }
+                    case Opcode.EXEC_IN_LOOP -> {
+                        completion = ((Statement) nodes[code[pc + 1]]).execute();
+                        if (completion == Completion.BREAK || completion == Completion.NEXT) {
+                            sp = unwind(stack, sp, code[pc + 2], iterations);
+                            pc = completion == Completion.BREAK ? code[pc + 3] : code[pc + 4];
+                        } else if (completion == Completion.NORMAL) {
+                            pc += 5;
+                        } else {
+                            break dispatch;
+                        }
+                    }
+                    case Opcode.TRACK -> {
+                        if (ctx != null)
+                            ctx.setOffset(code[pc + 1]);
+                        pc += 2;
+                    }
+                    case Opcode.SAVE_OFFSET -> {
+                        offsets[code[pc + 1]] = ctx != null ? ctx.getOffset() : -1;
+                        pc += 2;
+                    }
+                    case Opcode.RESTORE_OFFSET -> {
+                        if (ctx != null)
+                            ctx.setOffset(offsets[code[pc + 1]]);
+                        pc += 2;
+                    }
+                    case Opcode.JUMP -> pc = code[pc + 1];
+                    case Opcode.JUMP_IF_FALSE ->
+                            pc = ConditionStatement.isTrue(registers[code[pc + 1]]) ? pc + 3 : code[pc + 2];
+                    case Opcode.JUMP_UNLESS_TRUE ->
+                            pc = registers[code[pc + 1]] instanceof LogicalValue logical && logical.getValue() ? pc + 3 : code[pc + 2];
+                    case Opcode.PUSH_FRAME -> {
+                        MemoryContext.pushFrame(layout(code[pc + 1]));
+                        stack[sp++] = FRAME;
+                        stack[sp++] = -1;
+                        pc += 2;
+                    }
+                    case Opcode.POP_FRAME -> {
+                        sp -= 2;
+                        MemoryContext.popFrame();
+                        pc += 1;
+                    }
+                    case Opcode.LOOP_ENTER -> {
+                        MemoryContext.pushFrame(layout(code[pc + 2]));
+                        stack[sp++] = LOOP;
+                        stack[sp++] = code[pc + 1];
+                        pc += 3;
+                    }
+                    case Opcode.ITERATION -> {
+                        int loop = code[pc + 1];
+                        MemoryScope iteration = iterations[loop];
+                        if (iteration == null) {
+                            iterations[loop] = MemoryContext.pushFrame(layout(code[pc + 2]));
+                        } else {
+                            iteration.reset();
+                            MemoryContext.pushScope(iteration);
+                        }
+                        stack[sp++] = ITERATION;
+                        stack[sp++] = loop;
+                        pc += 3;
+                    }
+                    case Opcode.ITERATION_END -> {
+                        sp -= 2;
+                        MemoryContext.endScope();
+                        pc += 1;
+                    }
+                    case Opcode.LOOP_EXIT -> {
+                        sp -= 2;
+                        exitLoop(iterations, code[pc + 1]);
+                        pc += 2;
+                    }
+                    case Opcode.UNWIND -> {
+                        sp = unwind(stack, sp, code[pc + 1], iterations);
+                        pc += 2;
+                    }
+                    case Opcode.RETURN -> {
+                        completion = Completion.returning(registers[code[pc + 1]]);
+                        break dispatch;
+                    }
+                    case Opcode.COMPLETE -> {
+                        completion = COMPLETIONS[code[pc + 1]];
+                        break dispatch;
+                    }
+                    default -> throw new IllegalStateException("Unknown opcode " + code[pc] + " at " + pc);
+                }
+            }
+        } catch (Throwable e) {
+            unwind(stack, sp, 0, iterations);
+            throw e;
+        }
+
+        unwind(stack, sp, 0, iterations);
+        if (ctx != null)
+            ctx.setOffset(offsets[0]);
+        return completion;
+    }
+
+    private Value<?> binary(int node, Value<?> left, Value<?> right) {
+        return ((SpecializingOperatorExpression) nodes[node]).evaluate(left, right);
+    }
+
+    private static boolean compare(int opcode, int comparison) {
+        return switch (opcode) {
+            case Opcode.LESS -> comparison < 0;
+            case Opcode.LESS_OR_EQUAL -> comparison <= 0;
+            case Opcode.GREATER -> comparison > 0;
+            case Opcode.GREATER_OR_EQUAL -> comparison >= 0;
+            case Opcode.EQUAL -> comparison == 0;
+            default -> comparison != 0;
+        };
+    }
+
+    private FrameLayout layout(int node) {
+        return node >= 0 ? (FrameLayout) nodes[node] : null;
+    }
+
+    /**
+     * Leave the frames recorded above the depth, as the statements pushing them do when they complete early
+     *
+     * @return depth of the unwind stack
+     */
+    private int unwind(int[] stack, int sp, int depth, MemoryScope[] iterations) {
+        while (sp > depth) {
+            int loop = stack[--sp];
+            int kind = stack[--sp];
+            if (kind == FRAME) {
+                MemoryContext.popFrame();
+            } else if (kind == LOOP) {
+                exitLoop(iterations, loop);
+            } else {
+                // the counter is incremented even if the iteration is left early
+                MemoryContext.endScope();
+                if (counters[loop] != null)
+                    counters[loop].assign(increments[loop].evaluate());
+            }
+        }
+        return sp;
+    }
+
+    private void exitLoop(MemoryScope[] iterations, int loop) {
+        MemoryScope iteration = iterations[loop];
+        if (iteration != null) {
+            MemoryContext.releaseFrame(iteration);
+            iterations[loop] = null;
+        }
+        MemoryContext.popFrame();
+    }
+}
@@ -0,0 +1 @@
+package scrum.vm;
\ No newline at end of file
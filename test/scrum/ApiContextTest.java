@@ -3,6 +3,7 @@ package scrum;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import scrum.context.ApiContext;
 import scrum.context.definition.ApiDefinition;
 import scrum.context.definition.DefinitionContext;
@@ -18,6 +19,7 @@ import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(InterpreterExtension.class)
 class ApiContextTest {
 
     @BeforeEach
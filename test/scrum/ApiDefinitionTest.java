@@ -7,6 +7,7 @@ import scrum.statement.CompositeStatement;
 import scrum.token.Token;
 import scrum.token.TokenType;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.AfterEach;
 
@@ -14,6 +15,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(InterpreterExtension.class)
 class ApiDefinitionTest {
 
     @BeforeEach
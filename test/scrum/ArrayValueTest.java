@@ -0,0 +1,154 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import scrum.exception.ExecutionException;
+import scrum.expression.UnexpectedValueException;
+import scrum.expression.operator.AdditionOperator;
+import scrum.expression.operator.ArrayValueOperator;
+import scrum.expression.value.ArrayValue;
+import scrum.expression.value.IntegerValue;
+import scrum.expression.value.LogicalValue;
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.TextValue;
+import scrum.expression.value.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static scrum.expression.value.NullValue.NULL_INSTANCE;
+
+class ArrayValueTest {
+
+    @Test
+    public void testHomogeneousElements() {
+        ArrayValue doubles = array(new NumericValue(0.5), new NumericValue(-0.0));
+        doubles.appendValue(new NumericValue(2.0));
+        assertEquals("[0.5, 0, 2]", doubles.toString());
+        assertEquals(NumericValue.class, doubles.getValue(2).getClass());
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(doubles.getDouble(1)));
+        assertSame(NULL_INSTANCE, doubles.getValue(3));
+
+        ArrayValue integers = array(IntegerValue.of(9007199254740993L));
+        assertEquals(IntegerValue.class, integers.getValue(0).getClass());
+        assertEquals("9007199254740993", integers.getValue(0).toString());
+        assertThrows(UnexpectedValueException.class, () -> integers.getDouble(0));
+
+        assertEquals(List.of(new TextValue("a"), new TextValue("b")), array(new TextValue("a"), new TextValue("b")).getValue());
+        assertSame(LogicalValue.TRUE, array(LogicalValue.FALSE, LogicalValue.TRUE).getValue(1));
+    }
+
+    @Test
+    public void testIntegerIndexes() {
+        ArrayValue integers = array();
+        for (int i = 0; i < 40; i++)
+            integers.appendValue(IntegerValue.of(9007199254740993L + i));
+
+        // the elements of the second leaf are read by integer indexes, exactly
+        assertEquals(IntegerValue.of(9007199254741026L), new ArrayValueOperator(integers, IntegerValue.of(33)).evaluate());
+        assertEquals(IntegerValue.of(9007199254740993L), new ArrayValueOperator(integers, new NumericValue(0.5)).evaluate());
+        UnexpectedValueException unexpected = assertThrows(UnexpectedValueException.class,
+                () -> new ArrayValueOperator(integers, IntegerValue.of(33)).evaluateDouble());
+        assertEquals(IntegerValue.of(9007199254741026L), unexpected.getValue());
+
+        // the indexes beyond the range of an int are out of the array
+        assertSame(NULL_INSTANCE, new ArrayValueOperator(integers, IntegerValue.of(4294967296L)).evaluate());
+        ExecutionException exception = assertThrows(ExecutionException.class,
+                () -> new ArrayValueOperator(integers, new TextValue("a")).evaluate());
+        assertEquals("Unable to index array with `a`", exception.getMessage());
+        assertThrows(ExecutionException.class, () -> new ArrayValueOperator(integers, new TextValue("a")).evaluateDouble());
+    }
+
+    @Test
+    public void testPromotion() {
+        ArrayValue array = array(IntegerValue.of(1), IntegerValue.of(2));
+        array.setValue(1, new TextValue("two"));
+        array.appendValue(new NumericValue(3.5));
+        array.setValue(3, IntegerValue.of(4));
+        assertEquals(List.of(IntegerValue.of(1), new TextValue("two"), new NumericValue(3.5)), array.getValue());
+
+        List<Value<?>> iterated = new ArrayList<>();
+        array.forEach(iterated::add);
+        assertEquals(array.getValue(), iterated);
+    }
+
+    @Test
+    public void testConcatenation() {
+        ArrayValue first = array(new NumericValue(1.5));
+        ArrayValue second = array(new NumericValue(2.5), new NumericValue(3.5));
+        Value<?> concatenation = new AdditionOperator(first, second).evaluate();
+        assertEquals("[1.5, 2.5, 3.5]", concatenation.toString());
+        assertEquals(2.5, new ArrayValueOperator(concatenation, IntegerValue.of(1)).evaluateDouble());
+
+        // the operands are left unchanged
+        assertEquals(1, first.getValue().size());
+        assertEquals("[1.5, a]", new AdditionOperator(first, new TextValue("a")).evaluate().toString());
+        assertEquals("[1.5, 2.5, 3.5, 1]", new AdditionOperator(IntegerValue.of(1), concatenation).evaluate().toString());
+    }
+
+    @Test
+    public void testSharedElements() {
+        ArrayValue first = array();
+        for (int i = 0; i < 2000; i++)
+            first.appendValue(IntegerValue.of(i));
+        ArrayValue second = first.concatValue(new TextValue("last"));
+        ArrayValue both = second.concat(first);
+
+        // the arrays sharing their elements are updated apart
+        first.setValue(5, new NumericValue(0.5));
+        second.appendValue(LogicalValue.TRUE);
+        both.setValue(2000, IntegerValue.of(-1));
+        assertEquals(new NumericValue(0.5), first.getValue(5));
+        assertEquals(IntegerValue.of(5), second.getValue(5));
+        assertEquals(new TextValue("last"), second.getValue(2000));
+        assertEquals(IntegerValue.of(-1), both.getValue(2000));
+        assertEquals(IntegerValue.of(1999), both.getValue(4000));
+        assertEquals(List.of(2000, 2002, 4001), List.of(first.getValue().size(), second.getValue().size(), both.getValue().size()));
+    }
+
+    @Test
+    public void testRandomOperations() {
+        Random random = new Random(42);
+        List<ArrayValue> arrays = new ArrayList<>();
+        List<List<Value<?>>> expected = new ArrayList<>();
+        arrays.add(array());
+        expected.add(new ArrayList<>());
+        for (int step = 0; step < 3000; step++) {
+            int i = random.nextInt(arrays.size());
+            ArrayValue array = arrays.get(i);
+            List<Value<?>> values = expected.get(i);
+            switch (random.nextInt(5)) {
+                case 0, 1 -> {
+                    Value<?> value = random.nextInt(50) == 0 ? new TextValue("t" + step) : NumericValue.of(step + 0.5);
+                    array.appendValue(value);
+                    values.add(value);
+                }
+                case 2 -> {
+                    if (!values.isEmpty()) {
+                        int index = random.nextInt(values.size());
+                        array.setValue(index, IntegerValue.of(step));
+                        values.set(index, IntegerValue.of(step));
+                    }
+                }
+                default -> {
+                    int j = random.nextInt(arrays.size());
+                    if (values.size() + expected.get(j).size() < 5000) {
+                        List<Value<?>> concatenation = new ArrayList<>(values);
+                        concatenation.addAll(expected.get(j));
+                        arrays.add(array.concat(arrays.get(j)));
+                        expected.add(concatenation);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < arrays.size(); i++)
+            assertEquals(expected.get(i), arrays.get(i).getValue());
+    }
+
+    private ArrayValue array(Value<?>... values) {
+        return new ArrayValue(List.of(values));
+    }
+}
@@ -0,0 +1,118 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompletionTest {
+
+    @Test
+    public void testReturnFromNestedLoops() {
+        assertEquals("8\r\n0\r\n", run("""
+                USER STORY "find" USING [product]
+                    I WANT TO ITERATE i FOR RANGE 1 TILL 10
+                        I WANT TO ITERATE j FOR RANGE 1 TILL 10
+                            IF i * j = product
+                                RETURN ANSWER i + j
+                            END IF
+                        END OF ITERATION
+                    END OF ITERATION
+                    RETURN ANSWER 0
+                END OF STORY
+                SAY find USING [12]
+                SAY find USING [97]
+                """));
+    }
+
+    @Test
+    public void testBreakAndNextInCondition() {
+        assertEquals("0\r\n2\r\ndone\r\n", run("""
+                I WANT TO ITERATE i FOR RANGE 0 TILL 10
+                    IF i = 3
+                        break
+                        SAY "unreachable"
+                    END IF
+                    IF i = 1
+                        next
+                    END IF
+                    SAY i
+                END OF ITERATION
+                SAY "done"
+                """));
+    }
+
+    @Test
+    public void testBreakLeavesInnerLoopOnly() {
+        assertEquals("0\r\n1\r\n2\r\n", run("""
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    I WANT TO ITERATE j FOR RANGE 0 TILL 3
+                        break
+                    END OF ITERATION
+                    SAY i
+                END OF ITERATION
+                """));
+    }
+
+    @Test
+    public void testStoryWithoutAnswer() {
+        assertEquals("1\r\n2\r\n", run("""
+                USER STORY "count" USING [n]
+                    I WANT TO ITERATE i FOR RANGE 1 TILL n + 1
+                        SAY i
+                    END OF ITERATION
+                END OF STORY
+                count USING [2]
+                """));
+    }
+
+    @Test
+    public void testCountedLoop() {
+        // the counter reassigned by the iteration is incremented from the assigned value
+        assertEquals("0\r\n4\r\n8\r\n", run("""
+                I WANT TO ITERATE i FOR RANGE 0 TILL 10
+                    SAY i
+                    i IS i + 3
+                END OF ITERATION
+                """));
+        // the bound is evaluated by each iteration
+        assertEquals("0\r\n1\r\n", run("""
+                limit IS 3
+                I WANT TO ITERATE i FOR RANGE 0 TILL limit
+                    SAY i
+                    limit IS limit - 1
+                END OF ITERATION
+                """));
+        // the numbers which are not integers are counted too
+        assertEquals("0.5\r\n1.5\r\n2.5\r\n", run("""
+                I WANT TO ITERATE i FOR RANGE 0.5 TILL 3
+                    SAY i
+                END OF ITERATION
+                """));
+    }
+
+    @Test
+    public void testIntegerIndexes() {
+        // the counters index an array of integers beyond the exact doubles
+        assertEquals("[9007199254740993, 9007199254740995, 9007199254740997]\r\n27021597764222985\r\n", run("""
+                numbers IS {9007199254740993}
+                I WANT TO ITERATE i FOR RANGE 1 TILL 3
+                    numbers IS numbers + (numbers{i - 1} + 2)
+                END OF ITERATION
+                total IS 0
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    total IS total + numbers{i}
+                END OF ITERATION
+                SAY numbers
+                SAY total
+                """));
+    }
+
+    private String run(String source) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ScrumEngine().compile(source).newExecution().output(new PrintStream(output)).run();
+        return output.toString();
+    }
+}
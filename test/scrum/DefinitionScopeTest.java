@@ -0,0 +1,77 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import scrum.context.definition.DefinitionScope;
+import scrum.context.definition.FunctionDefinition;
+import scrum.exception.ImpedimentCode;
+import scrum.exception.ScrumRuntimeException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(InterpreterExtension.class)
+class DefinitionScopeTest {
+
+    @Test
+    public void testLookup() {
+        DefinitionScope parent = new DefinitionScope(null);
+        DefinitionScope child = new DefinitionScope(parent);
+        FunctionDefinition outer = function("story", parent);
+        FunctionDefinition inner = function("story", child);
+        FunctionDefinition other = function("other", parent);
+        parent.addFunction(outer);
+        parent.addFunction(other);
+
+        assertSame(outer, child.getFunction("story"));
+        assertSame(other, child.getFunction("other"));
+
+        // a nearer definition shadows the enclosing one, a name keeps its first definition
+        child.addFunction(inner);
+        child.addFunction(function("story", child));
+        assertSame(inner, child.getFunction("story"));
+        assertSame(outer, parent.getFunction("story"));
+
+        ScrumRuntimeException exception = assertThrows(ScrumRuntimeException.class, () -> child.getFunction("none"));
+        assertEquals(ImpedimentCode.SCRUM_RUNTIME_NAME_001, exception.getImpedimentCode());
+    }
+
+    @Test
+    public void testCallSiteAcrossEpics() {
+        // the same call site resolves the story of each epic it is called with
+        CompiledProgram program = new ScrumEngine().compile("""
+                EPIC "Cat"
+                    USER STORY "speak" USING [times]
+                        RETURN ANSWER "meow"
+                    END OF STORY
+                END OF EPIC
+                EPIC "Dog"
+                    USER STORY "speak" USING [times]
+                        RETURN ANSWER "woof"
+                    END OF STORY
+                END OF EPIC
+                cat IS NEW Cat
+                dog IS NEW Dog
+                I WANT TO ITERATE i FOR RANGE 0 TILL 4
+                    pet IS cat
+                    IF i % 2 = 1
+                        pet IS dog
+                    END IF
+                    SAY pet::speak USING [i]
+                END OF ITERATION
+                """);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        program.newExecution().output(new PrintStream(output)).run();
+        assertEquals("meow\r\nwoof\r\nmeow\r\nwoof\r\n", output.toString());
+    }
+
+    private FunctionDefinition function(String name, DefinitionScope scope) {
+        return new FunctionDefinition(name, List.of(), null, scope);
+    }
+}
@@ -0,0 +1,102 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import scrum.exception.SyntaxException;
+import scrum.expression.ArrayExpression;
+import scrum.expression.ClassExpression;
+import scrum.expression.Expression;
+import scrum.expression.ExpressionReader;
+import scrum.expression.FunctionExpression;
+import scrum.expression.VariableExpression;
+import scrum.expression.operator.*;
+import scrum.expression.value.NumericValue;
+import scrum.token.TokensStack;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(InterpreterExtension.class)
+class ExpressionReaderTest {
+
+    @Test
+    public void testPrecedence() {
+        // a IS (b + (c * d))
+        AssignmentOperator assignment = assertInstanceOf(AssignmentOperator.class, read("a IS b + c * d"));
+        assertVariable("a", assignment.getLeft());
+        AdditionOperator addition = assertInstanceOf(AdditionOperator.class, assignment.getRight());
+        assertVariable("b", addition.getLeft());
+        MultiplicationOperator multiplication = assertInstanceOf(MultiplicationOperator.class, addition.getRight());
+        assertVariable("c", multiplication.getLeft());
+        assertVariable("d", multiplication.getRight());
+
+        // (a :: b) * c
+        multiplication = assertInstanceOf(MultiplicationOperator.class, read("a :: b * c"));
+        assertInstanceOf(ClassPropertyOperator.class, multiplication.getLeft());
+
+        // (a > 1) OR ((b = 2) AND c)
+        LogicalOrOperator or = assertInstanceOf(LogicalOrOperator.class, read("a > 1 OR b = 2 AND c"));
+        assertInstanceOf(GreaterThanOperator.class, or.getLeft());
+        LogicalAndOperator and = assertInstanceOf(LogicalAndOperator.class, or.getRight());
+        assertInstanceOf(EqualsOperator.class, and.getLeft());
+    }
+
+    @Test
+    public void testLeftAssociativity() {
+        // (a - b) - c
+        SubtractionOperator subtraction = assertInstanceOf(SubtractionOperator.class, read("a - b - c"));
+        assertVariable("c", subtraction.getRight());
+        SubtractionOperator inner = assertInstanceOf(SubtractionOperator.class, subtraction.getLeft());
+        assertVariable("a", inner.getLeft());
+        assertVariable("b", inner.getRight());
+
+        // ((a :: b) :: c)
+        ClassPropertyOperator property = assertInstanceOf(ClassPropertyOperator.class, read("a :: b :: c"));
+        assertVariable("c", property.getRight());
+        assertInstanceOf(ClassPropertyOperator.class, property.getLeft());
+    }
+
+    @Test
+    public void testParentheses() {
+        // a * (b + c)
+        MultiplicationOperator multiplication = assertInstanceOf(MultiplicationOperator.class, read("a * (b + c)"));
+        assertInstanceOf(AdditionOperator.class, multiplication.getRight());
+
+        // (a OR b) AND c
+        LogicalAndOperator and = assertInstanceOf(LogicalAndOperator.class, read("(a OR b) AND c"));
+        assertInstanceOf(LogicalOrOperator.class, and.getLeft());
+
+        assertThrows(SyntaxException.class, () -> read("(a + b"));
+        assertThrows(SyntaxException.class, () -> read("a + b)"));
+        assertThrows(SyntaxException.class, () -> read("a +"));
+    }
+
+    @Test
+    public void testOperands() {
+        // (NEW Person) :: name
+        ClassPropertyOperator property = assertInstanceOf(ClassPropertyOperator.class, read("NEW Person :: name"));
+        ClassInstanceOperator instance = assertInstanceOf(ClassInstanceOperator.class, property.getLeft());
+        ClassExpression person = assertInstanceOf(ClassExpression.class, instance.getValue());
+        assertEquals("Person", person.getName());
+        assertEquals(0, person.getArgumentExpressions().size());
+
+        ArrayValueOperator element = assertInstanceOf(ArrayValueOperator.class, read("items{i + 1}"));
+        assertInstanceOf(AdditionOperator.class, element.getRight());
+
+        FunctionExpression function = assertInstanceOf(FunctionExpression.class, read("sum USING [a * 2, {1, 2}]"));
+        assertEquals(2, function.getArgumentExpressions().size());
+        assertInstanceOf(ArrayExpression.class, function.getArgumentExpressions().get(1));
+
+        // an operand following a complete expression starts a new one
+        assertEquals(-1.0, assertInstanceOf(NumericValue.class, read("x-1")).getValue());
+    }
+
+    private Expression read(String source) {
+        return ExpressionReader.readExpression(new TokensStack(new LexicalParser(source).tokenize()));
+    }
+
+    private void assertVariable(String name, Expression expression) {
+        assertEquals(name, assertInstanceOf(VariableExpression.class, expression).getName());
+    }
+}
@@ -1,16 +1,24 @@
 package scrum;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import scrum.context.ExecutionContext;
 import scrum.exception.ImpedimentCode;
 import scrum.exception.ScrumRuntimeException;
+import scrum.exception.SyntaxException;
+import scrum.exception.TokenException;
+import scrum.statement.CompositeStatement;
+import scrum.token.Token;
 
 import java.nio.file.Path;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Tests for Scrum-inspired impediment reporting.
  */
+@ExtendWith(InterpreterExtension.class)
 public class ImpedimentTest {
 
     @Test
@@ -24,5 +32,52 @@ public class ImpedimentTest {
         assertEquals(ImpedimentCode.SCRUM_RUNTIME_ARITH_001, exception.getImpedimentCode());
         assertEquals("DivisionByZero.scrum", exception.getFileName());
         assertTrue(exception.getMessage().contains("Division by zero"));
+        assertEquals(3, exception.getLine());
+        assertEquals(1, exception.getColumn());
+        assertEquals("result IS a / b", exception.getSnippet());
+    }
+
+    @Test
+    public void testStreamedImpedimentLocation() {
+        ScrumLanguage lang = new ScrumLanguage();
+
+        System.setProperty("scrum.stream", "true");
+        try {
+            ScrumRuntimeException exception = assertThrows(ScrumRuntimeException.class, () -> {
+                lang.execute(Path.of("development/examples/test-errors/DivisionByZero.scrum"));
+            });
+
+            assertEquals(ImpedimentCode.SCRUM_RUNTIME_ARITH_001, exception.getImpedimentCode());
+            assertEquals(3, exception.getLine());
+            assertEquals(1, exception.getColumn());
+        } finally {
+            System.clearProperty("scrum.stream");
+        }
+    }
+
+    @Test
+    public void testSyntaxImpedimentLocation() {
+        ExecutionContext.initialize("Broken.scrum", "SAY \"ok\"\nIF a > 1\n    SAY a\nEND OF STORY");
+        try {
+            List<Token> tokens = new LexicalParser(ExecutionContext.get().getSourceMap()).parse();
+            SyntaxException exception = assertThrows(SyntaxException.class,
+                    () -> StatementParser.parse(tokens, new CompositeStatement()));
+
+            assertEquals("Broken.scrum", exception.getFileName());
+            assertEquals(4, exception.getLine());
+            assertEquals(1, exception.getColumn());
+            assertEquals("END OF STORY", exception.getSnippet());
+        } finally {
+            ExecutionContext.clear();
+        }
+    }
+
+    @Test
+    public void testTokenImpedimentLocation() {
+        TokenException exception = assertThrows(TokenException.class, () -> new LexicalParser("a IS 1\nb IS ?").parse());
+
+        assertEquals(2, exception.getLine());
+        assertEquals(6, exception.getColumn());
+        assertEquals("b IS ?", exception.getSnippet());
     }
 }
@@ -3,6 +3,7 @@ package scrum;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import scrum.context.definition.DefinitionContext;
 import scrum.context.definition.FunctionDefinition;
 import scrum.context.MemoryContext;
@@ -23,6 +24,7 @@ import static org.junit.jupiter.api.Assertions.*;
 /**
  * Tests for Intent preprocessing functionality with mocked LLM provider.
  */
+@ExtendWith(InterpreterExtension.class)
 class IntentPreprocessorTest {
 
     @BeforeEach
@@ -0,0 +1,60 @@
+package scrum;
+
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.InvocationInterceptor;
+import org.junit.jupiter.api.extension.ReflectiveInvocationContext;
+import scrum.context.Interpreter;
+
+import java.lang.reflect.Method;
+
+/**
+ * Binds an interpreter state for the tests using the contexts without executing a script, e.g. to parse statements.
+ * The same state is bound for a test and its {@code @BeforeEach} and {@code @AfterEach} methods.
+ */
+class InterpreterExtension implements InvocationInterceptor {
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(InterpreterExtension.class);
+
+    @Override
+    public void interceptBeforeEachMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptTestMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptTestTemplateMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    @Override
+    public void interceptAfterEachMethod(Invocation<Void> invocation,
+            ReflectiveInvocationContext<Method> invocationContext,
+            ExtensionContext extensionContext) throws Throwable {
+        proceed(invocation, extensionContext);
+    }
+
+    private void proceed(Invocation<Void> invocation, ExtensionContext extensionContext) throws Throwable {
+        Interpreter interpreter = extensionContext.getStore(NAMESPACE)
+                .getOrComputeIfAbsent(Interpreter.class, key -> new Interpreter(), Interpreter.class);
+        Throwable[] failure = new Throwable[1];
+        ScopedValue.where(Interpreter.CURRENT, interpreter).run(() -> {
+            try {
+                invocation.proceed();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null)
+            throw failure[0];
+    }
+}
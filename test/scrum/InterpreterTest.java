@@ -0,0 +1,81 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import scrum.context.Interpreter;
+import scrum.context.MemoryContext;
+import scrum.context.MemoryScope;
+import scrum.context.definition.DefinitionContext;
+import scrum.expression.value.NumericValue;
+import scrum.statement.CompositeStatement;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InterpreterTest {
+    private static final String SOURCE = """
+            USER STORY "sum" USING [n]
+                IF n < 1
+                    RETURN ANSWER 0
+                END IF
+                RETURN ANSWER n + sum USING [n - 1]
+            END OF STORY
+            total IS 0
+            I WANT TO ITERATE i FOR RANGE 0 TILL 50
+                total IS total + sum USING [limit]
+            END OF ITERATION
+            """;
+
+    @Test
+    public void testScope() {
+        Interpreter interpreter = new Interpreter();
+        ScopedValue.where(Interpreter.CURRENT, interpreter).run(() -> {
+            assertSame(interpreter, Interpreter.current());
+            assertNull(MemoryContext.getScope());
+            assertNull(DefinitionContext.getScope());
+        });
+
+        // no state is created for a thread which is not executing a script
+        assertThrows(IllegalStateException.class, Interpreter::current);
+    }
+
+    @Test
+    public void testParallelExecution() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = List.of(
+                    executor.submit(() -> run(10)),
+                    executor.submit(() -> run(20)),
+                    executor.submit(() -> run(30)),
+                    executor.submit(() -> run(40)));
+
+            assertEquals("2750", results.get(0).get());
+            assertEquals("10500", results.get(1).get());
+            assertEquals("23250", results.get(2).get());
+            assertEquals("41000", results.get(3).get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private String run(int limit) throws Exception {
+        return ScopedValue.where(Interpreter.CURRENT, new Interpreter()).call(() -> {
+            DefinitionContext.pushScope(DefinitionContext.newScope());
+            CompositeStatement statement = new CompositeStatement();
+            StatementParser.parse(new LexicalParser(SOURCE).tokenize(), statement);
+            VariableResolver.resolve(statement, List.of());
+
+            MemoryScope scope = new MemoryScope(null, statement.getFrameLayout());
+            scope.setLocal("limit", new NumericValue((double) limit));
+            MemoryContext.pushScope(scope);
+            statement.execute();
+            return scope.get("total").toString();
+        });
+    }
+}
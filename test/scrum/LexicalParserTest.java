@@ -408,4 +408,42 @@ class LexicalParserTest {
         assertEquals(true, hasEndOfStory, "Should contain END OF STORY keyword");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testTokenPositions() {
+        String source = "a IS 2\n  SAY \"two\nlines\" AND a";
+        LexicalParser parser = new LexicalParser(source);
+        List<Token> tokens = parser.parse();
+
+        assertEquals(8, tokens.size());
+
+        int count = 0;
+        assertEquals("a", tokens.get(count).getValue());
+        assertEquals(1, tokens.get(count).getColumn());
+        assertEquals(0, tokens.get(count).getOffset());
+
+        assertEquals("IS", tokens.get(++count).getValue());
+        assertEquals(3, tokens.get(count).getColumn());
+        assertEquals(2, tokens.get(count).getOffset());
+
+        assertEquals("2", tokens.get(++count).getValue());
+        assertEquals(6, tokens.get(count).getColumn());
+
+        assertEquals(TokenType.LineBreak, tokens.get(++count).getType());
+        assertEquals(7, tokens.get(count).getColumn());
+
+        assertEquals("SAY", tokens.get(++count).getValue());
+        assertEquals(2, tokens.get(count).getRow());
+        assertEquals(3, tokens.get(count).getColumn());
+        assertEquals(9, tokens.get(count).getOffset());
+
+        assertEquals("two\nlines", tokens.get(++count).getValue());
+        assertEquals(2, tokens.get(count).getRow());
+        assertEquals(7, tokens.get(count).getColumn());
+
+        assertEquals("AND", tokens.get(++count).getValue());
+        assertEquals(3, tokens.get(count).getRow());
+        assertEquals(8, tokens.get(count).getColumn());
+        assertEquals(25, tokens.get(count).getOffset());
+    }
+
+}
@@ -0,0 +1,203 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import scrum.exception.ExecutionException;
+import scrum.expression.Expression;
+import scrum.expression.operator.AdditionOperator;
+import scrum.expression.operator.ArrayValueOperator;
+import scrum.expression.operator.DivisionOperator;
+import scrum.expression.operator.FloorDivisionOperator;
+import scrum.expression.operator.LessThanOperator;
+import scrum.expression.operator.ModuloOperator;
+import scrum.expression.operator.MultiplicationOperator;
+import scrum.expression.operator.SpecializingOperatorExpression;
+import scrum.expression.operator.SubtractionOperator;
+import scrum.expression.value.ArrayValue;
+import scrum.expression.value.IntegerValue;
+import scrum.expression.value.LogicalValue;
+import scrum.expression.value.NumericValue;
+import scrum.expression.value.TextValue;
+import scrum.expression.value.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OperatorSpecializationTest {
+
+    @Test
+    public void testNumericSpecialization() {
+        Operand left = new Operand(new NumericValue(1.0));
+        AdditionOperator addition = new AdditionOperator(left, new NumericValue(2.0));
+        assertEquals(SpecializingOperatorExpression.UNINITIALIZED, addition.getSpecialization());
+
+        assertEquals(new NumericValue(3.0), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.NUMERIC, addition.getSpecialization());
+
+        left.value = new NumericValue(5.0);
+        assertEquals(new NumericValue(7.0), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.NUMERIC, addition.getSpecialization());
+    }
+
+    @Test
+    public void testDeoptimization() {
+        Operand left = new Operand(new NumericValue(1.0));
+        AdditionOperator addition = new AdditionOperator(left, new NumericValue(2.0));
+        addition.evaluate();
+
+        left.value = new TextValue("a");
+        assertEquals(new TextValue("a2"), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.GENERIC, addition.getSpecialization());
+
+        // the generic evaluation is kept for the numbers too
+        left.value = new NumericValue(1.0);
+        assertEquals(new NumericValue(3.0), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.GENERIC, addition.getSpecialization());
+    }
+
+    @Test
+    public void testTextAndArraySpecializations() {
+        Operand left = new Operand(new TextValue("Hello "));
+        AdditionOperator concatenation = new AdditionOperator(left, new TextValue("team"));
+        assertEquals(new TextValue("Hello team"), concatenation.evaluate());
+
+        left.value = new NumericValue(1.0);
+        assertEquals(new TextValue("1team"), concatenation.evaluate());
+        assertEquals(SpecializingOperatorExpression.GENERIC, concatenation.getSpecialization());
+
+        ArrayValue first = new ArrayValue(new ArrayList<>(List.of(new NumericValue(1.0))));
+        ArrayValue second = new ArrayValue(new ArrayList<>(List.of(new NumericValue(2.0))));
+        Value<?> array = new AdditionOperator(first, second).evaluate();
+        assertEquals(List.of(new NumericValue(1.0), new NumericValue(2.0)), array.getValue());
+    }
+
+    @Test
+    public void testNumericComparison() {
+        Operand left = new Operand(new NumericValue(-0.0));
+        LessThanOperator lessThan = new LessThanOperator(left, new NumericValue(0.0));
+
+        // as the generic comparison of the Double values
+        assertSame(LogicalValue.TRUE, lessThan.evaluate());
+        assertEquals(SpecializingOperatorExpression.NUMERIC, lessThan.getSpecialization());
+
+        left.value = new NumericValue(Double.NaN);
+        assertSame(LogicalValue.FALSE, lessThan.evaluate());
+    }
+
+    @Test
+    public void testPrimitiveOperands() {
+        Operand left = new Operand(new NumericValue(3.0));
+        MultiplicationOperator multiplication = new MultiplicationOperator(left, new NumericValue(2.0));
+        AdditionOperator addition = new AdditionOperator(multiplication, new NumericValue(1.0));
+        assertEquals(new NumericValue(7.0), addition.evaluate());
+        assertEquals(new NumericValue(7.0), addition.evaluate());
+        assertEquals(7.0, addition.evaluateDouble());
+
+        // the nested operator deoptimizes, its result is passed on to the generic evaluation of the outer one
+        left.value = new TextValue("ab");
+        assertEquals(new TextValue("abab1"), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.GENERIC, multiplication.getSpecialization());
+        assertEquals(SpecializingOperatorExpression.GENERIC, addition.getSpecialization());
+    }
+
+    @Test
+    public void testSmallIntegralValues() {
+        assertSame(NumericValue.of(42.0), NumericValue.of(42.0));
+        assertSame(NumericValue.of(-1.0), new SubtractionOperator(new NumericValue(1.0), new NumericValue(2.0)).evaluate());
+        assertEquals(new NumericValue(0.5), NumericValue.of(0.5));
+        assertEquals(Double.doubleToRawLongBits(-0.0), Double.doubleToRawLongBits(NumericValue.of(-0.0).doubleValue()));
+        assertEquals("100000", NumericValue.of(100000.0).toString());
+        assertEquals("2.5", NumericValue.of(2.5).toString());
+    }
+
+    @Test
+    public void testIntegerSpecialization() {
+        Operand left = new Operand(IntegerValue.of(7));
+        AdditionOperator addition = new AdditionOperator(left, IntegerValue.of(2));
+        assertEquals(IntegerValue.class, addition.evaluate().getClass());
+        assertEquals(SpecializingOperatorExpression.INTEGER, addition.getSpecialization());
+
+        // exact past 2^53, promoted to doubles on overflow
+        left.value = IntegerValue.of(9007199254740993L);
+        assertEquals("9007199254740995", addition.evaluate().toString());
+        left.value = IntegerValue.of(Long.MAX_VALUE);
+        assertEquals(NumericValue.class, addition.evaluate().getClass());
+
+        // a double widens the specialization, two integers still add up to an integer
+        left.value = new NumericValue(0.5);
+        assertEquals(new NumericValue(2.5), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.MIXED, addition.getSpecialization());
+        left.value = IntegerValue.of(1);
+        assertSame(IntegerValue.of(3), addition.evaluate());
+    }
+
+    @Test
+    public void testIntegersOfDoubleSpecialization() {
+        Operand left = new Operand(new NumericValue(0.5));
+        Operand right = new Operand(new NumericValue(1.0));
+        AdditionOperator addition = new AdditionOperator(left, right);
+        assertEquals(new NumericValue(1.5), addition.evaluate());
+        assertEquals(SpecializingOperatorExpression.NUMERIC, addition.getSpecialization());
+
+        // the operands evaluated as doubles are integers
+        left.value = IntegerValue.of(1);
+        right.value = IntegerValue.of(2);
+        assertSame(IntegerValue.of(3), addition.evaluate());
+    }
+
+    @Test
+    public void testIntegerDivision() {
+        assertEquals(new NumericValue(3.5), new DivisionOperator(IntegerValue.of(7), IntegerValue.of(2)).evaluate());
+        assertSame(IntegerValue.of(-4), new FloorDivisionOperator(IntegerValue.of(-7), IntegerValue.of(2)).evaluate());
+        assertSame(IntegerValue.of(-1), new ModuloOperator(IntegerValue.of(-7), IntegerValue.of(2)).evaluate());
+        assertEquals("NaN", new ModuloOperator(IntegerValue.of(7), IntegerValue.of(0)).evaluate().toString());
+        assertSame(LogicalValue.FALSE,
+                new LessThanOperator(IntegerValue.of(9007199254740993L), IntegerValue.of(9007199254740992L)).evaluate());
+    }
+
+    @Test
+    public void testParse() {
+        assertSame(IntegerValue.of(42), NumericValue.parse("42"));
+        assertEquals(IntegerValue.class, NumericValue.parse("-9007199254740993").getClass());
+        assertEquals(NumericValue.class, NumericValue.parse("42.0").getClass());
+        assertEquals(NumericValue.class, NumericValue.parse("99999999999999999999").getClass());
+    }
+
+    @Test
+    public void testArrayIndexInNumericSpecialization() {
+        Operand index = new Operand(IntegerValue.of(0));
+        ArrayValue array = new ArrayValue(List.of(new NumericValue(2.5)));
+        AdditionOperator addition = new AdditionOperator(new NumericValue(1.5), new ArrayValueOperator(array, index));
+        // the nested addition is evaluated unboxed by the outer one
+        AdditionOperator nested = new AdditionOperator(new NumericValue(0.5), addition);
+        assertEquals(new NumericValue(4.0), addition.evaluate());
+        assertEquals(new NumericValue(4.5), nested.evaluate());
+        assertEquals(SpecializingOperatorExpression.NUMERIC, addition.getSpecialization());
+        assertEquals(SpecializingOperatorExpression.NUMERIC, nested.getSpecialization());
+
+        // the index which is not a number is not taken for the element
+        index.value = new TextValue("a");
+        ExecutionException exception = assertThrows(ExecutionException.class, addition::evaluate);
+        assertEquals("Unable to index array with `a`", exception.getMessage());
+        assertThrows(ExecutionException.class, nested::evaluate);
+    }
+
+    /**
+     * Operand whose value changes between the evaluations
+     */
+    private static class Operand implements Expression {
+        private Value<?> value;
+
+        Operand(Value<?> value) {
+            this.value = value;
+        }
+
+        @Override
+        public Value<?> evaluate() {
+            return value;
+        }
+    }
+}
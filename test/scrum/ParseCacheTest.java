@@ -0,0 +1,122 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ParseCacheTest {
+
+    @TempDir
+    Path cacheDirectory;
+
+    @Test
+    public void testCachedProgramOutput() throws IOException {
+        ParseCache cache = new ParseCache(cacheDirectory, true);
+        for (String example : List.of("HelloWorld.scrum", "OddOrNot.scrum", "SearchBacklog.scrum", "ApiExample.scrum")) {
+            Path path = Path.of(ScrumLanguageTest.BASE_PATH + example);
+            String expected = run(new ParseCache(cacheDirectory, false), path, "7\n");
+
+            assertEquals(expected, run(cache, path, "7\n"), example);
+            assertEquals(expected, run(cache, path, "7\n"), example);
+        }
+        assertEquals(4, entries().size());
+    }
+
+    @Test
+    public void testCachedInput() throws IOException {
+        ParseCache cache = new ParseCache(cacheDirectory, true);
+        Path path = Path.of(ScrumLanguageTest.TEXT_INPUT_SCRUM);
+        run(cache, path, "first\n");
+
+        assertEquals("Enter \"textForInput\" >>> second\r\n", run(cache, path, "second\n"));
+    }
+
+    @Test
+    public void testInvalidEntryIsReplaced() throws IOException {
+        ParseCache cache = new ParseCache(cacheDirectory, true);
+        Path path = Path.of(ScrumLanguageTest.HELLO_WORLD_SCRUM);
+        run(cache, path, "");
+        Path entry = entries().get(0);
+        Files.write(entry, new byte[]{1, 2, 3});
+
+        assertEquals("Hello world!\r\n", run(cache, path, ""));
+        assertNotEquals(3L, Files.size(entry));
+    }
+
+    @Test
+    public void testLazyProgramIsCachedParsed() throws IOException {
+        ParseCache cache = new ParseCache(cacheDirectory, true);
+        Path path = Path.of(ScrumLanguageTest.SEARCH_BACKLOG_SCRUM);
+        String expected = run(cache, path, "");
+        entries().forEach(entry -> entry.toFile().delete());
+
+        System.setProperty("scrum.lazy", "true");
+        try {
+            assertEquals(expected, run(cache, path, ""));
+            assertEquals(expected, run(cache, path, ""));
+        } finally {
+            System.clearProperty("scrum.lazy");
+        }
+    }
+
+    @Test
+    public void testKey() {
+        assertEquals(ParseCache.key("SAY 1"), ParseCache.key("SAY 1"));
+        assertNotEquals(ParseCache.key("SAY 1"), ParseCache.key("SAY 2"));
+    }
+
+    @Test
+    public void testPurge() throws IOException {
+        ParseCache cache = new ParseCache(cacheDirectory, true);
+        run(cache, Path.of(ScrumLanguageTest.HELLO_WORLD_SCRUM), "");
+        run(cache, Path.of(ScrumLanguageTest.ODD_OR_NOT_SCRUM), "3\n");
+
+        assertEquals(2, cache.purge());
+        assertEquals(0, entries().size());
+        assertEquals(0, new ParseCache(cacheDirectory.resolve("missing"), true).purge());
+    }
+
+    @Test
+    public void testDisabledCache() throws IOException {
+        run(new ParseCache(cacheDirectory, false), Path.of(ScrumLanguageTest.HELLO_WORLD_SCRUM), "");
+
+        assertEquals(0, entries().size());
+    }
+
+    private String run(ParseCache cache, Path path, String input) throws IOException {
+        InputStream stdin = System.in;
+        PrintStream stdout = System.out;
+        try (InputStream in = new ByteArrayInputStream(input.getBytes());
+             ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             PrintStream out = new PrintStream(baos)) {
+            System.setIn(in);
+            System.setOut(out);
+
+            new ScrumLanguage(cache).execute(path);
+
+            out.flush();
+            return baos.toString();
+        } finally {
+            System.setIn(stdin);
+            System.setOut(stdout);
+        }
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            return files.toList();
+        }
+    }
+}
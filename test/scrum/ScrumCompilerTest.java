@@ -0,0 +1,156 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import scrum.exception.ImpedimentCode;
+import scrum.exception.ScrumRuntimeException;
+import scrum.statement.CompositeStatement;
+import scrum.statement.FunctionStatement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares the output of the compiled programs with the output of the tree-walking interpreter
+ */
+class ScrumCompilerTest {
+    private static final List<String> PROGRAMS = List.of("""
+            I WANT TO ITERATE i FOR RANGE 0 TILL 10
+                IF i = 3
+                    next
+                ELSEIF i = 7
+                    break
+                ELSE
+                    SAY i * i
+                END IF
+            END OF ITERATION
+            SAY "done"
+            """, """
+            USER STORY "fibonacci" USING [n]
+                IF n < 2
+                    RETURN ANSWER n
+                END IF
+                RETURN ANSWER fibonacci USING [n - 1] + fibonacci USING [n - 2]
+            END OF STORY
+            SAY fibonacci USING [15]
+            """, """
+            USER STORY "find" USING [product]
+                I WANT TO ITERATE i FOR RANGE 1 TILL 10
+                    I WANT TO ITERATE j FOR RANGE 1 TILL 10
+                        IF i * j = product
+                            RETURN ANSWER i AND "x" AND j
+                        END IF
+                    END OF ITERATION
+                END OF ITERATION
+                RETURN ANSWER "none"
+            END OF STORY
+            SAY find USING [42]
+            SAY find USING [97]
+            """, """
+            total IS 0
+            n IS 10
+            I WANT TO ITERATE n > 0
+                n IS n - 1
+                IF n % 2 = 0
+                    total IS total + n
+                    IF total > 10
+                        SAY "over " AND total
+                    END IF
+                END IF
+            END OF ITERATION
+            SAY total
+            """, """
+            EPIC "Counter" USING [start]
+                USER STORY "count" USING [steps]
+                    I WANT TO ITERATE i FOR RANGE 0 TILL steps
+                        start IS start + 1
+                    END OF ITERATION
+                    RETURN ANSWER start
+                END OF STORY
+            END OF EPIC
+            counter IS NEW Counter USING [5]
+            SAY counter::count USING [3]
+            SAY counter::count USING [2]
+            """);
+
+    @Test
+    public void testSameOutput() {
+        for (String program : PROGRAMS)
+            assertEquals(run(program, false), run(program, true), program);
+    }
+
+    @Test
+    public void testExample() throws Exception {
+        Path path = Path.of(ScrumLanguageTest.SEARCH_BACKLOG_SCRUM);
+        CompiledProgram interpreted = new ScrumEngine().compile(path);
+        CompiledProgram compiled = new ScrumEngine().bytecode(true).compile(path);
+        assertEquals(run(interpreted), run(compiled));
+    }
+
+    @Test
+    public void testCompiledBlocks() {
+        CompiledProgram program = new ScrumEngine().bytecode(true).compile(PROGRAMS.get(0));
+        CompositeStatement statement = program.getProgram().statement();
+        assertNotNull(statement.getCompiled());
+        // the body of the loop is compiled on its own
+        assertNotNull(((CompositeStatement) statement.getStatements2Execute().get(0)).getCompiled());
+    }
+
+    @Test
+    public void testImpediment() {
+        String source = """
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    IF i = 2
+                        result IS 1 / (i - 2)
+                    END IF
+                END OF ITERATION
+                """;
+        ScrumRuntimeException interpreted = assertThrows(ScrumRuntimeException.class,
+                () -> new ScrumEngine().compile(source).newExecution().run());
+        ScrumRuntimeException compiled = assertThrows(ScrumRuntimeException.class,
+                () -> new ScrumEngine().bytecode(true).compile(source).newExecution().run());
+
+        assertEquals(ImpedimentCode.SCRUM_RUNTIME_ARITH_001, compiled.getImpedimentCode());
+        assertEquals(interpreted.getMessage(), compiled.getMessage());
+        assertEquals(interpreted.getLine(), compiled.getLine());
+        assertEquals(interpreted.getColumn(), compiled.getColumn());
+        assertEquals(interpreted.getSnippet(), compiled.getSnippet());
+    }
+
+    @Test
+    public void testTieredCompilation() throws InterruptedException {
+        CompiledProgram program = new ScrumEngine().compile("""
+                USER STORY "square" USING [n]
+                    RETURN ANSWER n * n
+                END OF STORY
+                total IS 0
+                I WANT TO ITERATE i FOR RANGE 0 TILL 1500
+                    total IS total + square USING [i]
+                END OF ITERATION
+                SAY total
+                """);
+        String expected = run(program);
+
+        // the story is compiled in the background once invoked often enough
+        FunctionStatement story = program.getProgram().definitionScope().getFunction("square").getStatement();
+        for (int i = 0; i < 200 && story.getCompiled() == null; i++)
+            Thread.sleep(50);
+        assertNotNull(story.getCompiled());
+        assertEquals(expected, run(program));
+    }
+
+    private String run(String source, boolean bytecode) {
+        return run(new ScrumEngine().bytecode(bytecode).compile(source));
+    }
+
+    private String run(CompiledProgram program) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        program.newExecution().output(new PrintStream(output)).run();
+        return output.toString();
+    }
+}
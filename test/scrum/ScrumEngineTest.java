@@ -0,0 +1,135 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import scrum.exception.SyntaxException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ScrumEngineTest {
+    private final ScrumEngine engine = new ScrumEngine();
+
+    @Test
+    public void testOutput() {
+        CompiledProgram program = engine.compile("""
+                SAY "Hello " + name
+                """);
+
+        assertEquals("Hello world\r\n", run(program.newExecution(Map.of("name", "world"))));
+        assertEquals("Hello team\r\n", run(program.newExecution(Map.of("name", "team"))));
+    }
+
+    @Test
+    public void testInput() {
+        CompiledProgram program = engine.compile("""
+                ASK age
+                SAY age + 1
+                """);
+
+        Execution execution = program.newExecution().input(new StringReader("41\n"));
+        assertEquals("Enter \"age\" >>> 42\r\n", run(execution));
+        assertEquals("41", execution.get("age").toString());
+    }
+
+    @Test
+    public void testVariables() {
+        CompiledProgram program = engine.compile("""
+                USER STORY "sum" USING [n]
+                    IF n < 1
+                        RETURN ANSWER 0
+                    END IF
+                    RETURN ANSWER n + sum USING [n - 1]
+                END OF STORY
+                total IS sum USING [limit]
+                done IS true
+                """);
+
+        Execution execution = program.newExecution(Map.of("limit", 10)).run();
+        assertEquals("55", execution.get("total").toString());
+        assertEquals("true", execution.get("done").toString());
+        assertEquals("10", execution.get("limit").toString());
+    }
+
+    @Test
+    public void testConcurrentExecutions() throws Exception {
+        CompiledProgram program = engine.compile("""
+                USER STORY "sum" USING [n]
+                    IF n < 1
+                        RETURN ANSWER 0
+                    END IF
+                    RETURN ANSWER n + sum USING [n - 1]
+                END OF STORY
+                I WANT TO ITERATE i FOR RANGE 0 TILL 20
+                    SAY sum USING [limit]
+                END OF ITERATION
+                """);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int limit = 0; limit < 100; limit++) {
+                Execution execution = program.newExecution(Map.of("limit", limit));
+                results.add(executor.submit(() -> run(execution)));
+            }
+            for (int limit = 0; limit < 100; limit++) {
+                String expected = ((limit * (limit + 1)) / 2) + "\r\n";
+                assertEquals(expected.repeat(20), results.get(limit).get());
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentIterations() throws Exception {
+        // each execution, and each call of the story within the loop, iterates over the elements on its own
+        CompiledProgram program = engine.compile("""
+                USER STORY "total" USING [numbers, depth, sum]
+                    I WANT TO ITERATE number FOR RANGE numbers
+                        sum IS sum + number
+                        IF depth > 0
+                            sum IS sum + total USING [numbers, depth - 1, 0]
+                        END IF
+                    END OF ITERATION
+                    RETURN ANSWER sum
+                END OF STORY
+                I WANT TO ITERATE i FOR RANGE {1, 2, 3, 4, 5}
+                    SAY total USING [{1, 2, 3} + limit, 2, 0]
+                END OF ITERATION
+                """);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = new ArrayList<>();
+            for (int limit = 0; limit < 100; limit++) {
+                Execution execution = program.newExecution(Map.of("limit", limit));
+                results.add(executor.submit(() -> run(execution)));
+            }
+            for (int limit = 0; limit < 100; limit++) {
+                String expected = (21 * (6 + limit)) + "\r\n";
+                assertEquals(expected.repeat(5), results.get(limit).get());
+            }
+        }
+    }
+
+    @Test
+    public void testSyntaxImpediment() {
+        assertThrows(SyntaxException.class, () -> engine.compile("""
+                IF a > 1
+                    SAY a
+                END OF STORY
+                """));
+    }
+
+    private String run(Execution execution) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        execution.output(new PrintStream(output)).run();
+        return output.toString();
+    }
+}
@@ -1,6 +1,7 @@
 package scrum;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.io.*;
@@ -9,6 +10,7 @@ import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
@@ -214,6 +216,21 @@ class ScrumLanguageTest {
         }
     }
 
+    /**
+     * Lazy parsing, the body of a story which is never invoked is not parsed
+     */
+    @Test
+    void lazyStoryTest(@TempDir Path directory) throws URISyntaxException, IOException {
+        Path path = Files.writeString(directory.resolve("Lazy.scrum"),
+                "USER STORY \"neverInvoked\"\n    SAY )\nEND OF STORY\nSAY \"done\"\n");
+        System.setProperty("scrum.lazy", "true");
+        try {
+            runScrumCodeWithoutInput(path.toString(), "done\r\n");
+        } finally {
+            System.clearProperty("scrum.lazy");
+        }
+    }
+
     private void runScrumCodeWithInput(String scrumCodeFile, String input, String output) throws URISyntaxException, IOException {
         Path path = Paths.get(scrumCodeFile);
 
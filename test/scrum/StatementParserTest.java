@@ -2,25 +2,32 @@ package scrum;
 
 import scrum.context.MemoryContext;
 import scrum.context.definition.DefinitionContext;
+import scrum.context.definition.DefinitionScope;
+import scrum.context.definition.FunctionDefinition;
+import scrum.exception.SyntaxException;
 import scrum.expression.ClassExpression;
 import scrum.expression.Expression;
 import scrum.expression.VariableExpression;
 import scrum.expression.operator.*;
 import scrum.expression.value.LogicalValue;
+import scrum.expression.value.IntegerValue;
 import scrum.expression.value.NumericValue;
 import scrum.expression.value.TextValue;
 import scrum.statement.*;
 import scrum.token.Token;
 import scrum.token.TokenType;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+@ExtendWith(InterpreterExtension.class)
 class StatementParserTest {
 
     @Test
@@ -102,11 +109,11 @@ class StatementParserTest {
         assertEquals(AdditionOperator.class, assignOperator.getRight().getClass());
         AdditionOperator operator = (AdditionOperator) assignOperator.getRight();
 
-        assertEquals(NumericValue.class, operator.getLeft().getClass());
+        assertEquals(IntegerValue.class, operator.getLeft().getClass());
         NumericValue left = (NumericValue) operator.getLeft();
         assertEquals(2, left.getValue());
 
-        assertEquals(NumericValue.class, operator.getRight().getClass());
+        assertEquals(IntegerValue.class, operator.getRight().getClass());
         NumericValue right = (NumericValue) operator.getRight();
         assertEquals(5, right.getValue());
 
@@ -306,7 +313,7 @@ class StatementParserTest {
         assertTrue(assignStatement.getLeft() instanceof VariableExpression);
         VariableExpression variableExpression = (VariableExpression) assignStatement.getLeft();
         assertEquals("a", variableExpression.getName());
-        assertEquals(NumericValue.class, assignStatement.getRight().getClass());
+        assertEquals(IntegerValue.class, assignStatement.getRight().getClass());
         NumericValue numericValue = (NumericValue) assignStatement.getRight();
 
         assertEquals(5, numericValue.getValue());
@@ -315,4 +322,41 @@ class StatementParserTest {
         MemoryContext.endScope();
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testLazyFunctionBody() {
+        String source = """
+                USER STORY "outer" USING [a]
+                    USER STORY "inner"
+                        SAY 1
+                    END OF STORY
+                    SAY a
+                    RETURN ANSWER inner
+                END OF STORY
+                USER STORY "broken"
+                    SAY )
+                END OF STORY
+                SAY 2
+                """;
+        DefinitionScope scope = DefinitionContext.newScope();
+        DefinitionContext.pushScope(scope);
+        CompositeStatement statement = new CompositeStatement();
+        StatementParser.parse(new LexicalParser(source).tokenize(), statement, true);
+        DefinitionContext.endScope();
+
+        // the bodies are skipped up to their own END OF STORY
+        assertEquals(1, statement.getStatements2Execute().size());
+        assertEquals(SayStatement.class, statement.getStatements2Execute().get(0).getClass());
+
+        FunctionDefinition outer = scope.getFunction("outer");
+        List<Statement> statements = outer.getStatement().getStatements2Execute();
+        assertEquals(2, statements.size());
+        assertEquals(SayStatement.class, statements.get(0).getClass());
+        assertEquals(ReturnStatement.class, statements.get(1).getClass());
+        assertEquals(1, outer.getDefinitionScope().getFunction("inner").getStatement().getStatements2Execute().size());
+
+        // syntax errors of a body are reported when it is first parsed
+        FunctionStatement broken = scope.getFunction("broken").getStatement();
+        assertThrows(SyntaxException.class, broken::getStatements2Execute);
+        assertThrows(SyntaxException.class, broken::getStatements2Execute);
+    }
+}
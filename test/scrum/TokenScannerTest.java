@@ -0,0 +1,286 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import scrum.exception.SyntaxException;
+import scrum.exception.TokenException;
+import scrum.token.Keyword;
+import scrum.token.SourceMap;
+import scrum.token.Token;
+import scrum.token.TokenBuffer;
+import scrum.token.TokenScanner;
+import scrum.token.TokenStream;
+import scrum.token.TokenType;
+import scrum.token.TokensStack;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the single pass scanner produces exactly the same tokens as the pattern based lexer.
+ */
+@ExtendWith(InterpreterExtension.class)
+class TokenScannerTest {
+
+    private static final String[] FRAGMENTS = {
+            " ", "  ", "\t", "\n", "\r\n", "\r", "\f", ",", "{", "}", "]", "[", "..", ".", "-", "+", "*", "/", "//", "%",
+            ">", ">=", "<", "<=", "<<", "=", "==", "!", "!=", "::", ":", "(", ")", "\"", "\"text\"", "\"multi\nline\"",
+            "0", "12", "3.5", ".5", "-1", "-.5", "1..3", "7.", "1.2.3", "IS", "ISS", "ISLAND", "I", "NEW", "AND", "OR",
+            "ORDER", "true", "false", "trueish", "null", "this", "null,", "this,", "nullable", "x", "_y1", "abc9",
+            "SAY", "ASK", "IF", "ELSE", "ELSEIF", "END IF", "END", "END OF STORY", "END OF EPIC", "END OF ITERATION",
+            "EPIC", "USER STORY", "USING [", "USING", "TILL", "TILLER", "FOR RANGE", "by", "break", "next", "end",
+            "RETURN ANSWER", "I WANT TO ITERATE", "I WANT TO DEFINE", "API", "ENDPOINT", "END OF API", "END OF ENDPOINT",
+            "BASE", "METHOD", "PATH", "QUERY_PARAMS", "RETURNS", "ARE", "WHEN", "END WHEN", "REQUEST", "RESPOND", "WITH",
+            "#REVIEW note", "#SPRINTGOAL goal", "#REVIEWED", "#END INTENT", "scenario"
+    };
+
+    @Test
+    public void testExamplesMatchPatternLexer() throws IOException {
+        try (Stream<Path> files = Files.walk(Path.of("development/examples"))) {
+            List<Path> examples = files.filter(t -> t.toString().endsWith(".scrum")).toList();
+            assertFalse(examples.isEmpty());
+            for (Path example : examples) {
+                assertSameTokens(Files.readString(example));
+            }
+        }
+    }
+
+    @Test
+    public void testEdgeCasesMatchPatternLexer() {
+        assertSameTokens("a-5");
+        assertSameTokens("x - 1");
+        assertSameTokens("list{j+1} < list{j}");
+        assertSameTokens("I WANT TO ITERATE i FOR RANGE 0..listLength - 1");
+        assertSameTokens("SAY null,this, null");
+        assertSameTokens("ELSEIF");
+        assertSameTokens("END IF");
+        assertSameTokens("END OF STORY\u2028");
+        assertSameTokens("#REVIEW comment\r\nSAY \"a\"");
+        assertSameTokens("#SPRINTGOAL goal\u0085x");
+        assertSameTokens("x IS \"spans\nseveral\nlines\" + 1\ny IS 2");
+        assertSameTokens("#INTENT\nAsk user for age\n#END INTENT\nSAY 1");
+        assertSameTokens("#INTENT   #END INTENT");
+        assertSameTokens("#INTENTION\n#END INTENT");
+        assertSameTokens("");
+    }
+
+    @Test
+    public void testRandomSourcesMatchPatternLexer() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder source = new StringBuilder();
+            int fragments = random.nextInt(20);
+            for (int j = 0; j < fragments; j++) {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                if (random.nextInt(3) > 0)
+                    source.append(' ');
+            }
+            assertSameTokens(source.toString());
+        }
+    }
+
+    @Test
+    public void testStreamMatchesScanner() throws IOException {
+        for (String source : chunkedSources()) {
+            for (int chunkSize : new int[]{1, 16, 4096}) {
+                assertSameStreamedTokens(source, chunkSize);
+            }
+        }
+    }
+
+    @Test
+    public void testParallelScanMatchesScanner() throws IOException {
+        for (String source : chunkedSources()) {
+            for (int chunkSize : new int[]{1, 16, 4096}) {
+                assertSameParallelTokens(source, chunkSize);
+            }
+        }
+    }
+
+    private List<String> chunkedSources() throws IOException {
+        List<String> sources = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(Path.of("development/examples"))) {
+            for (Path example : files.filter(t -> t.toString().endsWith(".scrum")).toList())
+                sources.add(Files.readString(example));
+        }
+        sources.add("x IS \"spans\nseveral\nlines\" + 1\ny IS 2\n");
+        sources.add("#REVIEW \"not a text\nSAY 1\n#INTENT\nAsk \"user\"\n#END INTENT\nSAY 2");
+        sources.add("SAY \"unfinished\nSAY 1\n");
+        sources.add("SAY 1\n#INTENT\nno end\n");
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            StringBuilder source = new StringBuilder();
+            int fragments = random.nextInt(40);
+            for (int j = 0; j < fragments; j++) {
+                source.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+                source.append(random.nextInt(3) > 0 ? " " : "\n");
+            }
+            sources.add(source.toString());
+        }
+        return sources;
+    }
+
+    @Test
+    public void testInvalidExpression() {
+        TokenException scannerException = assertThrows(TokenException.class, () -> new LexicalParser("a IS ?").parse());
+        TokenException patternException = assertThrows(TokenException.class, () -> new LexicalParser("a IS ?").parseWithPatterns());
+        assertEquals(patternException.getMessage(), scannerException.getMessage());
+
+        assertThrows(TokenException.class, () -> new LexicalParser("SAY \"unfinished").parse());
+        assertThrows(TokenException.class, () -> new LexicalParser("#INTENT\nno end").parse());
+    }
+
+    @Test
+    public void testTokenBuffer() {
+        TokenBuffer buffer = new LexicalParser("SAY \"hi\" + name\n#INTENT greet #END INTENT").tokenize();
+
+        assertEquals(8, buffer.size());
+        assertEquals(TokenType.Text, buffer.getType(1));
+        assertEquals("hi", buffer.getValue(1));
+        assertEquals(4, buffer.getStart(1));
+        assertEquals(8, buffer.getEnd(1));
+        assertTrue(buffer.valueEquals(1, "hi"));
+        assertFalse(buffer.valueEquals(1, "\"hi\""));
+        assertTrue(buffer.valueEquals(3, "name"));
+        assertEquals(" greet ", buffer.getValue(6));
+        assertEquals(2, buffer.getRow(7));
+        assertSame(buffer, TokenBuffer.of(buffer.asList()));
+
+        TokenBuffer copy = TokenBuffer.of(new ArrayList<>(buffer.asList()));
+        assertEquals(buffer.size(), copy.size());
+        for (int i = 0; i < buffer.size(); i++) {
+            assertEquals(buffer.getType(i), copy.getType(i));
+            assertEquals(buffer.getValue(i), copy.getValue(i));
+            assertEquals(buffer.getRow(i), copy.getRow(i));
+        }
+    }
+
+    @Test
+    public void testTokensStackMatching() {
+        TokenBuffer buffer = new LexicalParser("#REVIEW note\n\nEND IF\n  x IS 1").tokenize();
+        assertEquals(3, buffer.nextSignificant(0));
+        assertEquals(5, buffer.nextSignificant(4));
+
+        TokensStack stack = new TokensStack(buffer);
+        Set<Keyword> blockEnd = EnumSet.of(Keyword.END_IF, Keyword.END_OF_STORY);
+        assertTrue(stack.peek(blockEnd));
+        assertFalse(stack.peek(Keyword.ELSE));
+        Token endIf = stack.next(blockEnd);
+        assertEquals("END IF", endIf.getValue());
+        assertSame(Keyword.END_IF, endIf.getKeyword());
+        assertFalse(stack.peekSameLine(TokenType.mask(TokenType.Variable)));
+        assertTrue(stack.peek(TokenType.mask(TokenType.Operator, TokenType.Variable)));
+        assertEquals("x", stack.next(TokenType.mask(TokenType.Variable)).getValue());
+        assertThrows(SyntaxException.class, () -> stack.next(TokenType.mask(TokenType.Keyword)));
+        assertTrue(stack.peekSameLine(TokenType.Operator, "IS"));
+        assertNull(stack.next().getKeyword());
+        assertThrows(SyntaxException.class, () -> stack.next(Keyword.TILL));
+    }
+
+    private void assertSameStreamedTokens(String source, int chunkSize) {
+        List<Token> expected;
+        try {
+            expected = new LexicalParser(source).parse();
+        } catch (TokenException e) {
+            TokenException actual = assertThrows(TokenException.class, () -> readStream(source, chunkSize), source);
+            assertEquals(e.getMessage(), actual.getMessage(), source);
+            assertEquals(e.getColumn(), actual.getColumn(), source);
+            return;
+        }
+        TokenStream stream = new TokenStream(new StringReader(source), chunkSize);
+        List<Token> actual = readStream(stream);
+
+        assertEquals(expected.size(), actual.size(), source);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType(), source);
+            assertEquals(expected.get(i).getValue(), actual.get(i).getValue(), source);
+            assertEquals(expected.get(i).getRow(), actual.get(i).getRow(), source);
+            assertEquals(expected.get(i).getColumn(), actual.get(i).getColumn(), source);
+            assertEquals(expected.get(i).getOffset(), actual.get(i).getOffset(), source);
+        }
+
+        SourceMap sourceMap = new SourceMap(source);
+        SourceMap streamedMap = stream.getSourceMap();
+        assertEquals(sourceMap.getLineCount(), streamedMap.getLineCount(), source);
+        for (int line = 1; line <= sourceMap.getLineCount(); line++)
+            assertEquals(sourceMap.getLineStart(line), streamedMap.getLineStart(line), source);
+    }
+
+    private void assertSameParallelTokens(String source, int chunkSize) {
+        SourceMap sourceMap = new SourceMap(source);
+        TokenBuffer expected;
+        try {
+            expected = new TokenScanner(sourceMap).scan();
+        } catch (TokenException e) {
+            TokenException actual = assertThrows(TokenException.class, () -> TokenScanner.scanInParallel(sourceMap, chunkSize), source);
+            assertEquals(e.getMessage(), actual.getMessage(), source);
+            assertEquals(e.getLine(), actual.getLine(), source);
+            assertEquals(e.getColumn(), actual.getColumn(), source);
+            return;
+        }
+        TokenBuffer actual = TokenScanner.scanInParallel(sourceMap, chunkSize);
+
+        assertEquals(expected.size(), actual.size(), source);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getType(i), actual.getType(i), source);
+            assertEquals(expected.getLexemeId(i), actual.getLexemeId(i), source);
+            assertEquals(expected.getValue(i), actual.getValue(i), source);
+            assertEquals(expected.getRow(i), actual.getRow(i), source);
+            assertEquals(expected.getColumn(i), actual.getColumn(i), source);
+            assertEquals(expected.getStart(i), actual.getStart(i), source);
+            assertEquals(expected.getEnd(i), actual.getEnd(i), source);
+        }
+    }
+
+    private List<Token> readStream(String source, int chunkSize) {
+        return readStream(new TokenStream(new StringReader(source), chunkSize));
+    }
+
+    private List<Token> readStream(TokenStream stream) {
+        List<Token> tokens = new ArrayList<>();
+        TokenBuffer chunk;
+        while ((chunk = stream.nextChunk()) != null)
+            tokens.addAll(chunk.asList());
+        return tokens;
+    }
+
+    private void assertSameTokens(String source) {
+        List<Token> expected;
+        try {
+            expected = new LexicalParser(source).parseWithPatterns();
+        } catch (TokenException e) {
+            TokenException actual = assertThrows(TokenException.class, () -> new LexicalParser(source).parse(), source);
+            assertEquals(e.getMessage(), actual.getMessage(), source);
+            return;
+        }
+        List<Token> actual = new LexicalParser(source).parse();
+
+        assertEquals(expected.size(), actual.size(), source);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getType(), actual.get(i).getType(), source);
+            assertEquals(expected.get(i).getValue(), actual.get(i).getValue(), source);
+            assertEquals(expected.get(i).getRow(), actual.get(i).getRow(), source);
+            assertEquals(expected.get(i).getRow(), new SourceMap(source).getLine(actual.get(i).getOffset()), source);
+            Keyword keyword = actual.get(i).getKeyword();
+            if (keyword != null)
+                assertEquals(keyword.getLexeme(), actual.get(i).getValue(), source);
+            else
+                assertFalse(actual.get(i).getType() == TokenType.Keyword, source);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package scrum;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import scrum.context.MemoryContext;
+import scrum.context.MemoryScope;
+import scrum.context.definition.DefinitionContext;
+import scrum.expression.VariableExpression;
+import scrum.expression.operator.AssignmentOperator;
+import scrum.statement.CompositeStatement;
+import scrum.statement.ExpressionStatement;
+import scrum.statement.loop.ForLoopStatement;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(InterpreterExtension.class)
+class VariableResolverTest {
+
+    @Test
+    public void testAddress() {
+        DefinitionContext.pushScope(DefinitionContext.newScope());
+        CompositeStatement statement = parse("""
+                a IS 1
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    a IS a + i
+                END OF ITERATION
+                """, true);
+        DefinitionContext.endScope();
+
+        assertNotNull(statement.getFrameLayout());
+        ExpressionStatement expression = (ExpressionStatement) statement.getStatements2Execute().get(0);
+        VariableExpression variable = (VariableExpression) ((AssignmentOperator) expression.getExpression()).getLeft();
+        assertEquals(0, variable.getAddress().rootDepth());
+        assertEquals(0, variable.getAddress().slots()[0]);
+    }
+
+    @Test
+    public void testLoop() {
+        assertSameOutput("""
+                total IS 0
+                I WANT TO ITERATE i FOR RANGE 0 TILL 5
+                    total IS total + i
+                    last IS i
+                END OF ITERATION
+                SAY total
+                SAY i
+                SAY last
+                """, "10\r\nnull\r\nnull\r\n");
+    }
+
+    @Test
+    public void testCondition() {
+        assertSameOutput("""
+                a IS 1
+                IF a = 1
+                    a IS 2
+                    b IS 3
+                END IF
+                SAY a
+                SAY b
+                """, "2\r\nnull\r\n");
+    }
+
+    @Test
+    public void testStoryUpdatesCallerVariables() {
+        assertSameOutput("""
+                USER STORY "increment" USING [step]
+                    counter IS counter + step
+                    local IS step
+                    RETURN ANSWER local
+                END OF STORY
+                counter IS 1
+                step IS 10
+                SAY increment USING [2]
+                SAY counter
+                SAY step
+                SAY local
+                """, "2\r\n3\r\n10\r\nnull\r\n");
+    }
+
+    @Test
+    public void testIterationFrameIsEmptied() {
+        assertSameOutput("""
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    SAY seen
+                    seen IS i
+                END OF ITERATION
+                """, "null\r\nnull\r\nnull\r\n");
+    }
+
+    @Test
+    public void testRecursion() {
+        assertSameOutput("""
+                USER STORY "factorial" USING [n]
+                    IF n < 2
+                        RETURN ANSWER 1
+                    END IF
+                    RETURN ANSWER n * factorial USING [n - 1]
+                END OF STORY
+                SAY factorial USING [5]
+                SAY n
+                """, "120\r\nnull\r\n");
+    }
+
+    @Test
+    public void testAssignedCounter() {
+        DefinitionContext.pushScope(DefinitionContext.newScope());
+        CompositeStatement statement = parse("""
+                USER STORY "skip" USING [n]
+                    i IS i + n
+                END OF STORY
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    j IS i * 2
+                END OF ITERATION
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    IF i = 1
+                        i IS 2
+                    END IF
+                END OF ITERATION
+                I WANT TO ITERATE i FOR RANGE 0 TILL 3
+                    skip USING [1]
+                END OF ITERATION
+                """, true);
+        DefinitionContext.endScope();
+
+        List<Boolean> assigned = statement.getStatements2Execute().stream()
+                .filter(ForLoopStatement.class::isInstance)
+                .map(loop -> ((ForLoopStatement) loop).isCounterAssigned())
+                .toList();
+        assertEquals(List.of(false, true, true), assigned);
+    }
+
+    @Test
+    public void testCounterAssignedByStatements() {
+        assertSameOutput("""
+                I WANT TO ITERATE i FOR RANGE 0 TILL 10
+                    IF i = 2
+                        i IS 6
+                    END IF
+                    SAY i
+                END OF ITERATION
+                """, "0\r\n1\r\n6\r\n7\r\n8\r\n9\r\n");
+        // a story updates the counter of its caller
+        assertSameOutput("""
+                USER STORY "skip" USING [n]
+                    i IS i + n
+                END OF STORY
+                I WANT TO ITERATE i FOR RANGE 0 TILL 10
+                    SAY i
+                    skip USING [3]
+                END OF ITERATION
+                """, "0\r\n4\r\n8\r\n");
+    }
+
+    @Test
+    public void testIntentBlockIsNotResolved() {
+        DefinitionContext.pushScope(DefinitionContext.newScope());
+        CompositeStatement statement = parse("""
+                a IS 1
+                #INTENT
+                    print a
+                #END INTENT
+                """, true);
+        DefinitionContext.endScope();
+
+        assertNull(statement.getFrameLayout());
+        ExpressionStatement expression = (ExpressionStatement) statement.getStatements2Execute().get(0);
+        assertNull(((VariableExpression) ((AssignmentOperator) expression.getExpression()).getLeft()).getAddress());
+    }
+
+    private void assertSameOutput(String source, String expected) {
+        assertEquals(expected, run(source, false));
+        assertEquals(expected, run(source, true));
+    }
+
+    private CompositeStatement parse(String source, boolean resolve) {
+        CompositeStatement statement = new CompositeStatement();
+        StatementParser.parse(new LexicalParser(source).tokenize(), statement);
+        if (resolve)
+            VariableResolver.resolve(statement, List.of());
+        return statement;
+    }
+
+    private String run(String source, boolean resolve) {
+        PrintStream stdout = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        DefinitionContext.pushScope(DefinitionContext.newScope());
+        try {
+            CompositeStatement statement = parse(source, resolve);
+            MemoryContext.pushScope(new MemoryScope(null, statement.getFrameLayout()));
+            System.setOut(new PrintStream(output));
+            try {
+                statement.execute();
+            } finally {
+                System.setOut(stdout);
+                MemoryContext.endScope();
+            }
+            return output.toString();
+        } finally {
+            DefinitionContext.endScope();
+        }
+    }
+}